@@ -21,14 +21,16 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
@@ -45,6 +47,7 @@ import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
 import net.spy.memcached.collection.Attributes;
+import net.spy.memcached.collection.BKeyRange;
 import net.spy.memcached.collection.BKeyObject;
 import net.spy.memcached.collection.BTreeCount;
 import net.spy.memcached.collection.BTreeCreate;
@@ -76,6 +79,7 @@ import net.spy.memcached.collection.CollectionCreate;
 import net.spy.memcached.collection.CollectionDelete;
 import net.spy.memcached.collection.CollectionExist;
 import net.spy.memcached.collection.CollectionGet;
+import net.spy.memcached.collection.CollectionGetResult;
 import net.spy.memcached.collection.CollectionMutate;
 import net.spy.memcached.collection.CollectionOverflowAction;
 import net.spy.memcached.collection.CollectionPipedStore;
@@ -97,6 +101,7 @@ import net.spy.memcached.collection.ListCreate;
 import net.spy.memcached.collection.ListDelete;
 import net.spy.memcached.collection.ListGet;
 import net.spy.memcached.collection.ListStore;
+import net.spy.memcached.collection.RequestMode;
 import net.spy.memcached.collection.SMGetElement;
 import net.spy.memcached.collection.SetCreate;
 import net.spy.memcached.collection.SetDelete;
@@ -182,8 +187,8 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	
 	static final int BOPGET_BULK_CHUNK_SIZE = 200;
 	static final int NON_PIPED_BULK_INSERT_CHUNK_SIZE = 500;
+	static final int PIPED_STORE_STREAM_WINDOW = 4;
 	
-	static final int MAX_GETBULK_KEY_COUNT = 200;
 	static final int MAX_GETBULK_ELEMENT_COUNT = 50;
 	static final int MAX_SMGET_COUNT = 1000; // server configuration is 2000.
 	
@@ -341,7 +346,7 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 			throws IOException {
 		super(cf, addrs);
 		bulkService = new BulkService(cf.getBulkServiceLoopLimit(),
-				cf.getBulkServiceThreadCount(), cf.getBulkServiceSingleOpTimeout());
+				cf.getBulkServiceSingleOpTimeout());
 		collectionTranscoder = new CollectionTranscoder();
 		smgetKeyChunkSize = cf.getDefaultMaxSMGetKeyChunkSize();
 		registerMbean();
@@ -377,14 +382,12 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	@Override
 	public void shutdown() {
 		super.shutdown();
+		bulkService.shutdown();
 		// Connect to Arcus server directly, cache manager may be null.
 		if (cacheManager != null) {
 			cacheManager.shutdown();
 		}
 		dead = true;
-		if (bulkService != null) {
-			bulkService.shutdown();
-		}
 	}
 
 	Future<Boolean> asyncStore(StoreType storeType, String key,
@@ -663,6 +666,13 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	private <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(
 			final String k, final CollectionGet<T> collectionGet,
 			final boolean reverse, final Transcoder<T> tc) {
+		return asyncBopGet(k, collectionGet, reverse, tc, null);
+	}
+
+	<T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(
+			final String k, final CollectionGet<T> collectionGet,
+			final boolean reverse, final Transcoder<T> tc,
+			OperationBatch batch) {
 		final CountDownLatch latch = new CountDownLatch(1);
 		final CollectionFuture<Map<Long, Element<T>>> rv = new CollectionFuture<Map<Long, Element<T>>>(
 				latch, operationTimeout);
@@ -728,10 +738,158 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 					}
 				});
 		rv.setOperation(op);
-		addOp(k, op);
+		addOp(k, op, batch);
 		return rv;
 	}
 	
+	/**
+	 * Generic multi-range get operation for b+tree items.
+	 * The gets are queued one after another on the node of the key,
+	 * so they are written together and take a single round trip.
+	 *
+	 * @param k  b+tree item's key
+	 * @param getList  operation parameters of each bkey range
+	 * @param reverse  false=forward or true=backward
+	 * @param tc  transcoder to serialize and unserialize value
+	 * @return future holding the merged map of fetched elements and their keys
+	 */
+	private <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(
+			final String k, final List<BTreeGet<T>> getList,
+			final boolean reverse, final Transcoder<T> tc) {
+		if (getList.isEmpty()) {
+			throw new IllegalArgumentException(
+					"bkey range list cannot be empty.");
+		}
+		if (getList.size() > CollectionPipedStore.MAX_PIPED_ITEM_COUNT) {
+			throw new IllegalArgumentException(
+					"max bkey range count cannot be over "
+							+ CollectionPipedStore.MAX_PIPED_ITEM_COUNT + ".");
+		}
+
+		final ConcurrentLinkedQueue<Operation> ops = new ConcurrentLinkedQueue<Operation>();
+
+		final CountDownLatch latch = new CountDownLatch(getList.size());
+
+		final List<CollectionOperationStatus> mergedOperationStatus = Collections
+				.synchronizedList(new ArrayList<CollectionOperationStatus>(getList.size()));
+
+		// all callbacks are run on the i/o thread and the result is read
+		// after the latch is released, so no synchronization is needed.
+		final TreeMap<Long, Element<T>> mergedResult = new TreeMap<Long, Element<T>>(
+				(reverse) ? Collections.reverseOrder() : null);
+
+		List<Operation> getOps = new ArrayList<Operation>(getList.size());
+		for (final BTreeGet<T> get : getList) {
+			Operation op = opFact.collectionGet(k, get,
+					new CollectionGetOperation.Callback() {
+						public void receivedStatus(OperationStatus status) {
+							if (status instanceof CollectionOperationStatus) {
+								mergedOperationStatus.add((CollectionOperationStatus) status);
+							} else {
+								getLogger().warn("Unhandled state: " + status);
+							}
+						}
+						public void complete() {
+							latch.countDown();
+						}
+						public void gotData(String key, long subkey, int flags,
+								byte[] data) {
+							assert key.equals(k) : "Wrong key returned";
+							mergedResult.put(subkey,
+									new Element<T>(subkey, tc
+											.decode(new CachedData(flags, data, tc
+													.getMaxSize())), get
+											.getElementFlag()));
+						}
+					});
+			getOps.add(op);
+		}
+		validateKey(k);
+		ops.addAll(getOps);
+		addOperations(Collections.nCopies(getOps.size(), k), getOps);
+
+		return new CollectionFuture<Map<Long, Element<T>>>(latch,
+				operationTimeout) {
+
+			@Override
+			public boolean cancel(boolean ign) {
+				boolean rv = false;
+				for (Operation op : ops) {
+					op.cancel();
+					rv |= op.getState() == OperationState.WRITING;
+				}
+				return rv;
+			}
+
+			@Override
+			public boolean isCancelled() {
+				for (Operation op : ops) {
+					if (op.isCancelled())
+						return true;
+				}
+				return false;
+			}
+
+			@Override
+			public Map<Long, Element<T>> get(long duration, TimeUnit units)
+					throws InterruptedException, TimeoutException,
+					ExecutionException {
+
+				if (!latch.await(duration, units)) {
+					for (Operation op : ops) {
+						MemcachedConnection.opTimedOut(op);
+					}
+					throw new CheckedOperationTimeoutException(
+							"Timed out waiting for operation", ops);
+				} else {
+					// continuous timeout counter will be reset
+					for (Operation op : ops) {
+						MemcachedConnection.opSucceeded(op);
+					}
+				}
+
+				for (Operation op : ops) {
+					if (op != null && op.hasErrored()) {
+						throw new ExecutionException(op.getException());
+					}
+				}
+				if (isCancelled()) {
+					throw new ExecutionException(new RuntimeException(
+							"Cancelled"));
+				}
+
+				// the key was not found or is not readable
+				CollectionOperationStatus status = getOperationStatus();
+				if (!status.isSuccess()
+						&& status.getResponse() != CollectionResponse.NOT_FOUND_ELEMENT) {
+					return null;
+				}
+				return mergedResult;
+			}
+
+			@Override
+			public CollectionOperationStatus getOperationStatus() {
+				CollectionOperationStatus notFoundElement = null;
+				synchronized (mergedOperationStatus) {
+					for (CollectionOperationStatus status : mergedOperationStatus) {
+						if (status.isSuccess()) {
+							continue;
+						}
+						if (status.getResponse() != CollectionResponse.NOT_FOUND_ELEMENT) {
+							return status;
+						}
+						notFoundElement = status;
+					}
+				}
+				if (notFoundElement != null && mergedResult.isEmpty()) {
+					return notFoundElement;
+				}
+				return new CollectionOperationStatus(true, "END",
+						CollectionResponse.END);
+			}
+		};
+	}
+
 	/**
 	 * Generic store operation for collection items. Public methods for collection items call this method.
 	 *
@@ -1106,6 +1264,13 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	private <T> CollectionFuture<Boolean> asyncCollectionExist(
 			final String key, final String subkey,
 			final CollectionExist<T> collectionExist, Transcoder<T> tc) {
+		return asyncCollectionExist(key, subkey, collectionExist, tc, null);
+	}
+
+	<T> CollectionFuture<Boolean> asyncCollectionExist(
+			final String key, final String subkey,
+			final CollectionExist<T> collectionExist, Transcoder<T> tc,
+			OperationBatch batch) {
 		final CountDownLatch latch = new CountDownLatch(1);
 		final CollectionFuture<Boolean> rv = new CollectionFuture<Boolean>(
 				latch, operationTimeout);
@@ -1142,7 +1307,7 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 					}
 				});
 		rv.setOperation(op);
-		addOp(key, op);
+		addOp(key, op, batch);
 		return rv;
 	}
 
@@ -1151,7 +1316,7 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	 */
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncSetBulk(List<String> key, int exp, T o, Transcoder<T> tc) {
-		return bulkService.setBulk(key, exp, o, tc, new ArcusClient[] { this });
+		return bulkService.setBulk(this, key, exp, o, tc);
 	}
 
 	/* (non-Javadoc)
@@ -1167,7 +1332,7 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	 */
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncSetBulk(Map<String, T> o, int exp, Transcoder<T> tc) {
-		return bulkService.setBulk(o, exp, tc, new ArcusClient[] { this });
+		return bulkService.setBulk(this, o, exp, tc);
 	}
 
 	/* (non-Javadoc)
@@ -1178,6 +1343,94 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		return asyncSetBulk(o, exp, transcoder);
 	}
 
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncDeleteBulk(java.util.Collection)
+	 */
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncDeleteBulk(Collection<String> keys) {
+		return asyncDeleteBulk(keys, false);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncDeleteBulk(java.util.Collection, boolean)
+	 */
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncDeleteBulk(Collection<String> keys, boolean noreply) {
+		return bulkService.deleteBulk(this, keys, noreply);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncIncrBulk(java.util.Map)
+	 */
+	@Override
+	public Future<Map<String, Long>> asyncIncrBulk(Map<String, Integer> counters) {
+		return bulkService.mutateBulk(this, Mutator.incr, counters, -1, 0);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncIncrBulk(java.util.Map, long, int)
+	 */
+	@Override
+	public Future<Map<String, Long>> asyncIncrBulk(Map<String, Integer> counters, long def, int exp) {
+		return bulkService.mutateBulk(this, Mutator.incr, counters, def, exp);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncDecrBulk(java.util.Map)
+	 */
+	@Override
+	public Future<Map<String, Long>> asyncDecrBulk(Map<String, Integer> counters) {
+		return bulkService.mutateBulk(this, Mutator.decr, counters, -1, 0);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncDecrBulk(java.util.Map, long, int)
+	 */
+	@Override
+	public Future<Map<String, Long>> asyncDecrBulk(Map<String, Integer> counters, long def, int exp) {
+		return bulkService.mutateBulk(this, Mutator.decr, counters, def, exp);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSetAttrBulk(java.util.Collection, net.spy.memcached.collection.Attributes)
+	 */
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncSetAttrBulk(Collection<String> keys, Attributes attrs) {
+		return bulkService.setAttrBulk(this, keys, attrs);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncGetAttrBulk(java.util.Collection)
+	 */
+	@Override
+	public Future<Map<String, CollectionGetResult<CollectionAttributes>>> asyncGetAttrBulk(Collection<String> keys) {
+		return bulkService.getAttrBulk(this, keys);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncCASBulk(java.util.Map, int, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> Future<Map<String, CollectionOperationStatus>> asyncCASBulk(Map<String, CASValue<T>> o, int exp, Transcoder<T> tc) {
+		return bulkService.casBulk(this, o, exp, tc);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncCASBulk(java.util.Map, int)
+	 */
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncCASBulk(Map<String, CASValue<Object>> o, int exp) {
+		return asyncCASBulk(o, exp, transcoder);
+	}
+
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#newBatch()
+	 */
+	@Override
+	public OperationBatch newBatch() {
+		return new OperationBatch(this);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.spy.memcached.ArcusClientIF#getMaxPipedItemCount()
@@ -1332,6 +1585,58 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		return asyncBopGet(key, get, reverse, tc);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopGet(java.lang.String, java.util.List, net.spy.memcached.collection.ElementFlagFilter, int)
+	 */
+	@Override
+	public CollectionFuture<Map<Long, Element<Object>>> asyncBopGet(String key,
+			List<BKeyRange> ranges, ElementFlagFilter eFlagFilter, int count) {
+		return asyncBopGet(key, ranges, eFlagFilter, count, collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopGet(java.lang.String, java.util.List, net.spy.memcached.collection.ElementFlagFilter, int, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(String key,
+			List<BKeyRange> ranges, ElementFlagFilter eFlagFilter, int count,
+			Transcoder<T> tc) {
+		List<BTreeGet<T>> getList = new ArrayList<BTreeGet<T>>(ranges.size());
+		boolean reverse = !ranges.isEmpty();
+		for (BKeyRange range : ranges) {
+			getList.add(new BTreeGet<T>(range.getFrom(), range.getTo(), 0,
+					count, false, false, eFlagFilter));
+			reverse &= range.isDescending();
+		}
+		return asyncBopGet(key, getList, reverse, tc);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopGet(java.lang.String, long[], net.spy.memcached.collection.ElementFlagFilter)
+	 */
+	@Override
+	public CollectionFuture<Map<Long, Element<Object>>> asyncBopGet(String key,
+			long[] bkeys, ElementFlagFilter eFlagFilter) {
+		return asyncBopGet(key, bkeys, eFlagFilter, collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopGet(java.lang.String, long[], net.spy.memcached.collection.ElementFlagFilter, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(String key,
+			long[] bkeys, ElementFlagFilter eFlagFilter, Transcoder<T> tc) {
+		List<BTreeGet<T>> getList = new ArrayList<BTreeGet<T>>(bkeys.length);
+		for (long bkey : bkeys) {
+			getList.add(new BTreeGet<T>(bkey, false, false, eFlagFilter));
+		}
+		return asyncBopGet(key, getList, false, tc);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.spy.memcached.ArcusClientIF#asyncLopGet(java.lang.String, int, boolean, boolean)
@@ -1398,6 +1703,114 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		return asyncSopGet(key, get, tc);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncLopGetBulk(java.util.List, int, int)
+	 */
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<List<Object>>>> asyncLopGetBulk(
+			List<String> keyList, int from, int to) {
+		return asyncLopGetBulk(keyList, from, to, collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncLopGetBulk(java.util.List, int, int, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionGetBulkFuture<Map<String, CollectionGetResult<List<T>>>> asyncLopGetBulk(
+			List<String> keyList, int from, int to, Transcoder<T> tc) {
+		Map<String, CollectionGet<T>> gets = new HashMap<String, CollectionGet<T>>();
+		for (String key : keyList) {
+			gets.put(key, new ListGet<T>(from, to, false));
+		}
+		return collectionGetBulk(gets, false, tc);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSopGetBulk(java.util.List, int)
+	 */
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Set<Object>>>> asyncSopGetBulk(
+			List<String> keyList, int count) {
+		return asyncSopGetBulk(keyList, count, collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSopGetBulk(java.util.List, int, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionGetBulkFuture<Map<String, CollectionGetResult<Set<T>>>> asyncSopGetBulk(
+			List<String> keyList, int count, Transcoder<T> tc) {
+		Map<String, CollectionGet<T>> gets = new HashMap<String, CollectionGet<T>>();
+		for (String key : keyList) {
+			gets.put(key, new SetGet<T>(count, false));
+		}
+		return collectionGetBulk(gets, true, tc);
+	}
+
+	/**
+	 * Generic bulk get operation for list and set items.
+	 * The keys are grouped by node, and the get operations of each node are
+	 * added to its queue at once, so they are written one after another.
+	 *
+	 * @param gets  operation parameters of each key
+	 * @param asSet  true to collect the elements of each key into a set, false into a list
+	 * @param tc  transcoder to serialize and unserialize value
+	 * @return future holding the elements and the status of each key
+	 */
+	@SuppressWarnings("unchecked")
+	private <T, C extends Collection<T>> CollectionGetBulkFuture<Map<String, CollectionGetResult<C>>> collectionGetBulk(
+			final Map<String, CollectionGet<T>> gets, final boolean asSet,
+			final Transcoder<T> tc) {
+		final Map<String, CollectionGetResult<C>> result =
+			new ConcurrentHashMap<String, CollectionGetResult<C>>();
+		final CountDownLatch latch = new CountDownLatch(gets.size());
+		final List<Operation> ops = new ArrayList<Operation>(gets.size());
+
+		for (List<String> group : groupingKeys(
+				new ArrayList<String>(gets.keySet()), Integer.MAX_VALUE)) {
+			List<Operation> groupOps = new ArrayList<Operation>(group.size());
+			for (final String k : group) {
+				final C elements = (C) (asSet ? new HashSet<T>()
+						: new ArrayList<T>());
+				groupOps.add(opFact.collectionGet(k, gets.get(k),
+						new CollectionGetOperation.Callback() {
+					public void receivedStatus(OperationStatus status) {
+						CollectionOperationStatus cstatus;
+						if (status instanceof CollectionOperationStatus) {
+							cstatus = (CollectionOperationStatus) status;
+						} else {
+							cstatus = new CollectionOperationStatus(status);
+						}
+						// an item without elements in the range is found.
+						boolean found = cstatus.isSuccess()
+								|| cstatus.getResponse() == CollectionResponse.NOT_FOUND_ELEMENT;
+						result.put(k, new CollectionGetResult<C>(
+								found ? elements : null, cstatus));
+					}
+
+					public void complete() {
+						latch.countDown();
+					}
+
+					public void gotData(String key, long subkey, int flags,
+							byte[] data) {
+						assert key.equals(k) : "Wrong key returned";
+						elements.add(tc.decode(new CachedData(flags, data, tc
+								.getMaxSize())));
+					}
+				}));
+			}
+			addOperations(group, groupOps);
+			ops.addAll(groupOps);
+		}
+		return new CollectionGetBulkFuture<Map<String, CollectionGetResult<C>>>(
+				latch, ops, result, operationTimeout);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.spy.memcached.ArcusClientIF#asyncBopDelete(java.lang.String, long, boolean)
@@ -1818,10 +2231,10 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 					"Cannot value of 'offset + count' larger than " + MAX_SMGET_COUNT);
 		}
 		
-		Map<String, List<String>> arrangedKey = groupingKeys(keyList, smgetKeyChunkSize);
+		List<List<String>> arrangedKey = groupingKeys(keyList, smgetKeyChunkSize);
 		List<BTreeSMGet<Object>> smGetList = new ArrayList<BTreeSMGet<Object>>(
 				arrangedKey.size());
-		for (List<String> v : arrangedKey.values()) {
+		for (List<String> v : arrangedKey) {
 			if (arrangedKey.size() > 1) {
 				smGetList.add(new BTreeSMGetWithLongTypeBkey<Object>(v, from, to, eFlagFilter, 0, offset + count));
 			}else {
@@ -1837,43 +2250,17 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	 *
 	 * @param keyList  list of keys
 	 * @param groupSize  max size of the key group (number of keys)
-	 * @return map of group name (memcached node + sequence number) and keys in the group
+	 * @return list of key groups
 	 */
-	private Map<String, List<String>> groupingKeys(List<String> keyList, int groupSize) {
-		Map<String, Integer> chunkCount = new HashMap<String, Integer>();
-		Map<String, List<String>> result = new HashMap<String, List<String>>();
-
-		MemcachedConnection conn = getMemcachedConnection();
-
+	private List<List<String>> groupingKeys(List<String> keyList, int groupSize) {
 		for (String k : keyList) {
 			validateKey(k);
-			String node = conn.findNodeByKey(k).getSocketAddress().toString();
-			int cc;
-			if (chunkCount.containsKey(node)) {
-				cc = chunkCount.get(node);
-			} else {
-				cc = 0;
-				chunkCount.put(node, 0);
-			}
-			
-			String resultKey = node + cc;
-			
-			List<String> arrangedKeyList = null;
-			
-			if (result.containsKey(resultKey)) {
-				if (result.get(resultKey).size() >= groupSize) {
-					arrangedKeyList = new ArrayList<String>();
-					cc++;
-					result.put(node + cc, arrangedKeyList);
-					chunkCount.put(node, cc);
-				} else {
-					arrangedKeyList = result.get(resultKey);
-				}
-			} else {
-				arrangedKeyList = new ArrayList<String>();
-				result.put(resultKey, arrangedKeyList);
-			}
-			arrangedKeyList.add(k);
+		}
+
+		List<List<String>> result = new ArrayList<List<String>>();
+		for (List<List<String>> chunks : getMemcachedConnection()
+				.groupKeysByNode(keyList, groupSize).values()) {
+			result.addAll(chunks);
 		}
 		return result;
 	}
@@ -2265,6 +2652,209 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 				collectionUpdate, tc);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSetNoreply(java.lang.String, int, java.lang.Object)
+	 */
+	@Override
+	public Future<Boolean> asyncSetNoreply(String key, int exp, Object o) {
+		return asyncSetNoreply(key, exp, o, transcoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSetNoreply(java.lang.String, int, java.lang.Object, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> Future<Boolean> asyncSetNoreply(String key, int exp, T o,
+			Transcoder<T> tc) {
+		CachedData co = tc.encode(o);
+		final CountDownLatch latch = new CountDownLatch(1);
+		final OperationFuture<Boolean> rv = new OperationFuture<Boolean>(
+				latch, operationTimeout);
+		Operation op = opFact.store(StoreType.set, key, co.getFlags(), exp,
+				co.getData(), true, new NoreplyCallback(rv, latch));
+		rv.setOperation(op);
+		addOp(key, op);
+		return rv;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncDeleteNoreply(java.lang.String)
+	 */
+	@Override
+	public Future<Boolean> asyncDeleteNoreply(String key) {
+		if (localCacheManager != null) {
+			localCacheManager.delete(key);
+		}
+		final CountDownLatch latch = new CountDownLatch(1);
+		final OperationFuture<Boolean> rv = new OperationFuture<Boolean>(
+				latch, operationTimeout);
+		Operation op = opFact.delete(key, true, new NoreplyCallback(rv, latch));
+		rv.setOperation(op);
+		addOp(key, op);
+		return rv;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncIncrNoreply(java.lang.String, int)
+	 */
+	@Override
+	public Future<Boolean> asyncIncrNoreply(String key, int by) {
+		return asyncMutateNoreply(Mutator.incr, key, by);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncDecrNoreply(java.lang.String, int)
+	 */
+	@Override
+	public Future<Boolean> asyncDecrNoreply(String key, int by) {
+		return asyncMutateNoreply(Mutator.decr, key, by);
+	}
+
+	private Future<Boolean> asyncMutateNoreply(Mutator m, String key, int by) {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final OperationFuture<Boolean> rv = new OperationFuture<Boolean>(
+				latch, operationTimeout);
+		Operation op = opFact.mutate(m, key, by, -1, 0, true,
+				new NoreplyCallback(rv, latch));
+		rv.setOperation(op);
+		addOp(key, op);
+		return rv;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopInsertNoreply(java.lang.String, long, byte[], java.lang.Object, net.spy.memcached.collection.CollectionAttributes)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncBopInsertNoreply(String key,
+			long bkey, byte[] eFlag, Object value,
+			CollectionAttributes attributesForCreate) {
+		BTreeStore<Object> bTreeStore = new BTreeStore<Object>(value, eFlag,
+				(attributesForCreate != null), RequestMode.NO_REPLY,
+				attributesForCreate);
+		return asyncCollectionStore(key, String.valueOf(bkey), bTreeStore,
+				collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopInsertNoreply(java.lang.String, long, byte[], java.lang.Object, net.spy.memcached.collection.CollectionAttributes, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionFuture<Boolean> asyncBopInsertNoreply(String key,
+			long bkey, byte[] eFlag, T value,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
+		BTreeStore<T> bTreeStore = new BTreeStore<T>(value, eFlag,
+				(attributesForCreate != null), RequestMode.NO_REPLY,
+				attributesForCreate);
+		return asyncCollectionStore(key, String.valueOf(bkey), bTreeStore, tc);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncLopInsertNoreply(java.lang.String, int, java.lang.Object, net.spy.memcached.collection.CollectionAttributes)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncLopInsertNoreply(String key,
+			int index, Object value, CollectionAttributes attributesForCreate) {
+		ListStore<Object> listStore = new ListStore<Object>(value,
+				(attributesForCreate != null), RequestMode.NO_REPLY,
+				attributesForCreate);
+		return asyncCollectionStore(key, String.valueOf(index), listStore,
+				collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSopInsertNoreply(java.lang.String, java.lang.Object, net.spy.memcached.collection.CollectionAttributes)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncSopInsertNoreply(String key,
+			Object value, CollectionAttributes attributesForCreate) {
+		SetStore<Object> setStore = new SetStore<Object>(value,
+				(attributesForCreate != null), RequestMode.NO_REPLY,
+				attributesForCreate);
+		return asyncCollectionStore(key, "", setStore, collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopDeleteNoreply(java.lang.String, long, net.spy.memcached.collection.ElementFlagFilter, boolean)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncBopDeleteNoreply(String key,
+			long bkey, ElementFlagFilter eFlagFilter, boolean dropIfEmpty) {
+		BTreeDelete<Object> delete = new BTreeDelete<Object>(bkey, true,
+				dropIfEmpty, eFlagFilter);
+		return asyncCollectionDelete(key, delete);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncLopDeleteNoreply(java.lang.String, int, boolean)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncLopDeleteNoreply(String key,
+			int index, boolean dropIfEmpty) {
+		ListDelete<Object> delete = new ListDelete<Object>(index, true,
+				dropIfEmpty);
+		return asyncCollectionDelete(key, delete);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncSopDeleteNoreply(java.lang.String, java.lang.Object, boolean)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncSopDeleteNoreply(String key,
+			Object value, boolean dropIfEmpty) {
+		SetDelete<Object> delete = new SetDelete<Object>(value, true,
+				dropIfEmpty);
+		delete.setData(collectionTranscoder.encode(value).getData());
+		return asyncCollectionDelete(key, delete);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopUpdateNoreply(java.lang.String, long, net.spy.memcached.collection.ElementFlagUpdate, java.lang.Object)
+	 */
+	@Override
+	public CollectionFuture<Boolean> asyncBopUpdateNoreply(String key,
+			long bkey, ElementFlagUpdate eFlagUpdate, Object value) {
+		BTreeUpdate<Object> collectionUpdate = new BTreeUpdate<Object>(
+				value, eFlagUpdate, true);
+		return asyncCollectionUpdate(key, String.valueOf(bkey),
+				collectionUpdate, collectionTranscoder);
+	}
+
+	/**
+	 * Callback for key-value operations sent with noreply.
+	 * The operation succeeds as soon as it has been written.
+	 */
+	private static class NoreplyCallback implements OperationCallback {
+		private final OperationFuture<Boolean> rv;
+		private final CountDownLatch latch;
+
+		public NoreplyCallback(OperationFuture<Boolean> rv,
+				CountDownLatch latch) {
+			this.rv = rv;
+			this.latch = latch;
+		}
+
+		public void receivedStatus(OperationStatus status) {
+			rv.set(status.isSuccess());
+		}
+
+		public void complete() {
+			latch.countDown();
+		}
+	}
+
 	/**
 	 * Generic update operation for collection items. Public methods for collection items call this method.
 	 *
@@ -3111,6 +3701,82 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		CollectionCount collectionCount = new BTreeCount(from, to, eFlagFilter);
 		return asyncCollectionCount(key, collectionCount);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopGetItemCountBulk(java.util.List, long, long, net.spy.memcached.collection.ElementFlagFilter)
+	 */
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> asyncBopGetItemCountBulk(
+			List<String> keyList, long from, long to,
+			ElementFlagFilter eFlagFilter) {
+		return collectionCountBulk(keyList, new BTreeCount(from, to,
+				eFlagFilter));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopGetItemCountBulk(java.util.List, byte[], byte[], net.spy.memcached.collection.ElementFlagFilter)
+	 */
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> asyncBopGetItemCountBulk(
+			List<String> keyList, byte[] from, byte[] to,
+			ElementFlagFilter eFlagFilter) {
+		return collectionCountBulk(keyList, new BTreeCount(from, to,
+				eFlagFilter));
+	}
+
+	/**
+	 * Generic bulk count operation for collection items.
+	 * The keys are grouped by node, and the count operations of each node
+	 * are added to its queue at once, so they are written one after another.
+	 *
+	 * @param keyList  key list of collection items
+	 * @param collectionCount  operation parameters, shared by all keys
+	 * @return future holding the count and the status of each key
+	 */
+	private CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> collectionCountBulk(
+			List<String> keyList, final CollectionCount collectionCount) {
+		final Map<String, CollectionGetResult<Integer>> result =
+			new ConcurrentHashMap<String, CollectionGetResult<Integer>>();
+		final CountDownLatch latch = new CountDownLatch(keyList.size());
+		final List<Operation> ops = new ArrayList<Operation>(keyList.size());
+
+		for (List<String> group : groupingKeys(keyList, Integer.MAX_VALUE)) {
+			List<Operation> groupOps = new ArrayList<Operation>(group.size());
+			for (final String k : group) {
+				groupOps.add(opFact.collectionCount(k, collectionCount,
+						new OperationCallback() {
+					public void receivedStatus(OperationStatus status) {
+						CollectionOperationStatus cstatus;
+						if (status instanceof CollectionOperationStatus) {
+							cstatus = (CollectionOperationStatus) status;
+						} else {
+							cstatus = new CollectionOperationStatus(status);
+						}
+						if (cstatus.isSuccess()) {
+							// the message of a successful count is the count.
+							result.put(k, new CollectionGetResult<Integer>(
+									new Integer(cstatus.getMessage()),
+									new CollectionOperationStatus(
+											new OperationStatus(true, "END"))));
+							return;
+						}
+						result.put(k, new CollectionGetResult<Integer>(null,
+								cstatus));
+					}
+
+					public void complete() {
+						latch.countDown();
+					}
+				}));
+			}
+			addOperations(group, groupOps);
+			ops.addAll(groupOps);
+		}
+		return new CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>>(
+				latch, ops, result, operationTimeout);
+	}
 	
 	/*
 	 * (non-Javadoc)
@@ -3260,6 +3926,67 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		}
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopPipedInsertBulk(java.lang.String, java.util.Iterator, net.spy.memcached.collection.CollectionAttributes)
+	 */
+	@Override
+	public CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
+			String key, Iterator<Element<Object>> elements,
+			CollectionAttributes attributesForCreate) {
+		return asyncBopPipedInsertBulk(key, elements, attributesForCreate,
+				collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncBopPipedInsertBulk(java.lang.String, java.util.Iterator, net.spy.memcached.collection.CollectionAttributes, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
+			final String key, Iterator<Element<T>> elements,
+			final CollectionAttributes attributesForCreate, final Transcoder<T> tc) {
+		return new CollectionPipedStoreStream<Element<T>, T>(this, key, elements,
+				new CollectionPipedStoreStream.StoreCreator<Element<T>, T>() {
+					public CollectionPipedStore<T> create(List<Element<T>> chunk, int idx) {
+						return new ByteArraysBTreePipedStore<T>(key, chunk,
+								(attributesForCreate != null), attributesForCreate, tc);
+					}
+				}, bulkService.getExecutor()).start(PIPED_STORE_STREAM_WINDOW);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncLopPipedInsertBulk(java.lang.String, int, java.util.Iterator, net.spy.memcached.collection.CollectionAttributes)
+	 */
+	@Override
+	public CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncLopPipedInsertBulk(
+			String key, int index, Iterator<Object> values,
+			CollectionAttributes attributesForCreate) {
+		return asyncLopPipedInsertBulk(key, index, values, attributesForCreate,
+				collectionTranscoder);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ArcusClientIF#asyncLopPipedInsertBulk(java.lang.String, int, java.util.Iterator, net.spy.memcached.collection.CollectionAttributes, net.spy.memcached.transcoders.Transcoder)
+	 */
+	@Override
+	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncLopPipedInsertBulk(
+			final String key, final int index, Iterator<T> values,
+			final CollectionAttributes attributesForCreate, final Transcoder<T> tc) {
+		return new CollectionPipedStoreStream<T, T>(this, key, values,
+				new CollectionPipedStoreStream.StoreCreator<T, T>() {
+					public CollectionPipedStore<T> create(List<T> chunk, int idx) {
+						// the values follow each other from the given index.
+						int chunkIndex = (index < 0) ? index
+								: index + idx * CollectionPipedStore.MAX_PIPED_ITEM_COUNT;
+						return new ListPipedStore<T>(key, chunkIndex, true, chunk,
+								(attributesForCreate != null), attributesForCreate, tc);
+					}
+				}, bulkService.getExecutor()).start(PIPED_STORE_STREAM_WINDOW);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see net.spy.memcached.ArcusClientIF#asyncBopSortMergeGet(java.util.List, byte[], byte[], net.spy.memcached.collection.ElementFlagFilter, int, int)
@@ -3279,10 +4006,10 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 					"Cannot value of 'offset + count' larger than " + MAX_SMGET_COUNT);
 		}
 		
-		Map<String, List<String>> arrangedKey = groupingKeys(keyList, smgetKeyChunkSize);
+		List<List<String>> arrangedKey = groupingKeys(keyList, smgetKeyChunkSize);
 		List<BTreeSMGet<Object>> smGetList = new ArrayList<BTreeSMGet<Object>>(
 				arrangedKey.size());
-		for (List<String> v : arrangedKey.values()) {
+		for (List<String> v : arrangedKey) {
 			if (arrangedKey.size() > 1) {
 				smGetList.add(new BTreeSMGetWithByteTypeBkey<Object>(v, from, to, eFlagFilter, 0, offset + count));
 			}else {
@@ -3448,12 +4175,12 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 			List<String> keyList, long bkey, byte[] eFlag, T value,
 			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
 
-		Map<String, List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
+		List<List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
 
 		List<CollectionBulkStore<T>> storeList = new ArrayList<CollectionBulkStore<T>>(
 				arrangedKey.size());
 
-		for (List<String> eachKeyList : arrangedKey.values()) {
+		for (List<String> eachKeyList : arrangedKey) {
 			storeList.add(new CollectionBulkStore.BTreeBulkStore<T>(
 					eachKeyList, bkey, eFlag, value, attributesForCreate, tc));
 		}
@@ -3475,11 +4202,11 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 			List<String> keyList, byte[] bkey, byte[] eFlag, T value,
 			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
 
-		Map<String, List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
+		List<List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
 		List<CollectionBulkStore<T>> storeList = new ArrayList<CollectionBulkStore<T>>(
 				arrangedKey.size());
 
-		for (List<String> eachKeyList : arrangedKey.values()) {
+		for (List<String> eachKeyList : arrangedKey) {
 			storeList.add(new CollectionBulkStore.BTreeBulkStore<T>(
 					eachKeyList, bkey, eFlag, value, attributesForCreate, tc));
 		}
@@ -3509,11 +4236,11 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 			List<String> keyList, T value,
 			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
 
-		Map<String, List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
+		List<List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
 		List<CollectionBulkStore<T>> storeList = new ArrayList<CollectionBulkStore<T>>(
 				arrangedKey.size());
 
-		for (List<String> eachKeyList : arrangedKey.values()) {
+		for (List<String> eachKeyList : arrangedKey) {
 			storeList.add(new CollectionBulkStore.SetBulkStore<T>(
 					eachKeyList, value, attributesForCreate, tc));
 		}
@@ -3543,11 +4270,11 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 			List<String> keyList, int index, T value,
 			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
 
-		Map<String, List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
+		List<List<String>> arrangedKey = groupingKeys(keyList, NON_PIPED_BULK_INSERT_CHUNK_SIZE);
 		List<CollectionBulkStore<T>> storeList = new ArrayList<CollectionBulkStore<T>>(
 				arrangedKey.size());
 
-		for (List<String> eachKeyList : arrangedKey.values()) {
+		for (List<String> eachKeyList : arrangedKey) {
 			storeList.add(new CollectionBulkStore.ListBulkStore<T>(
 					eachKeyList, index, value, attributesForCreate, tc));
 		}
@@ -3683,27 +4410,28 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		if (keyList == null) {
 			throw new IllegalArgumentException("key list is null.");
 		}
-		if (keyList.size() > MAX_GETBULK_KEY_COUNT) {
-			throw new IllegalArgumentException("size of key list must be less than " + MAX_GETBULK_KEY_COUNT + ".");
-		}
-		if (count > MAX_GETBULK_ELEMENT_COUNT) {
-			throw new IllegalArgumentException("count must be less than " + MAX_GETBULK_ELEMENT_COUNT + ".");
+		if (count < 0) {
+			throw new IllegalArgumentException("count can't be negative.");
 		}
 		if (offset < 0) {
 			throw new IllegalArgumentException("offset can't be negative.");
 		}
 		
-		Map<String, List<String>> rearrangedKeys = groupingKeys(keyList, BOPGET_BULK_CHUNK_SIZE);
+		List<List<String>> rearrangedKeys = groupingKeys(keyList, BOPGET_BULK_CHUNK_SIZE);
+		int parts = getBulkPartCount(count);
 
 		List<BTreeGetBulk<T>> getBulkList = new ArrayList<BTreeGetBulk<T>>(
-				rearrangedKeys.size());
+				rearrangedKeys.size() * parts);
 
-		for (Entry<String, List<String>> entry : rearrangedKeys.entrySet()) {
-			getBulkList.add(new BTreeGetBulkWithLongTypeBkey<T>(entry
-					.getValue(), from, to, eFlagFilter, offset, count));
+		for (List<String> eachKeyList : rearrangedKeys) {
+			for (int i = 0; i < parts; i++) {
+				getBulkList.add(new BTreeGetBulkWithLongTypeBkey<T>(eachKeyList,
+						from, to, eFlagFilter, getBulkPartOffset(offset, i),
+						getBulkPartElementCount(count, i)));
+			}
 		}
 
-		return btreeGetBulk(getBulkList, offset, count, (to > from), tc);
+		return btreeGetBulk(getBulkList, parts, offset, count, (to > from), tc);
 	}
 
 	/*
@@ -3728,29 +4456,104 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 		if (keyList == null) {
 			throw new IllegalArgumentException("key list is null.");
 		}
-		if (keyList.size() > MAX_GETBULK_KEY_COUNT) {
-			throw new IllegalArgumentException("size of key list must be less than " + MAX_GETBULK_KEY_COUNT + ".");
-		}
-		if (count > MAX_GETBULK_ELEMENT_COUNT) {
-			throw new IllegalArgumentException("count must be less than " + MAX_GETBULK_ELEMENT_COUNT + ".");
+		if (count < 0) {
+			throw new IllegalArgumentException("count can't be negative.");
 		}
 		if (offset < 0) {
 			throw new IllegalArgumentException("offset can't be negative.");
 		}
 		
-		Map<String, List<String>> rearrangedKeys = groupingKeys(keyList, BOPGET_BULK_CHUNK_SIZE);
+		List<List<String>> rearrangedKeys = groupingKeys(keyList, BOPGET_BULK_CHUNK_SIZE);
+		int parts = getBulkPartCount(count);
 
 		List<BTreeGetBulk<T>> getBulkList = new ArrayList<BTreeGetBulk<T>>(
-				rearrangedKeys.size());
+				rearrangedKeys.size() * parts);
 
-		for (Entry<String, List<String>> entry : rearrangedKeys.entrySet()) {
-			getBulkList.add(new BTreeGetBulkWithByteTypeBkey<T>(entry
-					.getValue(), from, to, eFlagFilter, offset, count));
+		for (List<String> eachKeyList : rearrangedKeys) {
+			for (int i = 0; i < parts; i++) {
+				getBulkList.add(new BTreeGetBulkWithByteTypeBkey<T>(eachKeyList,
+						from, to, eFlagFilter, getBulkPartOffset(offset, i),
+						getBulkPartElementCount(count, i)));
+			}
 		}
 
 		boolean reverse = BTreeUtil.compareByteArraysInLexOrder(from, to) > 0;
 
-		return btreeGetBulkByteArrayBKey(getBulkList, offset, count, reverse, tc);
+		return btreeGetBulkByteArrayBKey(getBulkList, parts, offset, count, reverse, tc);
+	}
+
+	/**
+	 * Get the number of operations the element count of a b+tree bulk get
+	 * is split into.  Each of them gets up to MAX_GETBULK_ELEMENT_COUNT
+	 * elements.
+	 */
+	static int getBulkPartCount(int count) {
+		if (count <= MAX_GETBULK_ELEMENT_COUNT) {
+			return 1;
+		}
+		return (count + MAX_GETBULK_ELEMENT_COUNT - 1) / MAX_GETBULK_ELEMENT_COUNT;
+	}
+
+	static int getBulkPartOffset(int offset, int part) {
+		return offset + part * MAX_GETBULK_ELEMENT_COUNT;
+	}
+
+	static int getBulkPartElementCount(int count, int part) {
+		if (count <= MAX_GETBULK_ELEMENT_COUNT) {
+			return count;
+		}
+		return Math.min(MAX_GETBULK_ELEMENT_COUNT, count - part * MAX_GETBULK_ELEMENT_COUNT);
+	}
+
+	/**
+	 * Collects the results of the operations that get the elements of a
+	 * chunk of keys at different offsets.
+	 *
+	 * The results of the keys are put into the result map when all the
+	 * operations of the chunk have completed.  The status of a key comes
+	 * from the first operation, except that a trimmed b+tree stays trimmed.
+	 */
+	static class BTreeGetBulkChunk<K, V> {
+		private final Map<String, BTreeGetResult<K, V>> result;
+		private final List<Map<String, BTreeGetResult<K, V>>> parts;
+		private int remaining;
+
+		BTreeGetBulkChunk(Map<String, BTreeGetResult<K, V>> result, int partCount) {
+			this.result = result;
+			this.parts = new ArrayList<Map<String, BTreeGetResult<K, V>>>(partCount);
+			for (int i = 0; i < partCount; i++) {
+				parts.add(null);
+			}
+			this.remaining = partCount;
+		}
+
+		synchronized void partDone(int part, Map<String, BTreeGetResult<K, V>> partResult) {
+			parts.set(part, partResult);
+			if (--remaining > 0) {
+				return;
+			}
+			for (Map.Entry<String, BTreeGetResult<K, V>> e : parts.get(0).entrySet()) {
+				BTreeGetResult<K, V> rv = e.getValue();
+				for (int i = 1; i < parts.size(); i++) {
+					BTreeGetResult<K, V> next = parts.get(i).get(e.getKey());
+					if (next == null) {
+						continue;
+					}
+					if (rv.getElements() != null && next.getElements() != null) {
+						for (BTreeElement<K, V> element : next.getElements().values()) {
+							rv.addElement(element);
+						}
+					}
+					if (rv.getCollectionResponse().getResponse() == CollectionResponse.OK
+							&& next.getCollectionResponse().getResponse() == CollectionResponse.TRIMMED) {
+						rv = new BTreeGetResult<K, V>(
+								(SortedMap<K, BTreeElement<K, V>>) rv.getElements(),
+								next.getCollectionResponse());
+					}
+				}
+				result.put(e.getKey(), rv);
+			}
+		}
 	}
 
 	/**
@@ -3764,33 +4567,43 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	 * @return future holding the map of item key and the fetched elements from that key
 	 */
 	private <T> CollectionGetBulkFuture<Map<String, BTreeGetResult<Long, T>>> btreeGetBulk(
-			final List<BTreeGetBulk<T>> getBulkList, final int offset,
+			final List<BTreeGetBulk<T>> getBulkList, final int parts, final int offset,
 			final int count, final boolean reverse, final Transcoder<T> tc) {
 
 		final CountDownLatch latch = new CountDownLatch(getBulkList.size());
 		final ConcurrentLinkedQueue<Operation> ops = new ConcurrentLinkedQueue<Operation>();
 		final Map<String, BTreeGetResult<Long, T>> result = new ConcurrentHashMap<String, BTreeGetResult<Long, T>>();
 
-		for (BTreeGetBulk<T> getBulk : getBulkList) {
+		BTreeGetBulkChunk<Long, T> chunk = null;
+		for (int i = 0; i < getBulkList.size(); i++) {
+			final BTreeGetBulk<T> getBulk = getBulkList.get(i);
+			final int part = i % parts;
+			if (part == 0) {
+				chunk = new BTreeGetBulkChunk<Long, T>(result, parts);
+			}
+			final BTreeGetBulkChunk<Long, T> getBulkChunk = chunk;
 			Operation op = opFact.bopGetBulk(getBulk, new BTreeGetBulkOperation.Callback<T>() {
+				private final Map<String, BTreeGetResult<Long, T>> partResult = new HashMap<String, BTreeGetResult<Long, T>>();
+
 				@Override
 				public void receivedStatus(OperationStatus status) { }
 
 				@Override
 				public void complete() {
+					getBulkChunk.partDone(part, partResult);
 					latch.countDown();
 				}
 				
 				@Override
 				public void gotKey(String key, int elementCount, OperationStatus status) {
-					result.put(key, new BTreeGetResult<Long, T>(
+					partResult.put(key, new BTreeGetResult<Long, T>(
 						(elementCount > 0) ? new TreeMap<Long, BTreeElement<Long, T>>() : null,
 						new CollectionOperationStatus(status)));
 				}
 				
 				@Override
 				public void gotElement(String key, Object subkey, int flags, byte[] eflag, byte[] data) {
-					result.get(key).addElement(
+					partResult.get(key).addElement(
 							new BTreeElement<Long, T>((Long)subkey, eflag,
 									tc.decode(new CachedData(flags, data, tc.getMaxSize()))));
 				}
@@ -3813,20 +4626,30 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 	 * @return future holding the map of item key and the fetched elements from that key
 	 */
 	private <T> CollectionGetBulkFuture<Map<String, BTreeGetResult<ByteArrayBKey, T>>> btreeGetBulkByteArrayBKey(
-			final List<BTreeGetBulk<T>> getBulkList, final int offset,
+			final List<BTreeGetBulk<T>> getBulkList, final int parts, final int offset,
 			final int count, final boolean reverse, final Transcoder<T> tc) {
 
 		final CountDownLatch latch = new CountDownLatch(getBulkList.size());
 		final ConcurrentLinkedQueue<Operation> ops = new ConcurrentLinkedQueue<Operation>();
 		final Map<String, BTreeGetResult<ByteArrayBKey, T>> result = new ConcurrentHashMap<String, BTreeGetResult<ByteArrayBKey, T>>();
 
-		for (BTreeGetBulk<T> getBulk : getBulkList) {
+		BTreeGetBulkChunk<ByteArrayBKey, T> chunk = null;
+		for (int i = 0; i < getBulkList.size(); i++) {
+			final BTreeGetBulk<T> getBulk = getBulkList.get(i);
+			final int part = i % parts;
+			if (part == 0) {
+				chunk = new BTreeGetBulkChunk<ByteArrayBKey, T>(result, parts);
+			}
+			final BTreeGetBulkChunk<ByteArrayBKey, T> getBulkChunk = chunk;
 			Operation op = opFact.bopGetBulk(getBulk, new BTreeGetBulkOperation.Callback<T>() {
+				private final Map<String, BTreeGetResult<ByteArrayBKey, T>> partResult = new HashMap<String, BTreeGetResult<ByteArrayBKey, T>>();
+
 				@Override
 				public void receivedStatus(OperationStatus status) { }
 
 				@Override
 				public void complete() {
+					getBulkChunk.partDone(part, partResult);
 					latch.countDown();
 				}
 				
@@ -3837,12 +4660,12 @@ public class ArcusClient extends FrontCacheMemcachedClient implements ArcusClien
 						tree = new ByteArrayTreeMap<ByteArrayBKey, BTreeElement<ByteArrayBKey, T>>(
 								(reverse) ? Collections.reverseOrder() : null);
 					}
-					result.put(key, new BTreeGetResult<ByteArrayBKey, T>(tree, new CollectionOperationStatus(status)));
+					partResult.put(key, new BTreeGetResult<ByteArrayBKey, T>(tree, new CollectionOperationStatus(status)));
 				}
 				
 				@Override
 				public void gotElement(String key, Object subkey, int flags, byte[] eflag, byte[] data) {
-					result.get(key).addElement(
+					partResult.get(key).addElement(
 						new BTreeElement<ByteArrayBKey, T>(
 								new ByteArrayBKey((byte[]) subkey),
 								eflag, tc.decode(new CachedData(flags, data, tc.getMaxSize()))));
@@ -16,16 +16,20 @@
  */
 package net.spy.memcached;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Future;
 
 import net.spy.memcached.collection.Attributes;
+import net.spy.memcached.collection.BKeyRange;
 import net.spy.memcached.collection.BTreeGetResult;
 import net.spy.memcached.collection.BTreeOrder;
 import net.spy.memcached.collection.ByteArrayBKey;
 import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.CollectionGetResult;
 import net.spy.memcached.collection.CollectionOverflowAction;
 import net.spy.memcached.collection.Element;
 import net.spy.memcached.collection.ElementFlagFilter;
@@ -156,6 +160,147 @@ public interface ArcusClientIF {
 	public abstract Future<Map<String, CollectionOperationStatus>> asyncSetBulk(
 			Map<String, Object> o, int exp);
 
+	/**
+	 * Delete the given keys from the cache.
+	 *
+	 * The keys are grouped by node and the deletes of a node are sent back
+	 * to back without waiting for each other.
+	 *
+	 * @param keys the keys to delete
+	 * @return a future that will hold the failed keys and their status
+	 */
+	public abstract Future<Map<String, CollectionOperationStatus>> asyncDeleteBulk(
+			Collection<String> keys);
+
+	/**
+	 * Delete the given keys from the cache.
+	 *
+	 * With noreply, the servers don't respond to the deletes, so no
+	 * failure is reported and the future is done once all the deletes
+	 * are written.
+	 *
+	 * @param keys the keys to delete
+	 * @param noreply whether to send the deletes with noreply
+	 * @return a future that will hold the failed keys and their status
+	 */
+	public abstract Future<Map<String, CollectionOperationStatus>> asyncDeleteBulk(
+			Collection<String> keys, boolean noreply);
+
+	/**
+	 * Increment the given counters by their amounts.
+	 *
+	 * The counters are grouped by node and the increments of a node are
+	 * sent back to back without waiting for each other.
+	 *
+	 * @param counters the keys and the amounts to increment them by
+	 * @return a future that will hold the new value of each counter, or -1
+	 *         if the counter couldn't be incremented
+	 */
+	public abstract Future<Map<String, Long>> asyncIncrBulk(
+			Map<String, Integer> counters);
+
+	/**
+	 * Increment the given counters by their amounts, creating the ones that
+	 * don't exist with the default value.
+	 *
+	 * @param counters the keys and the amounts to increment them by
+	 * @param def the default value of the counters that don't exist
+	 * @param exp the expiration of the counters created
+	 * @return a future that will hold the new value of each counter, or -1
+	 *         if the counter couldn't be incremented
+	 */
+	public abstract Future<Map<String, Long>> asyncIncrBulk(
+			Map<String, Integer> counters, long def, int exp);
+
+	/**
+	 * Decrement the given counters by their amounts.
+	 *
+	 * @param counters the keys and the amounts to decrement them by
+	 * @return a future that will hold the new value of each counter, or -1
+	 *         if the counter couldn't be decremented
+	 */
+	public abstract Future<Map<String, Long>> asyncDecrBulk(
+			Map<String, Integer> counters);
+
+	/**
+	 * Decrement the given counters by their amounts, creating the ones that
+	 * don't exist with the default value.
+	 *
+	 * @param counters the keys and the amounts to decrement them by
+	 * @param def the default value of the counters that don't exist
+	 * @param exp the expiration of the counters created
+	 * @return a future that will hold the new value of each counter, or -1
+	 *         if the counter couldn't be decremented
+	 */
+	public abstract Future<Map<String, Long>> asyncDecrBulk(
+			Map<String, Integer> counters, long def, int exp);
+
+	/**
+	 * Set the attributes of the given items.
+	 * 
+	 * The keys are grouped by node and the commands of each node are
+	 * pipelined.
+	 * 
+	 * @param keys
+	 *            the keys of the items
+	 * @param attrs
+	 *            the attributes to set, e.g. the expire time to refresh
+	 * @return a future that will hold the keys that failed and their status
+	 */
+	public abstract Future<Map<String, CollectionOperationStatus>> asyncSetAttrBulk(
+			Collection<String> keys, Attributes attrs);
+
+	/**
+	 * Get the attributes of the given items.
+	 * 
+	 * The keys are grouped by node and the commands of each node are
+	 * pipelined.
+	 * 
+	 * @param keys
+	 *            the keys of the items
+	 * @return a future that will hold the attributes and the status of each
+	 *         key. The attributes are null if the key was not found or
+	 *         failed.
+	 */
+	public abstract Future<Map<String, CollectionGetResult<CollectionAttributes>>> asyncGetAttrBulk(
+			Collection<String> keys);
+
+	/**
+	 * Store the values of the given keys only if their items haven't been
+	 * modified since the CAS ids were got, e.g. by
+	 * {@link MemcachedClient#asyncGetsBulk(Collection, Transcoder)}.
+	 *
+	 * The keys are grouped by node and the CAS operations of a node are
+	 * sent back to back without waiting for each other.
+	 *
+	 * @param o the map that has keys and their CAS ids and new values
+	 * @param exp the expiration of the objects
+	 * @param tc the transcoder to serialize the values
+	 * @return a future that will hold the failed keys and their status,
+	 *         EXISTS if the item was modified or NOT_FOUND if it's gone
+	 */
+	public abstract <T> Future<Map<String, CollectionOperationStatus>> asyncCASBulk(
+			Map<String, CASValue<T>> o, int exp, Transcoder<T> tc);
+
+	/**
+	 * Store the values of the given keys only if their items haven't been
+	 * modified since the CAS ids were got, using the default transcoder.
+	 *
+	 * @param o the map that has keys and their CAS ids and new values
+	 * @param exp the expiration of the objects
+	 * @return a future that will hold the failed keys and their status
+	 */
+	public abstract Future<Map<String, CollectionOperationStatus>> asyncCASBulk(
+			Map<String, CASValue<Object>> o, int exp);
+
+	/**
+	 * Create a batch to send operations of different types together.
+	 * 
+	 * @return an empty batch
+	 * @see OperationBatch
+	 */
+	public abstract OperationBatch newBatch();
+
 	/**
 	 * Insert one item into multiple b+trees at once.
 	 * 
@@ -451,6 +596,65 @@ public interface ArcusClientIF {
 			long from, long to, ElementFlagFilter eFlagFilter, int offset, int count,
 			boolean withDelete, boolean dropIfEmpty, Transcoder<T> tc);
 
+	/**
+	 * Retrieves items in several bkey ranges(from..to) of the b+tree
+	 * in a single round trip.
+	 * The returned map from the future holds the elements of all ranges
+	 * and is sorted in descending order only if every range is descending.
+	 * 
+	 * @param key key of a b+tree
+	 * @param ranges bkey ranges
+	 * @param eFlagFilter bkey filter
+	 * @param count number of returning values of each range (0 to all)
+	 * @return a future that will hold the merged return value map of the fetch
+	 */
+	public CollectionFuture<Map<Long, Element<Object>>> asyncBopGet(String key,
+			List<BKeyRange> ranges, ElementFlagFilter eFlagFilter, int count);
+
+	/**
+	 * Retrieves items in several bkey ranges(from..to) of the b+tree
+	 * in a single round trip.
+	 * The returned map from the future holds the elements of all ranges
+	 * and is sorted in descending order only if every range is descending.
+	 * 
+	 * @param <T>
+	 * @param key key of a b+tree
+	 * @param ranges bkey ranges
+	 * @param eFlagFilter bkey filter
+	 * @param count number of returning values of each range (0 to all)
+	 * @param tc a transcoder to decode returned values
+	 * @return a future that will hold the merged return value map of the fetch
+	 */
+	public <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(String key,
+			List<BKeyRange> ranges, ElementFlagFilter eFlagFilter, int count,
+			Transcoder<T> tc);
+
+	/**
+	 * Retrieves items on given bkeys in the b+tree in a single round trip.
+	 * The returned map from the future is sorted in ascending order.
+	 * 
+	 * @param key key of a b+tree
+	 * @param bkeys bkeys
+	 * @param eFlagFilter bkey filter
+	 * @return a future that will hold the return value map of the fetch
+	 */
+	public CollectionFuture<Map<Long, Element<Object>>> asyncBopGet(String key,
+			long[] bkeys, ElementFlagFilter eFlagFilter);
+
+	/**
+	 * Retrieves items on given bkeys in the b+tree in a single round trip.
+	 * The returned map from the future is sorted in ascending order.
+	 * 
+	 * @param <T>
+	 * @param key key of a b+tree
+	 * @param bkeys bkeys
+	 * @param eFlagFilter bkey filter
+	 * @param tc a transcoder to decode returned values
+	 * @return a future that will hold the return value map of the fetch
+	 */
+	public <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(String key,
+			long[] bkeys, ElementFlagFilter eFlagFilter, Transcoder<T> tc);
+
 	/**
 	 * Retrieves an item on given index in the list.
 	 * 
@@ -647,6 +851,26 @@ public interface ArcusClientIF {
 	public CollectionFuture<Integer> asyncBopGetItemCount(String key,
 			long from, long to, ElementFlagFilter eFlagFilter);
 
+	/**
+	 * Get count of elements in given bkey range(from..to) and eFlagFilter
+	 * from each b+tree.
+	 * 
+	 * The keys are grouped by node, and the count operations of each node
+	 * are sent one after another.
+	 * 
+	 * @param keyList
+	 *            key list of b+tree items
+	 * @param from
+	 *            the first bkey
+	 * @param to
+	 *            the last bkey
+	 * @param eFlagFilter
+	 *            bkey filter
+	 * @return future holding the count and the status of each b+tree
+	 */
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> asyncBopGetItemCountBulk(
+			List<String> keyList, long from, long to, ElementFlagFilter eFlagFilter);
+
 	/**
 	 * Inserts an item into the b+tree.
 	 * 
@@ -958,6 +1182,174 @@ public interface ArcusClientIF {
 	public <T> CollectionFuture<Boolean> asyncBopUpdate(String key, long bkey,
 			ElementFlagUpdate eFlagUpdate, T value, Transcoder<T> tc);
 
+	/**
+	 * Set an object to the cache without waiting for the server's reply.
+	 * 
+	 * The request is sent with noreply, so the returned future only tells
+	 * that the request has been written, not that it has been stored.
+	 * 
+	 * @param key the key under which this object should be added.
+	 * @param exp the expiration of this object
+	 * @param o the object to store
+	 * @return a future that will be true once the request is written
+	 */
+	public Future<Boolean> asyncSetNoreply(String key, int exp, Object o);
+
+	/**
+	 * Set an object to the cache without waiting for the server's reply.
+	 * 
+	 * @param <T>
+	 * @param key the key under which this object should be added.
+	 * @param exp the expiration of this object
+	 * @param o the object to store
+	 * @param tc the transcoder to serialize and unserialize the value
+	 * @return a future that will be true once the request is written
+	 */
+	public <T> Future<Boolean> asyncSetNoreply(String key, int exp, T o,
+			Transcoder<T> tc);
+
+	/**
+	 * Delete the given key from the cache without waiting for the server's reply.
+	 * 
+	 * @param key the key to delete
+	 * @return a future that will be true once the request is written
+	 */
+	public Future<Boolean> asyncDeleteNoreply(String key);
+
+	/**
+	 * Increment the given counter without waiting for the server's reply.
+	 * 
+	 * @param key key to increment
+	 * @param by the amount to increment the value by
+	 * @return a future that will be true once the request is written
+	 */
+	public Future<Boolean> asyncIncrNoreply(String key, int by);
+
+	/**
+	 * Decrement the given counter without waiting for the server's reply.
+	 * 
+	 * @param key key to decrement
+	 * @param by the amount to decrement the value by
+	 * @return a future that will be true once the request is written
+	 */
+	public Future<Boolean> asyncDecrNoreply(String key, int by);
+
+	/**
+	 * Inserts an item into the b+tree without waiting for the server's reply.
+	 * 
+	 * @param key
+	 *            key of a b+tree
+	 * @param bkey
+	 *            key of a b+tree node
+	 * @param eFlag
+	 *            element flag. Length of element flag is between 1 and 31. if this argument is null, Arcus don't assign element flag.
+	 * @param value
+	 *            a value to insert into the b+tree
+	 * @param attributesForCreate
+	 *            attributes of the key
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncBopInsertNoreply(String key,
+			long bkey, byte[] eFlag, Object value,
+			CollectionAttributes attributesForCreate);
+
+	/**
+	 * Inserts an item into the b+tree without waiting for the server's reply.
+	 * 
+	 * @param <T>
+	 * @param key
+	 *            key of a b+tree
+	 * @param bkey
+	 *            key of a b+tree node
+	 * @param eFlag
+	 *            element flag. Length of element flag is between 1 and 31. if this argument is null, Arcus don't assign element flag.
+	 * @param value
+	 *            a value to insert into the b+tree
+	 * @param attributesForCreate
+	 *            attributes of the key
+	 * @param tc
+	 *            transcoder to encode value
+	 * @return a future that will be true once the request is written
+	 */
+	public <T> CollectionFuture<Boolean> asyncBopInsertNoreply(String key,
+			long bkey, byte[] eFlag, T value,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc);
+
+	/**
+	 * Inserts an item into the list without waiting for the server's reply.
+	 * 
+	 * @param key key of a list
+	 * @param index list index (the item will be inserted before the element with the given index)
+	 * @param value a value to insert into the list
+	 * @param attributesForCreate attributes of the key
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncLopInsertNoreply(String key,
+			int index, Object value, CollectionAttributes attributesForCreate);
+
+	/**
+	 * Inserts an item into the set without waiting for the server's reply.
+	 * 
+	 * @param key key of a set
+	 * @param value a value to insert into the set
+	 * @param attributesForCreate attributes of the key
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncSopInsertNoreply(String key,
+			Object value, CollectionAttributes attributesForCreate);
+
+	/**
+	 * Deletes an item with given bkey in the b+tree without waiting for the server's reply.
+	 * 
+	 * @param key key of a b+tree
+	 * @param bkey bkey of an item to delete
+	 * @param eFlagFilter bkey filter
+	 * @param dropIfEmpty false to remove the key when all elements are removed. true b+ tree will remain empty even if all the elements are removed
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncBopDeleteNoreply(String key,
+			long bkey, ElementFlagFilter eFlagFilter, boolean dropIfEmpty);
+
+	/**
+	 * Deletes an item in the list without waiting for the server's reply.
+	 * 
+	 * @param key key of a list
+	 * @param index list index
+	 * @param dropIfEmpty false to remove the key when all elements are removed. true list will remain empty even if all the elements are removed
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncLopDeleteNoreply(String key,
+			int index, boolean dropIfEmpty);
+
+	/**
+	 * Deletes an item in the set without waiting for the server's reply.
+	 * 
+	 * @param key key of a set
+	 * @param value value of an item
+	 * @param dropIfEmpty false to remove the key when all elements are removed. true set will remain empty even if all the elements are removed
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncSopDeleteNoreply(String key,
+			Object value, boolean dropIfEmpty);
+
+	/**
+	 * Update an element from the b+tree without waiting for the server's reply.
+	 * 
+	 * @param key
+	 *            key of a b+tree
+	 * @param bkey
+	 *            key of a b+tree element
+	 * @param eFlagUpdate
+	 *            new flag of element.
+	 *            do not update the eflag if this argument is null.
+	 * @param value
+	 *            new value of element.
+	 *            do not update the value if this argument is null.
+	 * @return a future that will be true once the request is written
+	 */
+	public CollectionFuture<Boolean> asyncBopUpdateNoreply(String key,
+			long bkey, ElementFlagUpdate eFlagUpdate, Object value);
+
 	/**
 	 * Update elements from the b+tree
 	 *
@@ -1147,6 +1539,26 @@ public interface ArcusClientIF {
 	public CollectionFuture<Integer> asyncBopGetItemCount(String key,
 			byte[] from, byte[] to, ElementFlagFilter eFlagFilter);
 
+	/**
+	 * Get count of elements in given bkey range(from..to) and eFlagFilter
+	 * from each b+tree.
+	 * 
+	 * The keys are grouped by node, and the count operations of each node
+	 * are sent one after another.
+	 * 
+	 * @param keyList
+	 *            key list of b+tree items
+	 * @param from
+	 *            the first bkey
+	 * @param to
+	 *            the last bkey
+	 * @param eFlagFilter
+	 *            bkey filter
+	 * @return future holding the count and the status of each b+tree
+	 */
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> asyncBopGetItemCountBulk(
+			List<String> keyList, byte[] from, byte[] to, ElementFlagFilter eFlagFilter);
+
 	/**
 	 * Update an element from the b+tree
 	 * 
@@ -1249,6 +1661,99 @@ public interface ArcusClientIF {
 	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
 			String key, List<Element<T>> elements,
 			CollectionAttributes attributesForCreate, Transcoder<T> tc);
+
+	/**
+	 * Insert the elements of an iterator into a b+tree.
+	 * 
+	 * The elements are taken from the iterator and sent in chunks of
+	 * MAX_PIPED_ITEM_COUNT elements, with a few chunks in flight at a time,
+	 * so they don't have to be in memory all at once. After the first
+	 * chunks, the iterator is called from a thread of the client, but never
+	 * the IO thread nor more than one thread at a time. The get() of the
+	 * future times out when no chunk completes within the operation timeout.
+	 * 
+	 * @param key
+	 *            key of a b+tree
+	 * @param elements
+	 *            iterator of the elements to insert
+	 * @param attributesForCreate
+	 *            create a b+tree with this attributes, if given key is not
+	 *            exists.
+	 * @return a future that will hold the index in the iteration of the
+	 *         failed elements and result code.
+	 */
+	public CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
+			String key, Iterator<Element<Object>> elements,
+			CollectionAttributes attributesForCreate);
+
+	/**
+	 * Insert the elements of an iterator into a b+tree.
+	 * 
+	 * @see #asyncBopPipedInsertBulk(String, Iterator, CollectionAttributes)
+	 * @param key
+	 *            key of a b+tree
+	 * @param elements
+	 *            iterator of the elements to insert
+	 * @param attributesForCreate
+	 *            create a b+tree with this attributes, if given key is not
+	 *            exists.
+	 * @param tc
+	 *            transcoder to encode value
+	 * @return a future that will hold the index in the iteration of the
+	 *         failed elements and result code.
+	 */
+	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
+			String key, Iterator<Element<T>> elements,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc);
+
+	/**
+	 * Insert the values of an iterator into a list.
+	 * 
+	 * The values are taken from the iterator and sent in chunks of
+	 * MAX_PIPED_ITEM_COUNT values, with a few chunks in flight at a time,
+	 * so they don't have to be in memory all at once. After the first
+	 * chunks, the iterator is called from a thread of the client, but never
+	 * the IO thread nor more than one thread at a time. The get() of the
+	 * future times out when no chunk completes within the operation timeout.
+	 * 
+	 * @param key
+	 *            key of a list
+	 * @param index
+	 *            list index where the first value is inserted. The values
+	 *            are inserted in the order of the iterator.
+	 * @param values
+	 *            iterator of the values to insert
+	 * @param attributesForCreate
+	 *            create a list with this attributes, if given key is not
+	 *            exists.
+	 * @return a future that will hold the index in the iteration of the
+	 *         failed values and result code.
+	 */
+	public CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncLopPipedInsertBulk(
+			String key, int index, Iterator<Object> values,
+			CollectionAttributes attributesForCreate);
+
+	/**
+	 * Insert the values of an iterator into a list.
+	 * 
+	 * @see #asyncLopPipedInsertBulk(String, int, Iterator, CollectionAttributes)
+	 * @param key
+	 *            key of a list
+	 * @param index
+	 *            list index where the first value is inserted
+	 * @param values
+	 *            iterator of the values to insert
+	 * @param attributesForCreate
+	 *            create a list with this attributes, if given key is not
+	 *            exists.
+	 * @param tc
+	 *            transcoder to encode value
+	 * @return a future that will hold the index in the iteration of the
+	 *         failed values and result code.
+	 */
+	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncLopPipedInsertBulk(
+			String key, int index, Iterator<T> values,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc);
 	
 	/**
 	 * Retrieves count number of items in given bkey in the b+tree.
@@ -1359,6 +1864,10 @@ public interface ArcusClientIF {
 	/**
 	 * Get elements from each b+tree.
 	 * 
+	 * The keys are sent in chunks of 200 keys per node, and a count over 50
+	 * is got from several offsets.  The chunks are sent at the same time
+	 * and their results are merged into the result map.
+	 * 
 	 * @param keyList
 	 *            key list of b+tree
 	 * @param from
@@ -1368,9 +1877,9 @@ public interface ArcusClientIF {
 	 * @param eFlagFilter
 	 *            bkey filter
 	 * @param offset
-	 *            0-based offset (max = 50)
+	 *            0-based offset
 	 * @param count
-	 *            number of returning values (0 to all) (max = 200)
+	 *            number of returning values (0 to all)
 	 * @return future indicating result of each b+tree
 	 */
 	public CollectionGetBulkFuture<Map<String, BTreeGetResult<ByteArrayBKey, Object>>> asyncBopGetBulk(
@@ -1380,6 +1889,10 @@ public interface ArcusClientIF {
 	/**
 	 * Get elements from each b+tree.
 	 * 
+	 * The keys are sent in chunks of 200 keys per node, and a count over 50
+	 * is got from several offsets.  The chunks are sent at the same time
+	 * and their results are merged into the result map.
+	 * 
 	 * @param keyList
 	 *            key list of b+tree
 	 * @param from
@@ -1389,9 +1902,9 @@ public interface ArcusClientIF {
 	 * @param eFlagFilter
 	 *            bkey filter
 	 * @param offset
-	 *            0-based offset (max = 50)
+	 *            0-based offset
 	 * @param count
-	 *            number of returning values (0 to all) (max = 200)
+	 *            number of returning values (0 to all)
 	 * @param tc
 	 *            transcoder to decode value
 	 * @return future indicating result of each b+tree
@@ -1404,6 +1917,10 @@ public interface ArcusClientIF {
 	/**
 	 * Get elements from each b+tree.
 	 * 
+	 * The keys are sent in chunks of 200 keys per node, and a count over 50
+	 * is got from several offsets.  The chunks are sent at the same time
+	 * and their results are merged into the result map.
+	 * 
 	 * @param keyList
 	 *            key list of b+tree
 	 * @param from
@@ -1413,9 +1930,9 @@ public interface ArcusClientIF {
 	 * @param eFlagFilter
 	 *            bkey filter
 	 * @param offset
-	 *            0-based offset (max = 50)
+	 *            0-based offset
 	 * @param count
-	 *            number of returning values (0 to all) (max = 200)
+	 *            number of returning values (0 to all)
 	 * @return future indicating result of each b+tree
 	 */
 	public CollectionGetBulkFuture<Map<String, BTreeGetResult<Long, Object>>> asyncBopGetBulk(
@@ -1425,6 +1942,10 @@ public interface ArcusClientIF {
 	/**
 	 * Get elements from each b+tree.
 	 * 
+	 * The keys are sent in chunks of 200 keys per node, and a count over 50
+	 * is got from several offsets.  The chunks are sent at the same time
+	 * and their results are merged into the result map.
+	 * 
 	 * @param keyList
 	 *            key list of b+tree
 	 * @param from
@@ -1434,9 +1955,9 @@ public interface ArcusClientIF {
 	 * @param eFlagFilter
 	 *            bkey filter
 	 * @param offset
-	 *            0-based offset (max = 50)
+	 *            0-based offset
 	 * @param count
-	 *            number of returning values (0 to all) (max = 200)
+	 *            number of returning values (0 to all)
 	 * @param tc
 	 *            transcoder to decode value
 	 * @return future indicating result of each b+tree
@@ -1445,6 +1966,68 @@ public interface ArcusClientIF {
 			List<String> keyList, long from, long to,
 			ElementFlagFilter eFlagFilter, int offset, int count,
 			Transcoder<T> tc);
+
+	/**
+	 * Get elements from each list.
+	 * 
+	 * The keys are grouped by node, and the get operations of each node are
+	 * sent one after another.
+	 * 
+	 * @param keyList
+	 *            key list of list items
+	 * @param from
+	 *            the first index to get
+	 * @param to
+	 *            the last index to get
+	 * @return future indicating result of each list
+	 */
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<List<Object>>>> asyncLopGetBulk(
+			List<String> keyList, int from, int to);
+
+	/**
+	 * Get elements from each list.
+	 * 
+	 * @param keyList
+	 *            key list of list items
+	 * @param from
+	 *            the first index to get
+	 * @param to
+	 *            the last index to get
+	 * @param tc
+	 *            transcoder to decode value
+	 * @return future indicating result of each list
+	 */
+	public <T> CollectionGetBulkFuture<Map<String, CollectionGetResult<List<T>>>> asyncLopGetBulk(
+			List<String> keyList, int from, int to, Transcoder<T> tc);
+
+	/**
+	 * Get elements from each set.
+	 * 
+	 * The keys are grouped by node, and the get operations of each node are
+	 * sent one after another.
+	 * 
+	 * @param keyList
+	 *            key list of set items
+	 * @param count
+	 *            number of elements to get from each set (0 to all)
+	 * @return future indicating result of each set
+	 */
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Set<Object>>>> asyncSopGetBulk(
+			List<String> keyList, int count);
+
+	/**
+	 * Get elements from each set.
+	 * 
+	 * @param keyList
+	 *            key list of set items
+	 * @param count
+	 *            number of elements to get from each set (0 to all)
+	 * @param tc
+	 *            transcoder to decode value
+	 * @return future indicating result of each set
+	 */
+	public <T> CollectionGetBulkFuture<Map<String, CollectionGetResult<Set<T>>>> asyncSopGetBulk(
+			List<String> keyList, int count, Transcoder<T> tc);
 	
 	/**
 	 * Increment the element's value in b+tree.
@@ -17,7 +17,10 @@
 package net.spy.memcached;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -27,10 +30,12 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import net.spy.memcached.collection.Attributes;
+import net.spy.memcached.collection.BKeyRange;
 import net.spy.memcached.collection.BTreeGetResult;
 import net.spy.memcached.collection.BTreeOrder;
 import net.spy.memcached.collection.ByteArrayBKey;
 import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.CollectionGetResult;
 import net.spy.memcached.collection.CollectionOverflowAction;
 import net.spy.memcached.collection.CollectionPipedStore;
 import net.spy.memcached.collection.Element;
@@ -42,6 +47,7 @@ import net.spy.memcached.internal.BTreeStoreAndGetFuture;
 import net.spy.memcached.internal.BulkFuture;
 import net.spy.memcached.internal.CollectionFuture;
 import net.spy.memcached.internal.CollectionGetBulkFuture;
+import net.spy.memcached.internal.MergedBulkFuture;
 import net.spy.memcached.internal.OperationFuture;
 import net.spy.memcached.internal.SMGetFuture;
 import net.spy.memcached.ops.CollectionOperationStatus;
@@ -52,6 +58,11 @@ import net.spy.memcached.transcoders.Transcoder;
  */
 public class ArcusClientPool implements ArcusClientIF {
 
+	/**
+	 * A bulk operation with fewer keys than this is sent by a single client.
+	 */
+	static final int MIN_SPLIT_KEY_COUNT = 500;
+
 	int poolSize;
 	ArcusClient[] client;
 	Random rand;
@@ -81,6 +92,97 @@ public class ArcusClientPool implements ArcusClientIF {
 		return client;
 	}
 
+	/**
+	 * Split the keys of a bulk operation to the clients in pool.
+	 * 
+	 * The keys of a node are given to one client, and the nodes are given to
+	 * the clients in turn, so a large bulk operation is sent by the IO
+	 * threads of all the clients. A small one is given to a single client.
+	 * 
+	 * @param keys
+	 *            keys of a bulk operation
+	 * @return keys to send by each client
+	 */
+	Map<ArcusClient, List<String>> splitKeys(Collection<String> keys) {
+		Map<ArcusClient, List<String>> rv = new HashMap<ArcusClient, List<String>>();
+		if (poolSize == 1 || keys.size() < MIN_SPLIT_KEY_COUNT) {
+			rv.put(getClient(), new ArrayList<String>(keys));
+			return rv;
+		}
+
+		NodeLocator locator = client[0].getNodeLocator();
+		Map<SocketAddress, List<String>> byNode = new HashMap<SocketAddress, List<String>>();
+		for (String key : keys) {
+			MemcachedNode node = locator.getPrimary(key);
+			SocketAddress sa = (node == null) ? null : node.getSocketAddress();
+			List<String> nodeKeys = byNode.get(sa);
+			if (nodeKeys == null) {
+				nodeKeys = new ArrayList<String>();
+				byNode.put(sa, nodeKeys);
+			}
+			nodeKeys.add(key);
+		}
+
+		int next = rand.nextInt(poolSize);
+		for (List<String> nodeKeys : byNode.values()) {
+			ArcusClient c = client[next++ % poolSize];
+			List<String> clientKeys = rv.get(c);
+			if (clientKeys == null) {
+				rv.put(c, nodeKeys);
+			} else {
+				clientKeys.addAll(nodeKeys);
+			}
+		}
+		return rv;
+	}
+
+	/**
+	 * Split the entries of a bulk operation to the clients in pool.
+	 * 
+	 * @see #splitKeys(Collection)
+	 */
+	<V> Map<ArcusClient, Map<String, V>> splitMap(Map<String, V> map) {
+		Map<ArcusClient, Map<String, V>> rv = new HashMap<ArcusClient, Map<String, V>>();
+		for (Map.Entry<ArcusClient, List<String>> e : splitKeys(map.keySet())
+				.entrySet()) {
+			Map<String, V> part = new HashMap<String, V>();
+			for (String key : e.getValue()) {
+				part.put(key, map.get(key));
+			}
+			rv.put(e.getKey(), part);
+		}
+		return rv;
+	}
+
+	/**
+	 * Sends a part of a bulk operation with a client.
+	 */
+	private interface BulkCall<P, V> {
+		Future<Map<String, V>> call(ArcusClient c, P part);
+	}
+
+	/**
+	 * Send the parts of a bulk operation with their clients, and merge the
+	 * results.
+	 * 
+	 * @param parts
+	 *            the keys or entries to send by each client
+	 * @see #splitKeys(Collection)
+	 * @see #splitMap(Map)
+	 */
+	private static <P, V> Future<Map<String, V>> bulk(
+			Map<ArcusClient, P> parts, BulkCall<P, V> call) {
+		List<Future<Map<String, V>>> futures =
+			new ArrayList<Future<Map<String, V>>>();
+		for (Map.Entry<ArcusClient, P> e : parts.entrySet()) {
+			futures.add(call.call(e.getKey(), e.getValue()));
+		}
+		if (futures.size() == 1) {
+			return futures.get(0);
+		}
+		return new MergedBulkFuture<V>(futures);
+	}
+
 	public void shutdown() {
 		for (ArcusClient ac : client) {
 			ac.shutdown();
@@ -166,6 +268,27 @@ public class ArcusClientPool implements ArcusClientIF {
 		return this.getClient().asyncGets(key);
 	}
 
+	public <T> BulkFuture<Map<String, CASValue<T>>> asyncGetsBulk(
+			Collection<String> keys, Transcoder<T> tc) {
+		Map<ArcusClient, List<String>> parts = splitKeys(keys);
+		if (parts.size() == 1) {
+			Map.Entry<ArcusClient, List<String>> e = parts.entrySet()
+					.iterator().next();
+			return e.getKey().asyncGetsBulk(e.getValue(), tc);
+		}
+		List<Future<Map<String, CASValue<T>>>> futures =
+			new ArrayList<Future<Map<String, CASValue<T>>>>();
+		for (Map.Entry<ArcusClient, List<String>> e : parts.entrySet()) {
+			futures.add(e.getKey().asyncGetsBulk(e.getValue(), tc));
+		}
+		return new MergedBulkFuture<CASValue<T>>(futures);
+	}
+
+	public BulkFuture<Map<String, CASValue<Object>>> asyncGetsBulk(
+			Collection<String> keys) {
+		return asyncGetsBulk(keys, this.client[0].getTranscoder());
+	}
+
 	public <T> CASValue<T> gets(String key, Transcoder<T> tc)
 			throws OperationTimeoutException {
 		return this.getClient().gets(key, tc);
@@ -191,20 +314,36 @@ public class ArcusClientPool implements ArcusClientIF {
 
 	public <T> BulkFuture<Map<String, T>> asyncGetBulk(Collection<String> keys,
 			Transcoder<T> tc) {
-		return this.getClient().asyncGetBulk(keys, tc);
+		Map<ArcusClient, List<String>> parts = splitKeys(keys);
+		if (parts.size() == 1) {
+			Map.Entry<ArcusClient, List<String>> e = parts.entrySet()
+					.iterator().next();
+			return e.getKey().asyncGetBulk(e.getValue(), tc);
+		}
+		List<Future<Map<String, T>>> futures =
+			new ArrayList<Future<Map<String, T>>>();
+		for (Map.Entry<ArcusClient, List<String>> e : parts.entrySet()) {
+			futures.add(e.getKey().asyncGetBulk(e.getValue(), tc));
+		}
+		return new MergedBulkFuture<T>(futures);
 	}
 
 	public BulkFuture<Map<String, Object>> asyncGetBulk(Collection<String> keys) {
-		return this.getClient().asyncGetBulk(keys);
+		return asyncGetBulk(keys, this.client[0].getTranscoder());
 	}
 
 	public <T> BulkFuture<Map<String, T>> asyncGetBulk(Transcoder<T> tc,
 			String... keys) {
-		return this.getClient().asyncGetBulk(tc, keys);
+		return asyncGetBulk(Arrays.asList(keys), tc);
 	}
 
 	public BulkFuture<Map<String, Object>> asyncGetBulk(String... keys) {
-		return this.getClient().asyncGetBulk(keys);
+		return asyncGetBulk(Arrays.asList(keys));
+	}
+
+	public <T> BulkFuture<Integer> asyncGetBulk(Collection<String> keys,
+			Transcoder<T> tc, BulkGetCallback<T> cb) {
+		return this.getClient().asyncGetBulk(keys, tc, cb);
 	}
 
 	public <T> Map<String, T> getBulk(Collection<String> keys, Transcoder<T> tc)
@@ -334,74 +473,242 @@ public class ArcusClientPool implements ArcusClientIF {
 
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncSetBulk(
-			List<String> key, int exp, T o, Transcoder<T> tc) {
-		return this.getClient().asyncSetBulk(key, exp, o, tc);
+			final List<String> key, final int exp, final T o,
+			final Transcoder<T> tc) {
+		return bulk(splitKeys(key),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncSetBulk(part, exp, o, tc);
+			}
+		});
 	}
 
 	@Override
 	public Future<Map<String, CollectionOperationStatus>> asyncSetBulk(
-			List<String> key, int exp, Object o) {
-		return this.getClient().asyncSetBulk(key, exp, o);
+			final List<String> key, final int exp, final Object o) {
+		return bulk(splitKeys(key),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncSetBulk(part, exp, o);
+			}
+		});
 	}
 
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncSetBulk(
-			Map<String, T> o, int exp, Transcoder<T> tc) {
-		return this.getClient().asyncSetBulk(o, exp, tc);
+			final Map<String, T> o, final int exp, final Transcoder<T> tc) {
+		return bulk(splitMap(o),
+				new BulkCall<Map<String, T>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, Map<String, T> part) {
+				return c.asyncSetBulk(part, exp, tc);
+			}
+		});
 	}
 
 	@Override
 	public Future<Map<String, CollectionOperationStatus>> asyncSetBulk(
-			Map<String, Object> o, int exp) {
-		return this.getClient().asyncSetBulk(o, exp);
+			final Map<String, Object> o, final int exp) {
+		return bulk(splitMap(o),
+				new BulkCall<Map<String, Object>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, Map<String, Object> part) {
+				return c.asyncSetBulk(part, exp);
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncDeleteBulk(
+			Collection<String> keys) {
+		return asyncDeleteBulk(keys, false);
+	}
+
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncDeleteBulk(
+			final Collection<String> keys, final boolean noreply) {
+		return bulk(splitKeys(keys),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncDeleteBulk(part, noreply);
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, Long>> asyncIncrBulk(
+			Map<String, Integer> counters) {
+		return asyncIncrBulk(counters, -1, 0);
+	}
+
+	@Override
+	public Future<Map<String, Long>> asyncIncrBulk(
+			final Map<String, Integer> counters, final long def,
+			final int exp) {
+		return bulk(splitMap(counters),
+				new BulkCall<Map<String, Integer>, Long>() {
+			public Future<Map<String, Long>> call(
+					ArcusClient c, Map<String, Integer> part) {
+				return c.asyncIncrBulk(part, def, exp);
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, Long>> asyncDecrBulk(
+			Map<String, Integer> counters) {
+		return asyncDecrBulk(counters, -1, 0);
+	}
+
+	@Override
+	public Future<Map<String, Long>> asyncDecrBulk(
+			final Map<String, Integer> counters, final long def,
+			final int exp) {
+		return bulk(splitMap(counters),
+				new BulkCall<Map<String, Integer>, Long>() {
+			public Future<Map<String, Long>> call(
+					ArcusClient c, Map<String, Integer> part) {
+				return c.asyncDecrBulk(part, def, exp);
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncSetAttrBulk(
+			final Collection<String> keys, final Attributes attrs) {
+		return bulk(splitKeys(keys),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncSetAttrBulk(part, attrs);
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, CollectionGetResult<CollectionAttributes>>> asyncGetAttrBulk(
+			final Collection<String> keys) {
+		return bulk(splitKeys(keys),
+				new BulkCall<List<String>, CollectionGetResult<CollectionAttributes>>() {
+			public Future<Map<String, CollectionGetResult<CollectionAttributes>>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncGetAttrBulk(part);
+			}
+		});
+	}
+
+	@Override
+	public <T> Future<Map<String, CollectionOperationStatus>> asyncCASBulk(
+			final Map<String, CASValue<T>> o, final int exp,
+			final Transcoder<T> tc) {
+		return bulk(splitMap(o),
+				new BulkCall<Map<String, CASValue<T>>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, Map<String, CASValue<T>> part) {
+				return c.asyncCASBulk(part, exp, tc);
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, CollectionOperationStatus>> asyncCASBulk(
+			Map<String, CASValue<Object>> o, int exp) {
+		return asyncCASBulk(o, exp, this.client[0].getTranscoder());
+	}
+
+	@Override
+	public OperationBatch newBatch() {
+		return this.getClient().newBatch();
 	}
 
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncBopInsertBulk(
-			List<String> keyList, long bkey, byte[] eFlag, T value,
-			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
-		return this.getClient().asyncBopInsertBulk(keyList, bkey, eFlag, value,
-				attributesForCreate, tc);
+			final List<String> keyList, final long bkey, final byte[] eFlag,
+			final T value, final CollectionAttributes attributesForCreate,
+			final Transcoder<T> tc) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncBopInsertBulk(part, bkey, eFlag, value,
+					attributesForCreate, tc);
+			}
+		});
 	}
 
 	@Override
 	public Future<Map<String, CollectionOperationStatus>> asyncBopInsertBulk(
-			List<String> keyList, long bkey, byte[] eFlag, Object value,
-			CollectionAttributes attributesForCreate) {
-		return this.getClient().asyncBopInsertBulk(keyList, bkey, eFlag, value,
-				attributesForCreate);
+			final List<String> keyList, final long bkey, final byte[] eFlag,
+			final Object value, final CollectionAttributes attributesForCreate) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncBopInsertBulk(part, bkey, eFlag, value,
+					attributesForCreate);
+			}
+		});
 	}
 
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncLopInsertBulk(
-			List<String> keyList, int index, T value,
-			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
-		return this.getClient().asyncLopInsertBulk(keyList, index, value,
-				attributesForCreate, tc);
+			final List<String> keyList, final int index, final T value,
+			final CollectionAttributes attributesForCreate,
+			final Transcoder<T> tc) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncLopInsertBulk(part, index, value,
+					attributesForCreate, tc);
+			}
+		});
 	}
 
 	@Override
 	public Future<Map<String, CollectionOperationStatus>> asyncLopInsertBulk(
-			List<String> keyList, int index, Object value,
-			CollectionAttributes attributesForCreate) {
-		return this.getClient().asyncLopInsertBulk(keyList, index, value,
-				attributesForCreate);
+			final List<String> keyList, final int index, final Object value,
+			final CollectionAttributes attributesForCreate) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncLopInsertBulk(part, index, value,
+					attributesForCreate);
+			}
+		});
 	}
 
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncSopInsertBulk(
-			List<String> keyList, T value,
-			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
-		return this.getClient().asyncSopInsertBulk(keyList, value,
-				attributesForCreate, tc);
+			final List<String> keyList, final T value,
+			final CollectionAttributes attributesForCreate,
+			final Transcoder<T> tc) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncSopInsertBulk(part, value,
+					attributesForCreate, tc);
+			}
+		});
 	}
 
 	@Override
 	public Future<Map<String, CollectionOperationStatus>> asyncSopInsertBulk(
-			List<String> keyList, Object value,
-			CollectionAttributes attributesForCreate) {
-		return this.getClient().asyncSopInsertBulk(keyList, value,
-				attributesForCreate);
+			final List<String> keyList, final Object value,
+			final CollectionAttributes attributesForCreate) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncSopInsertBulk(part, value,
+					attributesForCreate);
+			}
+		});
 	}
 
 	@Override
@@ -459,6 +766,31 @@ public class ArcusClientPool implements ArcusClientIF {
 				count, withDelete, dropIfEmpty, tc);
 	}
 
+	@Override
+	public CollectionFuture<Map<Long, Element<Object>>> asyncBopGet(String key,
+			List<BKeyRange> ranges, ElementFlagFilter eFlagFilter, int count) {
+		return this.getClient().asyncBopGet(key, ranges, eFlagFilter, count);
+	}
+
+	@Override
+	public <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(String key,
+			List<BKeyRange> ranges, ElementFlagFilter eFlagFilter, int count,
+			Transcoder<T> tc) {
+		return this.getClient().asyncBopGet(key, ranges, eFlagFilter, count, tc);
+	}
+
+	@Override
+	public CollectionFuture<Map<Long, Element<Object>>> asyncBopGet(String key,
+			long[] bkeys, ElementFlagFilter eFlagFilter) {
+		return this.getClient().asyncBopGet(key, bkeys, eFlagFilter);
+	}
+
+	@Override
+	public <T> CollectionFuture<Map<Long, Element<T>>> asyncBopGet(String key,
+			long[] bkeys, ElementFlagFilter eFlagFilter, Transcoder<T> tc) {
+		return this.getClient().asyncBopGet(key, bkeys, eFlagFilter, tc);
+	}
+
 	@Override
 	public CollectionFuture<List<Object>> asyncLopGet(String key, int index,
 			boolean withDelete, boolean dropIfEmpty) {
@@ -547,6 +879,14 @@ public class ArcusClientPool implements ArcusClientIF {
 				.asyncBopGetItemCount(key, from, to, eFlagFilter);
 	}
 
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> asyncBopGetItemCountBulk(
+			List<String> keyList, long from, long to,
+			ElementFlagFilter eFlagFilter) {
+		return this.getClient().asyncBopGetItemCountBulk(keyList, from, to,
+				eFlagFilter);
+	}
+
 	@Override
 	public CollectionFuture<Boolean> asyncBopInsert(String key, long bkey,
 			byte[] eFlag, Object value, CollectionAttributes attributesForCreate) {
@@ -741,6 +1081,14 @@ public class ArcusClientPool implements ArcusClientIF {
 				.asyncBopGetItemCount(key, from, to, eFlagFilter);
 	}
 
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Integer>>> asyncBopGetItemCountBulk(
+			List<String> keyList, byte[] from, byte[] to,
+			ElementFlagFilter eFlagFilter) {
+		return this.getClient().asyncBopGetItemCountBulk(keyList, from, to,
+				eFlagFilter);
+	}
+
 	@Override
 	public CollectionFuture<Boolean> asyncBopUpdate(String key, long bkey,
 			ElementFlagUpdate eFlagUpdate, Object value) {
@@ -754,6 +1102,88 @@ public class ArcusClientPool implements ArcusClientIF {
 				tc);
 	}
 
+	@Override
+	public Future<Boolean> asyncSetNoreply(String key, int exp, Object o) {
+		return this.getClient().asyncSetNoreply(key, exp, o);
+	}
+
+	@Override
+	public <T> Future<Boolean> asyncSetNoreply(String key, int exp, T o,
+			Transcoder<T> tc) {
+		return this.getClient().asyncSetNoreply(key, exp, o, tc);
+	}
+
+	@Override
+	public Future<Boolean> asyncDeleteNoreply(String key) {
+		return this.getClient().asyncDeleteNoreply(key);
+	}
+
+	@Override
+	public Future<Boolean> asyncIncrNoreply(String key, int by) {
+		return this.getClient().asyncIncrNoreply(key, by);
+	}
+
+	@Override
+	public Future<Boolean> asyncDecrNoreply(String key, int by) {
+		return this.getClient().asyncDecrNoreply(key, by);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncBopInsertNoreply(String key,
+			long bkey, byte[] eFlag, Object value,
+			CollectionAttributes attributesForCreate) {
+		return this.getClient().asyncBopInsertNoreply(key, bkey, eFlag, value,
+				attributesForCreate);
+	}
+
+	@Override
+	public <T> CollectionFuture<Boolean> asyncBopInsertNoreply(String key,
+			long bkey, byte[] eFlag, T value,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
+		return this.getClient().asyncBopInsertNoreply(key, bkey, eFlag, value,
+				attributesForCreate, tc);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncLopInsertNoreply(String key,
+			int index, Object value, CollectionAttributes attributesForCreate) {
+		return this.getClient().asyncLopInsertNoreply(key, index, value,
+				attributesForCreate);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncSopInsertNoreply(String key,
+			Object value, CollectionAttributes attributesForCreate) {
+		return this.getClient().asyncSopInsertNoreply(key, value,
+				attributesForCreate);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncBopDeleteNoreply(String key,
+			long bkey, ElementFlagFilter eFlagFilter, boolean dropIfEmpty) {
+		return this.getClient().asyncBopDeleteNoreply(key, bkey, eFlagFilter,
+				dropIfEmpty);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncLopDeleteNoreply(String key,
+			int index, boolean dropIfEmpty) {
+		return this.getClient().asyncLopDeleteNoreply(key, index, dropIfEmpty);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncSopDeleteNoreply(String key,
+			Object value, boolean dropIfEmpty) {
+		return this.getClient().asyncSopDeleteNoreply(key, value, dropIfEmpty);
+	}
+
+	@Override
+	public CollectionFuture<Boolean> asyncBopUpdateNoreply(String key,
+			long bkey, ElementFlagUpdate eFlagUpdate, Object value) {
+		return this.getClient().asyncBopUpdateNoreply(key, bkey, eFlagUpdate,
+				value);
+	}
+
 	@Override
 	public CollectionFuture<Boolean> asyncBopUpdate(String key, byte[] bkey,
 			ElementFlagUpdate eFlagUpdate, Object value) {
@@ -808,6 +1238,38 @@ public class ArcusClientPool implements ArcusClientIF {
 				attributesForCreate, tc);
 	}
 
+	@Override
+	public CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
+			String key, Iterator<Element<Object>> elements,
+			CollectionAttributes attributesForCreate) {
+		return this.getClient().asyncBopPipedInsertBulk(key, elements,
+				attributesForCreate);
+	}
+
+	@Override
+	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncBopPipedInsertBulk(
+			String key, Iterator<Element<T>> elements,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
+		return this.getClient().asyncBopPipedInsertBulk(key, elements,
+				attributesForCreate, tc);
+	}
+
+	@Override
+	public CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncLopPipedInsertBulk(
+			String key, int index, Iterator<Object> values,
+			CollectionAttributes attributesForCreate) {
+		return this.getClient().asyncLopPipedInsertBulk(key, index, values,
+				attributesForCreate);
+	}
+
+	@Override
+	public <T> CollectionFuture<Map<Integer, CollectionOperationStatus>> asyncLopPipedInsertBulk(
+			String key, int index, Iterator<T> values,
+			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
+		return this.getClient().asyncLopPipedInsertBulk(key, index, values,
+				attributesForCreate, tc);
+	}
+
 	@Override
 	public CollectionFuture<Map<ByteArrayBKey, Element<Object>>> asyncBopGet(
 			String key, byte[] bkey, ElementFlagFilter eFlagFilter,
@@ -834,18 +1296,31 @@ public class ArcusClientPool implements ArcusClientIF {
 
 	@Override
 	public Future<Map<String, CollectionOperationStatus>> asyncBopInsertBulk(
-			List<String> keyList, byte[] bkey, byte[] eFlag, Object value,
-			CollectionAttributes attributesForCreate) {
-		return this.getClient().asyncBopInsertBulk(keyList, bkey, eFlag, value,
-				attributesForCreate);
+			final List<String> keyList, final byte[] bkey, final byte[] eFlag,
+			final Object value, final CollectionAttributes attributesForCreate) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncBopInsertBulk(part, bkey, eFlag, value,
+					attributesForCreate);
+			}
+		});
 	}
 
 	@Override
 	public <T> Future<Map<String, CollectionOperationStatus>> asyncBopInsertBulk(
-			List<String> keyList, byte[] bkey, byte[] eFlag, T value,
-			CollectionAttributes attributesForCreate, Transcoder<T> tc) {
-		return this.getClient().asyncBopInsertBulk(keyList, bkey, eFlag, value,
-				attributesForCreate, tc);
+			final List<String> keyList, final byte[] bkey, final byte[] eFlag,
+			final T value, final CollectionAttributes attributesForCreate,
+			final Transcoder<T> tc) {
+		return bulk(splitKeys(keyList),
+				new BulkCall<List<String>, CollectionOperationStatus>() {
+			public Future<Map<String, CollectionOperationStatus>> call(
+					ArcusClient c, List<String> part) {
+				return c.asyncBopInsertBulk(part, bkey, eFlag, value,
+					attributesForCreate, tc);
+			}
+		});
 	}
 
 	@Override
@@ -882,6 +1357,30 @@ public class ArcusClientPool implements ArcusClientIF {
 				offset, count, tc);
 	}
 
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<List<Object>>>> asyncLopGetBulk(
+			List<String> keyList, int from, int to) {
+		return this.getClient().asyncLopGetBulk(keyList, from, to);
+	}
+
+	@Override
+	public <T> CollectionGetBulkFuture<Map<String, CollectionGetResult<List<T>>>> asyncLopGetBulk(
+			List<String> keyList, int from, int to, Transcoder<T> tc) {
+		return this.getClient().asyncLopGetBulk(keyList, from, to, tc);
+	}
+
+	@Override
+	public CollectionGetBulkFuture<Map<String, CollectionGetResult<Set<Object>>>> asyncSopGetBulk(
+			List<String> keyList, int count) {
+		return this.getClient().asyncSopGetBulk(keyList, count);
+	}
+
+	@Override
+	public <T> CollectionGetBulkFuture<Map<String, CollectionGetResult<Set<T>>>> asyncSopGetBulk(
+			List<String> keyList, int count, Transcoder<T> tc) {
+		return this.getClient().asyncSopGetBulk(keyList, count, tc);
+	}
+
 	@Override
 	public CollectionFuture<Long> asyncBopIncr(String key, long subkey, int by) {
 		return this.getClient().asyncBopIncr(key, subkey, by);
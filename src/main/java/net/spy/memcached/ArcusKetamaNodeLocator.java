@@ -18,10 +18,14 @@ package net.spy.memcached;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.TreeMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -31,12 +35,23 @@ import net.spy.memcached.util.ArcusKetamaNodeLocatorConfiguration;
 
 public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 
-	TreeMap<Long, MemcachedNode> ketamaNodes;
-	Collection<MemcachedNode> allNodes;
+	/*
+	 * The continuum and the node list are immutable and published through
+	 * volatile references, so key lookups never take a lock.
+	 * update() builds new copies and replaces them.
+	 */
+	volatile Continuum continuum;
+	volatile Collection<MemcachedNode> allNodes;
 
 	HashAlgorithm hashAlg;
 	ArcusKetamaNodeLocatorConfiguration config;
 
+	// the number of hashes of each node in the continuum,
+	// to find the nodes whose weight has been changed.
+	Map<MemcachedNode, Integer> nodeRepetitions =
+		new HashMap<MemcachedNode, Integer>();
+
+	// serializes updates of the continuum
 	Lock lock = new ReentrantLock();
 
 	public ArcusKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg) {
@@ -46,31 +61,36 @@ public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 	public ArcusKetamaNodeLocator(List<MemcachedNode> nodes, HashAlgorithm alg,
 			ArcusKetamaNodeLocatorConfiguration conf) {
 		super();
-		allNodes = nodes;
+		allNodes = Collections.unmodifiableList(
+				new ArrayList<MemcachedNode>(nodes));
 		hashAlg = alg;
-		ketamaNodes = new TreeMap<Long, MemcachedNode>();
 		config = conf;
 
-		int numReps = config.getNodeRepetitions();
+		TreeMap<Long, MemcachedNode> ketamaNodes = new TreeMap<Long, MemcachedNode>();
+		int totalReps = 0;
 		for (MemcachedNode node : nodes) {
 			// Ketama does some special work with md5 where it reuses chunks.
 			if (alg == HashAlgorithm.KETAMA_HASH) {
-				updateHash(node, false);
+				updateHash(ketamaNodes, node, false);
 			} else {
+				int numReps = config.getNodeRepetitions(node);
 				for (int i = 0; i < numReps; i++) {
 					ketamaNodes.put(
 							hashAlg.hash(config.getKeyForNode(node, i)), node);
 				}
+				nodeRepetitions.put(node, numReps);
 			}
+			totalReps += nodeRepetitions.get(node);
 		}
-		assert ketamaNodes.size() == numReps * nodes.size();
+		assert ketamaNodes.size() == totalReps;
+		continuum = new Continuum(ketamaNodes);
 	}
 
-	private ArcusKetamaNodeLocator(TreeMap<Long, MemcachedNode> smn,
+	private ArcusKetamaNodeLocator(Continuum c,
 			Collection<MemcachedNode> an, HashAlgorithm alg,
 			ArcusKetamaNodeLocatorConfiguration conf) {
 		super();
-		ketamaNodes = smn;
+		continuum = c;
 		allNodes = an;
 		hashAlg = alg;
 		config = conf;
@@ -81,45 +101,17 @@ public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 	}
 
 	public MemcachedNode getPrimary(final String k) {
-		MemcachedNode rv = getNodeForKey(hashAlg.hash(k));
+		MemcachedNode rv = getNodeForKey(hashAlg.hash(config.getKeyForHash(k)));
 		assert rv != null : "Found no node for key " + k;
 		return rv;
 	}
 
 	long getMaxKey() {
-		return ketamaNodes.lastKey();
+		return continuum.getMaxKey();
 	}
 
 	MemcachedNode getNodeForKey(long hash) {
-		MemcachedNode rv;
-
-		lock.lock();
-		try {
-			if (!ketamaNodes.containsKey(hash)) {
-				Long nodeHash = ketamaNodes.ceilingKey(hash);
-				if (nodeHash == null) {
-					hash = ketamaNodes.firstKey();
-				} else {
-					hash = nodeHash.longValue();
-				}
-				// Java 1.6 adds a ceilingKey method, but I'm still stuck in 1.5
-				// in a lot of places, so I'm doing this myself.
-				/*
-				SortedMap<Long, MemcachedNode> tailMap = ketamaNodes.tailMap(hash);
-				if (tailMap.isEmpty()) {
-					hash = ketamaNodes.firstKey();
-				} else {
-					hash = tailMap.firstKey();
-				}
-				*/
-			}
-			rv = ketamaNodes.get(hash);
-		} catch (RuntimeException e) {
-			throw e;
-		} finally {
-			lock.unlock();
-		}
-		return rv;
+		return continuum.getNodeForKey(hash);
 	}
 
 	public Iterator<MemcachedNode> getSequence(String k) {
@@ -127,45 +119,60 @@ public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 	}
 
 	public NodeLocator getReadonlyCopy() {
-		TreeMap<Long, MemcachedNode> smn = new TreeMap<Long, MemcachedNode>(
-				ketamaNodes);
-		Collection<MemcachedNode> an = new ArrayList<MemcachedNode>(
-				allNodes.size());
+		Continuum c = continuum;
+		Collection<MemcachedNode> nodes = allNodes;
 
-		lock.lock();
-		try {
-			// Rewrite the values a copy of the map.
-			for (Map.Entry<Long, MemcachedNode> me : smn.entrySet()) {
-				me.setValue(new MemcachedNodeROImpl(me.getValue()));
-			}
-			// Copy the allNodes collection.
-			for (MemcachedNode n : allNodes) {
-				an.add(new MemcachedNodeROImpl(n));
-			}
-		} catch (RuntimeException e) {
-			throw e;
-		} finally {
-			lock.unlock();
+		// Rewrite the nodes of the continuum with read only copies.
+		MemcachedNode[] roNodes = new MemcachedNode[c.nodes.length];
+		for (int i = 0; i < roNodes.length; i++) {
+			roNodes[i] = new MemcachedNodeROImpl(c.nodes[i]);
+		}
+		// Copy the allNodes collection.
+		Collection<MemcachedNode> an = new ArrayList<MemcachedNode>(
+				nodes.size());
+		for (MemcachedNode n : nodes) {
+			an.add(new MemcachedNodeROImpl(n));
 		}
 
-		return new ArcusKetamaNodeLocator(smn, an, hashAlg, config);
+		return new ArcusKetamaNodeLocator(new Continuum(c.hashes, roNodes),
+				Collections.unmodifiableCollection(an), hashAlg, config);
 	}
 
 	public void update(Collection<MemcachedNode> toAttach,
 			Collection<MemcachedNode> toDelete) {
 		lock.lock();
 		try {
+			TreeMap<Long, MemcachedNode> ketamaNodes = continuum.toMap();
+			List<MemcachedNode> nodes = new ArrayList<MemcachedNode>(allNodes);
+
 			// Add memcached nodes.
 			for (MemcachedNode node : toAttach) {
-				allNodes.add(node);
-				updateHash(node, false);
+				nodes.add(node);
+				updateHash(ketamaNodes, node, false);
 			}
 
 			// Remove memcached nodes.
 			for (MemcachedNode node : toDelete) {
-				allNodes.remove(node);
-				updateHash(node, true);
+				nodes.remove(node);
+				updateHash(ketamaNodes, node, true);
+			}
+
+			// Rehash the nodes whose weight has been changed.
+			for (MemcachedNode node : nodes) {
+				if (nodeRepetitions.get(node) != config.getNodeRepetitions(node)) {
+					getLogger().info("Weight of %s is changed to %d", node,
+							config.getNodeWeight(node));
+					updateHash(ketamaNodes, node, true);
+					updateHash(ketamaNodes, node, false);
+				}
+			}
 
+			// Publish the new continuum before shutting down the removed
+			// nodes, so that no lookup returns a node being shut down.
+			continuum = new Continuum(ketamaNodes);
+			allNodes = Collections.unmodifiableList(nodes);
+
+			for (MemcachedNode node : toDelete) {
 				try {
 					node.getSk().attach(null);
 					node.shutdown();
@@ -182,9 +189,13 @@ public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 		}
 	}
 
-	void updateHash(MemcachedNode node, boolean remove) {
+	void updateHash(TreeMap<Long, MemcachedNode> ketamaNodes,
+			MemcachedNode node, boolean remove) {
+		// Remove as many hashes as added, even if the weight has changed.
+		Integer added = remove ? nodeRepetitions.remove(node) : null;
+		int numReps = added != null ? added : config.getNodeRepetitions(node);
 		// Ketama does some special work with md5 where it reuses chunks.
-		for (int i = 0; i < config.getNodeRepetitions() / 4; i++) {
+		for (int i = 0; i < numReps / 4; i++) {
 			byte[] digest = HashAlgorithm.computeMd5(config.getKeyForNode(node,
 					i));
 			for (int h = 0; h < 4; h++) {
@@ -194,12 +205,73 @@ public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 						| (digest[h * 4] & 0xFF);
 				if (remove) {
 					ketamaNodes.remove(k);
-					config.removeNode(node);
 				} else {
 					ketamaNodes.put(k, node);
 				}
 			}
 		}
+		if (remove) {
+			config.removeNode(node);
+		} else {
+			nodeRepetitions.put(node, numReps);
+		}
+	}
+
+	/**
+	 * Immutable ketama continuum: the sorted hash points and their nodes
+	 * in parallel arrays, searched with a binary search.
+	 */
+	static final class Continuum {
+
+		final long[] hashes;
+		final MemcachedNode[] nodes;
+
+		Continuum(TreeMap<Long, MemcachedNode> ketamaNodes) {
+			hashes = new long[ketamaNodes.size()];
+			nodes = new MemcachedNode[ketamaNodes.size()];
+			int i = 0;
+			for (Map.Entry<Long, MemcachedNode> me : ketamaNodes.entrySet()) {
+				hashes[i] = me.getKey();
+				nodes[i] = me.getValue();
+				i++;
+			}
+		}
+
+		Continuum(long[] h, MemcachedNode[] n) {
+			assert h.length == n.length;
+			hashes = h;
+			nodes = n;
+		}
+
+		MemcachedNode getNodeForKey(long hash) {
+			if (hashes.length == 0) {
+				throw new NoSuchElementException("No node in the continuum");
+			}
+			int i = Arrays.binarySearch(hashes, hash);
+			if (i < 0) {
+				// the first point past the hash, wrapping around the end
+				i = -(i + 1);
+				if (i == hashes.length) {
+					i = 0;
+				}
+			}
+			return nodes[i];
+		}
+
+		long getMaxKey() {
+			if (hashes.length == 0) {
+				throw new NoSuchElementException("No node in the continuum");
+			}
+			return hashes[hashes.length - 1];
+		}
+
+		TreeMap<Long, MemcachedNode> toMap() {
+			TreeMap<Long, MemcachedNode> rv = new TreeMap<Long, MemcachedNode>();
+			for (int i = 0; i < hashes.length; i++) {
+				rv.put(hashes[i], nodes[i]);
+			}
+			return rv;
+		}
 	}
 
 	class KetamaIterator implements Iterator<MemcachedNode> {
@@ -211,9 +283,9 @@ public class ArcusKetamaNodeLocator extends SpyObject implements NodeLocator {
 
 		public KetamaIterator(final String k, final int t) {
 			super();
-			hashVal = hashAlg.hash(k);
+			key = config.getKeyForHash(k);
+			hashVal = hashAlg.hash(key);
 			remainingTries = t;
-			key = k;
 		}
 
 		private void nextHash() {
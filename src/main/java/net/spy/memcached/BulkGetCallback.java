@@ -0,0 +1,36 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+/**
+ * Receives the values of a bulk get as they are read from the servers.
+ *
+ * The callback is invoked from the IO thread, so it must not block.
+ * Keys which are not found are not reported.
+ *
+ * @param <T> the type of the values
+ */
+public interface BulkGetCallback<T> {
+
+	/**
+	 * Called for each value found.
+	 *
+	 * @param key the key of the value
+	 * @param value the decoded value
+	 */
+	void gotData(String key, T value);
+}
@@ -0,0 +1,121 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact container for the result of a bulk get.
+ *
+ * The values are kept in an array indexed by the position of the key
+ * in the requested key collection, so no map entry is created per key.
+ * Pass it as the callback of
+ * {@link MemcachedClient#asyncGetBulk(Collection,
+ * net.spy.memcached.transcoders.Transcoder, BulkGetCallback)}
+ * and read the values after the future is done.
+ *
+ * @param <T> the type of the values
+ */
+public class BulkGetResult<T> implements BulkGetCallback<T> {
+
+	private final String[] keys;
+	private final Object[] values;
+
+	// open addressing table of the positions of the keys by the hash of
+	// the key, used to find a key.  A slot holds the position plus one,
+	// or 0 if it's empty.
+	private final int[] table;
+
+	/**
+	 * Create a container for the given keys.
+	 *
+	 * @param keys the keys in the order they are requested
+	 */
+	public BulkGetResult(Collection<String> keys) {
+		this.keys = keys.toArray(new String[keys.size()]);
+		this.values = new Object[this.keys.length];
+
+		// at most half full, so a lookup ends at an empty slot soon.
+		int size = 2;
+		while (size < this.keys.length * 2) {
+			size <<= 1;
+		}
+		this.table = new int[size];
+		for (int i = 0; i < this.keys.length; i++) {
+			int slot = slot(this.keys[i]);
+			while (table[slot] != 0) {
+				slot = (slot + 1) & (table.length - 1);
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	private int slot(String key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (table.length - 1);
+	}
+
+	public void gotData(String key, T value) {
+		// a key requested twice gets the value at every position.
+		for (int slot = slot(key); table[slot] != 0;
+				slot = (slot + 1) & (table.length - 1)) {
+			int index = table[slot] - 1;
+			if (keys[index].equals(key)) {
+				values[index] = value;
+			}
+		}
+	}
+
+	/**
+	 * Get the number of requested keys.
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Get the key at the given position.
+	 */
+	public String getKey(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Get the value of the key at the given position.
+	 *
+	 * @return the value, or null if the key was not found
+	 */
+	@SuppressWarnings("unchecked")
+	public T getValue(int index) {
+		return (T) values[index];
+	}
+
+	/**
+	 * Get the values found as a map.
+	 */
+	public Map<String, T> toMap() {
+		Map<String, T> m = new HashMap<String, T>();
+		for (int i = 0; i < keys.length; i++) {
+			if (values[i] != null) {
+				m.put(keys[i], getValue(i));
+			}
+		}
+		return m;
+	}
+}
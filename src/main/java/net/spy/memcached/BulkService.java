@@ -17,262 +17,583 @@
 package net.spy.memcached;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import net.spy.memcached.collection.Attributes;
+import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.CollectionGetResult;
 import net.spy.memcached.collection.CollectionResponse;
 import net.spy.memcached.compat.SpyObject;
 import net.spy.memcached.internal.BasicThreadFactory;
+import net.spy.memcached.internal.CheckedOperationTimeoutException;
 import net.spy.memcached.internal.CollectionFuture;
 import net.spy.memcached.ops.CollectionOperationStatus;
+import net.spy.memcached.ops.GetAttrOperation;
+import net.spy.memcached.ops.Mutator;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
+import net.spy.memcached.ops.OperationStatus;
 import net.spy.memcached.ops.StoreType;
 import net.spy.memcached.transcoders.Transcoder;
 
+/**
+ * Runs an operation on each of a lot of keys.
+ *
+ * The keys are grouped by node, and each node gets up to the window size
+ * of the operations at a time.  When an operation completes, the next
+ * operation of its node is sent.  Adding an operation may block while the
+ * input queue of the node is full, so the operations freed on the IO
+ * thread are sent by the thread of the service instead.  The same thread
+ * times out the operations that take longer than the single operation
+ * timeout.  The result is a map of the keys that failed and their status.
+ */
 class BulkService extends SpyObject {
 
-	private static int DEFAULT_LOOP_LIMIT;
-	private final ExecutorService executor;
+	private final int windowSize;
 	private final long singleOpTimeout;
+	private final ScheduledExecutorService executor;
 
-	BulkService(int loopLimit, int threadCount, long singleOpTimeout) {
-		this.executor = new ThreadPoolExecutor(threadCount, threadCount, 60L,
-				TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
-				new BasicThreadFactory("bulk-service", true),
-				new ThreadPoolExecutor.AbortPolicy());
-		BulkService.DEFAULT_LOOP_LIMIT = loopLimit;
+	/**
+	 * @param windowSize max number of operations in flight per node
+	 * @param singleOpTimeout timeout of each operation in milliseconds
+	 */
+	BulkService(int windowSize, long singleOpTimeout) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("Invalid window size : "
+					+ windowSize);
+		}
+		if (singleOpTimeout < 1) {
+			throw new IllegalArgumentException(
+					"Invalid single operation timeout : " + singleOpTimeout);
+		}
+		this.windowSize = windowSize;
 		this.singleOpTimeout = singleOpTimeout;
+		this.executor = Executors.newSingleThreadScheduledExecutor(
+				new BasicThreadFactory("bulk-service", true));
 	}
 
-	<T> Future<Map<String, CollectionOperationStatus>> setBulk(
-			List<String> keys, int exp, T value, Transcoder<T> transcoder,
-			ArcusClient[] client) {
-		assert !executor.isShutdown() : "Pool has already shut down.";
-		BulkSetWorker<T> w = new BulkSetWorker<T>(keys, exp, value, transcoder,
-				client, singleOpTimeout);
-		BulkService.Task<Map<String, CollectionOperationStatus>> task = new BulkService.Task<Map<String, CollectionOperationStatus>>(
-				w);
-		executor.submit(task);
-		return task;
-	}
-
-	<T> Future<Map<String, CollectionOperationStatus>> setBulk(
-			Map<String, T> o, int exp, Transcoder<T> transcoder,
-			ArcusClient[] client) {
-		assert !executor.isShutdown() : "Pool has already shut down.";
-		BulkSetWorker<T> w = new BulkSetWorker<T>(o, exp, transcoder, client,
-				singleOpTimeout);
-		BulkService.Task<Map<String, CollectionOperationStatus>> task = new BulkService.Task<Map<String, CollectionOperationStatus>>(
-				w);
-		executor.submit(task);
-		return task;
+	/**
+	 * The thread of the service, for the other bulk operations that send
+	 * their next operations when one completes on the IO thread.
+	 */
+	Executor getExecutor() {
+		return executor;
 	}
 
 	void shutdown() {
 		try {
 			executor.shutdown();
 		} catch (Exception e) {
-			getLogger().warn("exception while shutting down bulk set service.",
+			getLogger().warn("exception while shutting down bulk service.",
 					e);
 		}
 	}
 
-	private static class Task<T> extends FutureTask<T> {
-		private final BulkWorker worker;
+	/**
+	 * Creates the operation of a key.
+	 */
+	interface OperationCreator {
+		Operation create(String key, OperationCallback cb);
+	}
 
-		public Task(Callable<T> callable) {
-			super(callable);
-			this.worker = (BulkWorker) callable;
-		}
+	<T> Future<Map<String, CollectionOperationStatus>> setBulk(
+			final ArcusClient client, List<String> keys, final int exp,
+			T value, Transcoder<T> transcoder) {
+		final CachedData co = transcoder.encode(value);
+		return execute(client, keys, new OperationCreator() {
+			public Operation create(String key, OperationCallback cb) {
+				return client.opFact.store(StoreType.set, key, co.getFlags(),
+						exp, co.getData(), cb);
+			}
+		});
+	}
+
+	<T> Future<Map<String, CollectionOperationStatus>> setBulk(
+			final ArcusClient client, final Map<String, T> o, final int exp,
+			final Transcoder<T> transcoder) {
+		return execute(client, o.keySet(), new OperationCreator() {
+			public Operation create(String key, OperationCallback cb) {
+				CachedData co = transcoder.encode(o.get(key));
+				return client.opFact.store(StoreType.set, key, co.getFlags(),
+						exp, co.getData(), cb);
+			}
+		});
+	}
+
+	/**
+	 * Store the values of the keys only if their CAS ids are unchanged.
+	 * A key whose item was modified since its gets fails with EXISTS.
+	 */
+	<T> Future<Map<String, CollectionOperationStatus>> casBulk(
+			final MemcachedClient client, final Map<String, CASValue<T>> o,
+			final int exp, final Transcoder<T> transcoder) {
+		return execute(client, o.keySet(), new OperationCreator() {
+			public Operation create(String key, OperationCallback cb) {
+				CASValue<T> v = o.get(key);
+				CachedData co = transcoder.encode(v.getValue());
+				return client.opFact.cas(StoreType.set, key, v.getCas(),
+						co.getFlags(), exp, co.getData(), cb);
+			}
+		});
+	}
+
+	Future<Map<String, CollectionOperationStatus>> deleteBulk(
+			final MemcachedClient client, Collection<String> keys,
+			final boolean noreply) {
+		return execute(client, keys, new OperationCreator() {
+			public Operation create(String key, OperationCallback cb) {
+				return client.opFact.delete(key, noreply, cb);
+			}
+		});
+	}
+
+	Future<Map<String, CollectionOperationStatus>> setAttrBulk(
+			final MemcachedClient client, Collection<String> keys,
+			final Attributes attrs) {
+		return execute(client, keys, new OperationCreator() {
+			public Operation create(String key, OperationCallback cb) {
+				return client.opFact.setAttr(key, attrs, cb);
+			}
+		});
+	}
 
-		@Override
-		public boolean cancel(boolean mayInterruptIfRunning) {
-			return worker.cancel() && super.cancel(mayInterruptIfRunning);
+	/**
+	 * Get the attributes of the items.  The result maps each key to its
+	 * attributes and status.  The attributes are null if the key failed.
+	 */
+	Future<Map<String, CollectionGetResult<CollectionAttributes>>> getAttrBulk(
+			final MemcachedClient client, Collection<String> keys) {
+		final Map<String, CollectionGetResult<CollectionAttributes>> values =
+			new ConcurrentHashMap<String, CollectionGetResult<CollectionAttributes>>();
+		return execute(client, keys, new OperationCreator() {
+			public Operation create(final String key,
+					final OperationCallback cb) {
+				return client.opFact.getAttr(key,
+						new GetAttrOperation.Callback() {
+					final CollectionAttributes attrs = new CollectionAttributes();
+
+					public void gotAttribute(String k, String attr) {
+						attrs.setAttribute(attr);
+					}
+
+					public void receivedStatus(OperationStatus status) {
+						values.put(key,
+								new CollectionGetResult<CollectionAttributes>(
+										status.isSuccess() ? attrs : null,
+										new CollectionOperationStatus(status)));
+						cb.receivedStatus(status);
+					}
+
+					public void complete() {
+						cb.complete();
+					}
+				});
+			}
+		}, new ResultMaker<Map<String, CollectionGetResult<CollectionAttributes>>>() {
+			public Map<String, CollectionGetResult<CollectionAttributes>> make(
+					Map<String, CollectionOperationStatus> failed) {
+				// The keys that failed without a response, e.g. not added.
+				for (Map.Entry<String, CollectionOperationStatus> e : failed
+						.entrySet()) {
+					if (!values.containsKey(e.getKey())) {
+						values.put(e.getKey(),
+								new CollectionGetResult<CollectionAttributes>(
+										null, e.getValue()));
+					}
+				}
+				return values;
+			}
+		});
+	}
+
+	/**
+	 * Mutate the counters by their amounts.  The result maps each key to
+	 * the new value, or -1 if the mutation failed.
+	 */
+	Future<Map<String, Long>> mutateBulk(final MemcachedClient client,
+			final Mutator m, final Map<String, Integer> counters,
+			final long def, final int exp) {
+		final Map<String, Long> values = new ConcurrentHashMap<String, Long>();
+		for (String key : counters.keySet()) {
+			values.put(key, -1L);
 		}
+		return execute(client, counters.keySet(), new OperationCreator() {
+			public Operation create(final String key,
+					final OperationCallback cb) {
+				return client.opFact.mutate(m, key, counters.get(key), def,
+						exp, new OperationCallback() {
+					public void receivedStatus(OperationStatus status) {
+						if (status.isSuccess()) {
+							values.put(key, new Long(status.getMessage()));
+						}
+						cb.receivedStatus(status);
+					}
+
+					public void complete() {
+						cb.complete();
+					}
+				});
+			}
+		}, new ResultMaker<Map<String, Long>>() {
+			public Map<String, Long> make(
+					Map<String, CollectionOperationStatus> failed) {
+				return values;
+			}
+		});
+	}
+
+	/**
+	 * Run an operation on each key.
+	 *
+	 * @param client the client to send the operations with
+	 * @param keys the keys
+	 * @param creator creates the operation of a key
+	 * @return a future that will hold the failed keys and their status
+	 */
+	Future<Map<String, CollectionOperationStatus>> execute(
+			MemcachedClient client, Collection<String> keys,
+			OperationCreator creator) {
+		return execute(client, keys, creator,
+				new ResultMaker<Map<String, CollectionOperationStatus>>() {
+			public Map<String, CollectionOperationStatus> make(
+					Map<String, CollectionOperationStatus> failed) {
+				return failed;
+			}
+		});
+	}
+
+	/**
+	 * Makes the result of a bulk operation when it's done.
+	 */
+	private interface ResultMaker<R> {
+		R make(Map<String, CollectionOperationStatus> failed);
 	}
 
 	/**
-	 * Bulk operation worker
+	 * Run an operation on each key, and give the result made when the
+	 * operations are done.
 	 */
-	private abstract static class BulkWorker<T> extends SpyObject implements
-			Callable<Map<String, CollectionOperationStatus>> {
-
-		protected final ArcusClient[] clientList;
-		protected final ArrayList<Future<Boolean>> future;
-		protected final long operationTimeout;
-		protected final AtomicBoolean isRunnable = new AtomicBoolean(true);
-		protected final Map<String, CollectionOperationStatus> errorList;
-
-		protected final int totalCount;
-		protected final int fromIndex;
-		protected final int toIndex;
-
-		public BulkWorker(int keySize, long timeout, Transcoder<T> tc,
-				ArcusClient[] clientList) {
-			this.future = new ArrayList<Future<Boolean>>(keySize);
-			this.operationTimeout = timeout;
-			this.clientList = getOptimalClients(clientList);
-			this.errorList = new HashMap<String, CollectionOperationStatus>();
-
-			fromIndex = 0;
-			toIndex = keySize - 1;
-			totalCount = toIndex - fromIndex + 1;
+	private <R> Future<R> execute(MemcachedClient client,
+			Collection<String> keys, OperationCreator creator,
+			final ResultMaker<R> maker) {
+		Map<String, CollectionOperationStatus> failed =
+			new ConcurrentHashMap<String, CollectionOperationStatus>();
+		for (String key : keys) {
+			client.validateKey(key);
+		}
+
+		final BulkOperation bulk = new BulkOperation(client, creator,
+				keys.size(), failed, executor);
+		for (List<List<String>> chunks : client.getMemcachedConnection()
+				.groupKeysByNode(keys, Integer.MAX_VALUE).values()) {
+			bulk.windows.add(bulk.new Window(chunks.get(0).iterator()));
+		}
+		for (BulkOperation.Window w : bulk.windows) {
+			w.send(windowSize);
 		}
+		bulk.watch(singleOpTimeout);
 
-		public boolean cancel() {
-			if (!isRunnable()) {
-				return false;
+		return new CollectionFuture<R>(bulk.latch, client.operationTimeout) {
+
+			@Override
+			public boolean cancel(boolean ign) {
+				bulk.cancel();
+				return true;
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return bulk.cancelled;
 			}
 
-			isRunnable.set(false);
+			@Override
+			public boolean isDone() {
+				return bulk.latch.getCount() == 0 || bulk.cancelled;
+			}
 
-			boolean ret = true;
-			
-			for (Future<Boolean> f : future) {
-				if (f == null) {
-					continue;
+			@Override
+			public R get()
+					throws InterruptedException, ExecutionException {
+				// Each operation ends within the single operation timeout,
+				// so this ends however many keys there are.
+				bulk.latch.await();
+				return getResult();
+			}
+
+			@Override
+			public R get(long duration, TimeUnit units)
+					throws InterruptedException, TimeoutException,
+					ExecutionException {
+				if (!bulk.latch.await(duration, units)) {
+					List<Operation> ops = new ArrayList<Operation>();
+					for (BulkOperation.KeyCallback cb : bulk.pending) {
+						MemcachedConnection.opTimedOut(cb.op);
+						ops.add(cb.op);
+					}
+					throw new CheckedOperationTimeoutException(
+							"Timed out waiting for bulk operation. >"
+									+ duration, ops);
 				}
-				if (f.isCancelled() || f.isDone()) {
-					continue;
+				return getResult();
+			}
+
+			private R getResult() throws ExecutionException {
+				if (bulk.cancelled) {
+					throw new ExecutionException(new RuntimeException(
+							"Cancelled"));
 				}
-				ret &= f.cancel(true);
-								
-				if (getLogger().isDebugEnabled()) {
-					getLogger().debug("Cancel the future. " + f);
+				return maker.make(bulk.failed);
+			}
+
+			@Override
+			public CollectionOperationStatus getOperationStatus() {
+				if (bulk.latch.getCount() > 0) {
+					return null;
 				}
+				return new CollectionOperationStatus(bulk.failed.isEmpty(),
+						"END", CollectionResponse.END);
 			}
-			getLogger().info("Cancel, bulk set worker.");
-			return ret;
+		};
+	}
+
+	/**
+	 * The state of a bulk operation.
+	 */
+	private static class BulkOperation {
+
+		final MemcachedClient client;
+		final OperationCreator creator;
+		final CountDownLatch latch;
+		final Map<String, CollectionOperationStatus> failed;
+		final ScheduledExecutorService executor;
+		final Set<KeyCallback> pending = Collections
+				.newSetFromMap(new ConcurrentHashMap<KeyCallback, Boolean>());
+		final List<Window> windows = new ArrayList<Window>();
+		volatile boolean cancelled = false;
+		volatile Future<?> watcher = null;
+
+		BulkOperation(MemcachedClient client, OperationCreator creator,
+				int count, Map<String, CollectionOperationStatus> failed,
+				ScheduledExecutorService executor) {
+			this.client = client;
+			this.creator = creator;
+			this.latch = new CountDownLatch(count);
+			this.failed = failed;
+			this.executor = executor;
 		}
 
-		private ArcusClient[] getOptimalClients(ArcusClient[] clientList) {
-			return clientList;
+		void cancel() {
+			cancelled = true;
+			for (KeyCallback cb : pending) {
+				cb.op.cancel();
+			}
+			// The keys not sent yet will never count down.
+			while (latch.getCount() > 0) {
+				latch.countDown();
+			}
+			done();
 		}
 
-		protected boolean isRunnable() {
-			return isRunnable.get() && !Thread.currentThread().isInterrupted();
+		/**
+		 * Time out the operations that take longer than the timeout until
+		 * all the operations are done.  The pending operations are checked
+		 * once per timeout, so an operation may take up to twice the
+		 * timeout before it's timed out.
+		 */
+		void watch(final long timeout) {
+			if (latch.getCount() == 0) {
+				return;
+			}
+			try {
+				watcher = executor.scheduleWithFixedDelay(new Runnable() {
+					public void run() {
+						timeOut(TimeUnit.MILLISECONDS.toNanos(timeout));
+					}
+				}, timeout, timeout, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				// The service is shut down, the operations are cancelled
+				// by the connection.
+				return;
+			}
+			// The operations may be done while scheduling.
+			if (latch.getCount() == 0) {
+				done();
+			}
 		}
 
-		protected void setErrorOpStatus(String key, int indexOfFuture) {
-			errorList.put(key,
-					((CollectionFuture<Boolean>) future.get(indexOfFuture))
-							.getOperationStatus());
+		private void timeOut(long timeoutNanos) {
+			long now = System.nanoTime();
+			for (KeyCallback cb : pending) {
+				if (now - cb.sent >= timeoutNanos) {
+					cb.timeOut();
+				}
+			}
 		}
 
-		public abstract Future<Boolean> processItem(int index);
+		private void done() {
+			Future<?> w = watcher;
+			if (w != null) {
+				w.cancel(false);
+			}
+		}
 
-		public abstract void awaitProcessResult(int index);
+		/**
+		 * Sends the operations of the keys in a node one after another.
+		 */
+		class Window {
 
-		public abstract boolean isDataExists();
+			final Iterator<String> keys;
+			final Runnable sender = new Runnable() {
+				public void run() {
+					sendAll();
+				}
+			};
+			// the number of operations that can be sent now
+			int credits = 0;
+			boolean sending = false;
 
-		public Map<String, CollectionOperationStatus> call() throws Exception {
-			if (!isDataExists()) {
-				return errorList;
+			Window(Iterator<String> keys) {
+				this.keys = keys;
 			}
 
-			for (int pos = fromIndex; isRunnable() && pos <= toIndex; pos++) {
-				if ((pos - fromIndex) > 0
-						&& (pos - fromIndex) % DEFAULT_LOOP_LIMIT == 0) {
-					for (int i = pos - DEFAULT_LOOP_LIMIT; isRunnable()
-							&& i < pos; i++) {
-						awaitProcessResult(i);
+			/**
+			 * Send up to n more operations.
+			 *
+			 * An operation may complete while it's being added, e.g. when
+			 * it's cancelled, and the callback calls this again.  Such a
+			 * call just adds the credit to the loop that's already sending
+			 * instead of going deeper.  On the IO thread, the sending is
+			 * handed to the thread of the service.
+			 */
+			void send(int n) {
+				synchronized (this) {
+					credits += n;
+					if (sending) {
+						return;
 					}
+					sending = true;
 				}
-				try {
-					if (isRunnable()) {
-						future.add(pos, processItem(pos));
-					}
-				} catch (IllegalStateException e) {
-					if (Thread.currentThread().isInterrupted()) {
-						break;
-					} else {
-						throw e;
+				if (Thread.currentThread() == client) {
+					try {
+						executor.execute(sender);
+						return;
+					} catch (RejectedExecutionException e) {
+						// The service is shut down, the client is being
+						// shut down too and fails the rest quickly.
 					}
 				}
+				sendAll();
 			}
-			for (int i = toIndex
-					- (totalCount % DEFAULT_LOOP_LIMIT == 0 ? DEFAULT_LOOP_LIMIT
-							: totalCount % DEFAULT_LOOP_LIMIT) + 1; isRunnable()
-					&& i <= toIndex; i++) {
-				awaitProcessResult(i);
+
+			private void sendAll() {
+				while (true) {
+					String key;
+					synchronized (this) {
+						if (credits == 0 || cancelled || !keys.hasNext()) {
+							sending = false;
+							return;
+						}
+						credits--;
+						key = keys.next();
+					}
+
+					KeyCallback cb = new KeyCallback(key, this);
+					try {
+						cb.op = creator.create(key, cb);
+						cb.sent = System.nanoTime();
+						pending.add(cb);
+						client.addOp(key, cb.op);
+					} catch (RuntimeException e) {
+						// e.g. the input queue of the node is full.
+						cb.fail(e.getMessage());
+					}
+				}
 			}
-			return errorList;
 		}
-	}
 
-	/**
-	 * Bulk set operation worker
-	 */
-	private static class BulkSetWorker<T> extends BulkWorker<T> {
-		private final List<String> keys;
-		private final int exp;
-		private final int cntCos;
-		private List<CachedData> cos;
-
-		public BulkSetWorker(List<String> keys, int exp, T value,
-				Transcoder<T> transcoder, ArcusClient[] clientList,
-				long timeout) {
-			super(keys.size(), timeout, transcoder, clientList);
-			this.keys = keys;
-			this.exp = exp;
-			this.cos = new ArrayList<CachedData>();
-			this.cos.add(transcoder.encode(value));
-			this.cntCos = 1;
-		}
+		class KeyCallback implements OperationCallback {
 
-		public BulkSetWorker(Map<String, T> o, int exp,
-				Transcoder<T> transcoder, ArcusClient[] clientList, long timeout) {
+			final String key;
+			final Window window;
+			// set once the key is counted down, by the operation or not
+			final AtomicBoolean done = new AtomicBoolean(false);
+			volatile Operation op;
+			volatile long sent;
 
-			super(o.keySet().size(), timeout, transcoder, clientList);
+			KeyCallback(String key, Window window) {
+				this.key = key;
+				this.window = window;
+			}
 
-			this.keys = new ArrayList<String>(o.keySet());
-			this.exp = exp;
+			public void receivedStatus(OperationStatus status) {
+				if (!done.get() && !status.isSuccess()) {
+					failed.put(key, new CollectionOperationStatus(status));
+				}
+			}
 
-			this.cos = new ArrayList<CachedData>();
-			for (String key : keys) {
-				this.cos.add(transcoder.encode(o.get(key)));
+			public void complete() {
+				if (!done.compareAndSet(false, true)) {
+					// timed out or failed to be added already
+					return;
+				}
+				if (op.isCancelled() && !failed.containsKey(key)) {
+					failed.put(key, new CollectionOperationStatus(false,
+							"CANCELED", CollectionResponse.CANCELED));
+				}
+				finish();
 			}
-			this.cntCos = this.cos.size();
-		}
 
-		@Override
-		public Future<Boolean> processItem(int index) {
-			return clientList[index % clientList.length].asyncStore(
-					StoreType.set, keys.get(index), exp,
-					(this.cntCos > 1 ? cos.get(index) : cos.get(0)));
-		}
+			/**
+			 * Give up the operation that has taken too long.
+			 */
+			void timeOut() {
+				if (!done.compareAndSet(false, true)) {
+					return;
+				}
+				failed.put(key, new CollectionOperationStatus(false,
+						"Timed out waiting for the operation.",
+						CollectionResponse.EXCEPTION));
+				MemcachedConnection.opTimedOut(op);
+				op.cancel();
+				finish();
+			}
 
-		@Override
-		public void awaitProcessResult(int index) {
-			try {
-				boolean success = future.get(index).get(operationTimeout,
-						TimeUnit.MILLISECONDS);
-				if (!success) {
-					errorList.put(
-							keys.get(index),
-							new CollectionOperationStatus(false, String
-									.valueOf(success), CollectionResponse.END));
+			/**
+			 * Fail the key unless it's done already.
+			 */
+			void fail(String message) {
+				if (!done.compareAndSet(false, true)) {
+					return;
 				}
-			} catch (Exception e) {
-				future.get(index).cancel(true);
-				errorList.put(keys.get(index), new CollectionOperationStatus(
-						false, e.getMessage(), CollectionResponse.EXCEPTION));
+				failed.put(key, new CollectionOperationStatus(false, message,
+						CollectionResponse.EXCEPTION));
+				finish();
 			}
-		}
 
-		@Override
-		public boolean isDataExists() {
-			return (keys != null && keys.size() > 0);
+			private void finish() {
+				pending.remove(this);
+				latch.countDown();
+				if (latch.getCount() == 0) {
+					done();
+				}
+				window.send(1);
+			}
 		}
 	}
 }
@@ -24,6 +24,7 @@ package net.spy.memcached;
  * previous ketama node
  */
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
@@ -31,14 +32,18 @@ import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import net.spy.memcached.ArcusClientException.InitializeClientException;
 import net.spy.memcached.compat.SpyThread;
+import net.spy.memcached.util.ArcusKetamaNodeLocatorConfiguration;
 
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooKeeper;
@@ -75,6 +80,9 @@ public class CacheManager extends SpyThread implements Watcher,
 	private volatile boolean shutdownRequested = false;
 
 	private CountDownLatch zkInitLatch;
+
+	private Map<SocketAddress, Integer> prevNodeWeights =
+		new HashMap<SocketAddress, Integer>();
 	
 	public CacheManager(String hostPort, String serviceCode,
 			ConnectionFactoryBuilder cfb, CountDownLatch clientInitLatch, int poolSize,
@@ -259,6 +267,11 @@ public class CacheManager extends SpyThread implements Watcher,
 	 *            new children node list
 	 */
 	public void commandNodeChange(List<String> children) {
+		Map<SocketAddress, Integer> weights = null;
+		if (cfb.isNodeWeightEnabled()) {
+			weights = getNodeWeights(children);
+		}
+
 		String addrs = "";
 		for (int i = 0; i < children.size(); i++) {
 			String[] temp = children.get(i).split("-");
@@ -270,17 +283,100 @@ public class CacheManager extends SpyThread implements Watcher,
 		}
 
 		if (client == null) {
+			if (weights != null) {
+				cfb.setNodeWeights(weights);
+			}
 			createArcusClient(addrs);
 			return;
 		}
 
 		for (ArcusClient ac : client) {
 			MemcachedConnection conn = ac.getMemcachedConnection();
+			if (weights != null
+					&& conn.getLocator() instanceof ArcusKetamaNodeLocator) {
+				// The weights are applied when the queued list is handled.
+				((ArcusKetamaNodeLocator) conn.getLocator()).config
+						.setNodeWeights(weights);
+			}
 			conn.putMemcachedQueue(addrs);
 			conn.getSelector().wakeup();
 		}
 	}
 
+	/**
+	 * Read the weights of the cache nodes from the data of their znodes.
+	 * If the data of a znode can't be read, the weight the node had
+	 * before is used so that the hash doesn't change by an error.
+	 * A data watch is set on each znode, so a changed weight makes the
+	 * cache list be read again.
+	 *
+	 * @param children
+	 *            the children of the cache list znode
+	 * @return the weights of the nodes by their addresses
+	 */
+	private Map<SocketAddress, Integer> getNodeWeights(List<String> children) {
+		Map<SocketAddress, Integer> weights = new HashMap<SocketAddress, Integer>();
+		for (String child : children) {
+			if (CacheMonitor.FAKE_SERVER_NODE.equals(child)) {
+				continue;
+			}
+			SocketAddress sa = AddrUtil.getAddresses(child.split("-")[0]).get(0);
+
+			Integer weight = prevNodeWeights.get(sa);
+			try {
+				weight = parseNodeWeight(zk.getData(CACHE_LIST_PATH
+						+ serviceCode + "/" + child, true, null));
+			} catch (KeeperException e) {
+				getLogger().warn("Can't read the weight of %s : %s", child,
+						e.getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				getLogger().warn("Interrupted while reading the weight of %s",
+						child);
+			} catch (IllegalArgumentException e) {
+				getLogger().warn("Invalid weight of %s : %s", child,
+						e.getMessage());
+				weight = null;
+			}
+			if (weight != null && weight > 1) {
+				weights.put(sa, weight);
+			}
+		}
+		prevNodeWeights = weights;
+		return weights;
+	}
+
+	/**
+	 * Parse the weight of a node from the data of its znode.
+	 *
+	 * @param data
+	 *            the data of the znode
+	 * @return the weight, 1 if there's no data
+	 */
+	static int parseNodeWeight(byte[] data) {
+		if (data == null) {
+			return 1;
+		}
+		String s;
+		try {
+			s = new String(data, "UTF-8").trim();
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+		if (s.length() == 0) {
+			return 1;
+		}
+
+		int weight = Integer.parseInt(s);
+		if (weight < 1
+				|| weight > ArcusKetamaNodeLocatorConfiguration.MAX_NODE_WEIGHT) {
+			throw new IllegalArgumentException("The weight should be between 1"
+					+ " and " + ArcusKetamaNodeLocatorConfiguration.MAX_NODE_WEIGHT
+					+ " : " + weight);
+		}
+		return weight;
+	}
+
 	/**
 	 * Create a ArcusClient
 	 * 
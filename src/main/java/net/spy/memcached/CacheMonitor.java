@@ -111,7 +111,10 @@ public class CacheMonitor extends SpyObject implements Watcher,
 			}
 		} else {
 			// Set a new watch on the znode when there are any changes in it.
-			if (event.getType() == Event.EventType.NodeChildrenChanged) {
+			// The data of a cache node is its weight, so read the list
+			// again to apply the new weight.
+			if (event.getType() == Event.EventType.NodeChildrenChanged
+					|| event.getType() == Event.EventType.NodeDataChanged) {
 				asyncGetCacheList();
 			}
 		}
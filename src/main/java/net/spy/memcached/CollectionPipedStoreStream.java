@@ -0,0 +1,340 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.spy.memcached.collection.CollectionPipedStore;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.compat.SpyObject;
+import net.spy.memcached.internal.CheckedOperationTimeoutException;
+import net.spy.memcached.internal.CollectionFuture;
+import net.spy.memcached.ops.CollectionOperationStatus;
+import net.spy.memcached.ops.CollectionPipedStoreOperation;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Stores the elements of an iterator into a collection item with piped
+ * stores, one chunk at a time.
+ *
+ * A chunk of up to MAX_PIPED_ITEM_COUNT elements is taken from the
+ * iterator only when it is sent, and up to the window size of chunks are
+ * in flight at a time, so the elements never have to be in memory all at
+ * once.  When a chunk completes on the IO thread, the next one is taken
+ * and sent by the given executor, so the iterator of the caller is never
+ * called on the IO thread.  The failed elements are reported by their
+ * position in the iterator.
+ *
+ * @param <E> the type of the elements taken from the iterator
+ * @param <T> the type of the values
+ */
+class CollectionPipedStoreStream<E, T> extends SpyObject {
+
+	/**
+	 * Creates the piped store of a chunk of elements.
+	 */
+	interface StoreCreator<E, T> {
+		CollectionPipedStore<T> create(List<E> elements, int chunk);
+	}
+
+	private final ArcusClient client;
+	private final String key;
+	private final Iterator<E> elements;
+	private final StoreCreator<E, T> creator;
+	private final Executor executor;
+	private final Runnable sender = new Runnable() {
+		public void run() {
+			sendAll();
+		}
+	};
+
+	private final CountDownLatch latch = new CountDownLatch(1);
+	private final Map<Integer, CollectionOperationStatus> failed =
+		new ConcurrentHashMap<Integer, CollectionOperationStatus>();
+	private final Set<Operation> pending = Collections
+			.newSetFromMap(new ConcurrentHashMap<Operation, Boolean>());
+	private volatile CollectionOperationStatus failedStatus = null;
+	private volatile Exception exception = null;
+	private volatile boolean cancelled = false;
+	// the number of chunks completed, to tell if the stream makes progress
+	private volatile int completed = 0;
+
+	// guarded by this
+	private int chunks = 0;
+	private int inFlight = 0;
+	private int credits = 0;
+	private boolean sending = false;
+	// set by the sending thread only, once the iterator has no more
+	private boolean exhausted = false;
+
+	/**
+	 * @param executor sends the chunks freed on the IO thread
+	 */
+	CollectionPipedStoreStream(ArcusClient client, String key,
+			Iterator<E> elements, StoreCreator<E, T> creator,
+			Executor executor) {
+		if (elements == null) {
+			throw new IllegalArgumentException("element iterator is null.");
+		}
+		this.client = client;
+		this.key = key;
+		this.elements = elements;
+		this.creator = creator;
+		this.executor = executor;
+	}
+
+	/**
+	 * Start sending the chunks.
+	 *
+	 * @param windowSize max number of chunks in flight
+	 * @return a future that will hold the failed elements and their status
+	 */
+	CollectionFuture<Map<Integer, CollectionOperationStatus>> start(
+			int windowSize) {
+		send(windowSize);
+		return new CollectionFuture<Map<Integer, CollectionOperationStatus>>(
+				latch, client.operationTimeout) {
+
+			@Override
+			public boolean cancel(boolean ign) {
+				cancelled = true;
+				for (Operation op : pending) {
+					op.cancel();
+				}
+				return true;
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return cancelled;
+			}
+
+			@Override
+			public boolean isDone() {
+				return latch.getCount() == 0;
+			}
+
+			@Override
+			public Map<Integer, CollectionOperationStatus> get()
+					throws InterruptedException, ExecutionException {
+				// The timeout is for each chunk rather than for all of them,
+				// as the iterator may have any number of elements.
+				int done;
+				do {
+					done = completed;
+					if (latch.await(timeout, TimeUnit.MILLISECONDS)) {
+						return getResult();
+					}
+				} while (completed != done);
+				throw new RuntimeException(
+						"Timed out waiting for piped store. >" + timeout,
+						timedOut(timeout));
+			}
+
+			@Override
+			public Map<Integer, CollectionOperationStatus> get(long duration,
+					TimeUnit units) throws InterruptedException,
+					TimeoutException, ExecutionException {
+				if (!latch.await(duration, units)) {
+					throw timedOut(duration);
+				}
+				return getResult();
+			}
+
+			private CheckedOperationTimeoutException timedOut(long duration) {
+				List<Operation> ops = new ArrayList<Operation>(pending);
+				for (Operation op : ops) {
+					MemcachedConnection.opTimedOut(op);
+				}
+				return new CheckedOperationTimeoutException(
+						"Timed out waiting for piped store. >" + duration, ops);
+			}
+
+			private Map<Integer, CollectionOperationStatus> getResult()
+					throws ExecutionException {
+				if (exception != null) {
+					throw new ExecutionException(exception);
+				}
+				if (cancelled) {
+					throw new ExecutionException(new RuntimeException(
+							"Cancelled"));
+				}
+				return failed;
+			}
+
+			@Override
+			public CollectionOperationStatus getOperationStatus() {
+				if (latch.getCount() > 0) {
+					return null;
+				}
+				if (failedStatus != null) {
+					return failedStatus;
+				}
+				return new CollectionOperationStatus(true, "END",
+						CollectionResponse.END);
+			}
+		};
+	}
+
+	/**
+	 * Send up to n more chunks.
+	 *
+	 * A chunk may complete while it's being added, e.g. when it's cancelled,
+	 * and its callback calls this again.  Such a call just adds the credit
+	 * to the loop that's already sending instead of going deeper.  On the
+	 * IO thread, the sending is handed to the executor.
+	 */
+	private void send(int n) {
+		synchronized (this) {
+			credits += n;
+			if (sending) {
+				return;
+			}
+			sending = true;
+		}
+		if (Thread.currentThread() == client) {
+			try {
+				executor.execute(sender);
+				return;
+			} catch (RejectedExecutionException e) {
+				// The client is being shut down and fails the rest quickly.
+			}
+		}
+		sendAll();
+	}
+
+	/**
+	 * Send chunks while there are credits.  Only the thread that set
+	 * sending runs this, so the iterator is called by one thread at a time
+	 * and without holding the lock.
+	 */
+	private void sendAll() {
+		while (true) {
+			int idx;
+			synchronized (this) {
+				boolean stopped = cancelled || exception != null;
+				if (credits == 0 || stopped || exhausted) {
+					sending = false;
+					if (inFlight == 0 && (stopped || exhausted)) {
+						latch.countDown();
+					}
+					return;
+				}
+				credits--;
+				idx = chunks;
+			}
+
+			List<E> chunk = new ArrayList<E>(
+					CollectionPipedStore.MAX_PIPED_ITEM_COUNT);
+			boolean more;
+			try {
+				while (chunk.size() < CollectionPipedStore.MAX_PIPED_ITEM_COUNT
+						&& elements.hasNext()) {
+					chunk.add(elements.next());
+				}
+				more = elements.hasNext();
+			} catch (RuntimeException e) {
+				// The iterator of the caller failed.  Stop here and let the
+				// future throw it.
+				getLogger().warn("Failed to get the elements of " + key, e);
+				exception = e;
+				continue;
+			}
+			synchronized (this) {
+				exhausted = !more;
+				if (chunk.isEmpty()) {
+					continue;
+				}
+				chunks++;
+				inFlight++;
+			}
+
+			ChunkCallback cb = new ChunkCallback(idx);
+			try {
+				cb.op = client.opFact.collectionPipedStore(key,
+						creator.create(chunk, idx), cb);
+				pending.add(cb.op);
+				client.addOp(key, cb.op);
+			} catch (RuntimeException e) {
+				// e.g. the input queue of the node is full.
+				getLogger().warn("Failed to send piped store of " + key, e);
+				if (cb.op != null) {
+					pending.remove(cb.op);
+				}
+				exception = e;
+				synchronized (this) {
+					inFlight--;
+				}
+			}
+		}
+	}
+
+	private class ChunkCallback implements
+			CollectionPipedStoreOperation.Callback {
+
+		private final int chunk;
+		Operation op;
+
+		ChunkCallback(int chunk) {
+			this.chunk = chunk;
+		}
+
+		public void receivedStatus(OperationStatus status) {
+			if (!status.isSuccess() && failedStatus == null) {
+				failedStatus = (status instanceof CollectionOperationStatus)
+					? (CollectionOperationStatus) status
+					: new CollectionOperationStatus(status);
+			}
+		}
+
+		public void gotStatus(Integer index, OperationStatus status) {
+			failed.put(index + chunk * CollectionPipedStore.MAX_PIPED_ITEM_COUNT,
+					(status instanceof CollectionOperationStatus)
+						? (CollectionOperationStatus) status
+						: new CollectionOperationStatus(status));
+		}
+
+		public void complete() {
+			if (op != null) {
+				pending.remove(op);
+				if (op.isCancelled()) {
+					cancelled = true;
+				} else if (op.hasErrored()) {
+					exception = op.getException();
+				}
+			}
+			synchronized (CollectionPipedStoreStream.this) {
+				inFlight--;
+				completed++;
+			}
+			send(1);
+		}
+	}
+}
@@ -176,7 +176,8 @@ public interface ConnectionFactory {
 	int getBulkServiceThreadCount();
 	
 	/**
-	 * Bulk service loop limit
+	 * Bulk service loop limit, the max number of bulk operations
+	 * in flight per node
 	 */
 	int getBulkServiceLoopLimit();
 	
@@ -189,6 +190,16 @@ public interface ConnectionFactory {
 	 * get max smget key chunk size
 	 */
 	int getDefaultMaxSMGetKeyChunkSize();
+
+	/**
+	 * get max number of keys in a single get command
+	 */
+	int getMaxGetKeyChunkSize();
+
+	/**
+	 * get max number of key bytes in a single get command
+	 */
+	int getMaxGetKeyChunkBytes();
 	
 	/**
 	 * get front cache name
@@ -16,9 +16,11 @@
  */
 package net.spy.memcached;
 
+import java.net.SocketAddress;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 
 import net.spy.memcached.auth.AuthDescriptor;
@@ -27,6 +29,7 @@ import net.spy.memcached.ops.OperationQueueFactory;
 import net.spy.memcached.protocol.ascii.AsciiOperationFactory;
 import net.spy.memcached.protocol.binary.BinaryOperationFactory;
 import net.spy.memcached.transcoders.Transcoder;
+import net.spy.memcached.util.ArcusKetamaNodeLocatorConfiguration;
 
 /**
  * Builder for more easily configuring a ConnectionFactory.
@@ -58,6 +61,10 @@ public class ConnectionFactoryBuilder {
 	
 	private int readBufSize = -1;
 	private HashAlgorithm hashAlg = HashAlgorithm.KETAMA_HASH;
+	private boolean hashTag = false;
+	private boolean nodeWeightEnabled = false;
+	private Map<SocketAddress, Integer> nodeWeights =
+		Collections.emptyMap();
 	private AuthDescriptor authDescriptor = null;
 	private long opQueueMaxBlockTime = -1;
 
@@ -67,11 +74,15 @@ public class ConnectionFactoryBuilder {
 	private int maxFrontCacheElements = DefaultConnectionFactory.DEFAULT_MAX_FRONTCACHE_ELEMENTS;
 	private int frontCacheExpireTime = DefaultConnectionFactory.DEFAULT_FRONTCACHE_EXPIRETIME;
 	
+	@SuppressWarnings("deprecation")
 	private int bulkServiceThreadCount = DefaultConnectionFactory.DEFAULT_BULKSERVICE_THREAD_COUNT;
 	private int bulkServiceLoopLimit = DefaultConnectionFactory.DEFAULT_BULKSERVICE_LOOP_LIMIT;
 	private long bulkServiceSingleOpTimeout = DefaultConnectionFactory.DEFAULT_BULKSERVICE_SINGLE_OP_TIMEOUT;
 	
 	private int maxSMGetChunkSize = DefaultConnectionFactory.DEFAULT_MAX_SMGET_KEY_CHUNK_SIZE;
+
+	private int maxGetKeyChunkSize = DefaultConnectionFactory.DEFAULT_MAX_GET_KEY_CHUNK_SIZE;
+	private int maxGetKeyChunkBytes = DefaultConnectionFactory.DEFAULT_MAX_GET_KEY_CHUNK_BYTES;
 	
 	private String frontCacheName = "ArcusFrontCache_" + this.hashCode();
 	
@@ -172,6 +183,10 @@ public class ConnectionFactoryBuilder {
 
 	/**
 	 * Set to false if the default operation optimization is not desirable.
+	 *
+	 * The optimization folds sequential gets on a node into a multi-key get
+	 * and sequential single element collection operations (bop/sop/lop
+	 * insert, bop delete and bop update) into a piped command.
 	 */
 	public ConnectionFactoryBuilder setShouldOptimize(boolean o) {
 		shouldOptimize = o;
@@ -218,6 +233,42 @@ public class ConnectionFactoryBuilder {
 		return this;
 	}
 
+	/**
+	 * Hash only the tag enclosed in '{' and '}' of the keys to place them,
+	 * so that the keys with the same tag are stored in the same node.
+	 * This is applied to the ARCUSCONSISTENT locator only.
+	 */
+	public ConnectionFactoryBuilder setHashTag(boolean to) {
+		hashTag = to;
+		return this;
+	}
+
+	/**
+	 * Read the weights of the cache nodes from the data of their znodes
+	 * in the cache list, and give each node as many points in the hash
+	 * as its weight times the default.  The data of a znode should be
+	 * the weight in decimal, from 1 to
+	 * {@link ArcusKetamaNodeLocatorConfiguration#MAX_NODE_WEIGHT}.
+	 * The nodes without it have weight 1.
+	 * This is applied to the ARCUSCONSISTENT locator only.
+	 */
+	public ConnectionFactoryBuilder setNodeWeightEnabled(boolean to) {
+		nodeWeightEnabled = to;
+		return this;
+	}
+
+	boolean isNodeWeightEnabled() {
+		return nodeWeightEnabled;
+	}
+
+	/**
+	 * Set the weights of the nodes the locators are created with.
+	 */
+	ConnectionFactoryBuilder setNodeWeights(Map<SocketAddress, Integer> to) {
+		nodeWeights = to;
+		return this;
+	}
+
 	/**
 	 * Set the locator type.
 	 */
@@ -274,7 +325,9 @@ public class ConnectionFactoryBuilder {
 	
 	/**
 	 * Set bulk service default thread count 
+	 * @deprecated the bulk service doesn't use threads any more
 	 */
+	@Deprecated
 	public ConnectionFactoryBuilder setBulkServiceThreadCount(int to) {
 		assert to > 0 : "Bulk service's thread count must be a positive number";
 		bulkServiceThreadCount = to;
@@ -282,7 +335,8 @@ public class ConnectionFactoryBuilder {
 	}
 	
 	/**
-	 * Set bulk service loop limit count 
+	 * Set bulk service loop limit count,
+	 * the max number of bulk operations in flight per node
 	 */
 	public ConnectionFactoryBuilder setBulkServiceLoopLimit(int to) {
 		assert to > 0 : "Bulk service's loop limit must be a positive number";
@@ -306,6 +360,26 @@ public class ConnectionFactoryBuilder {
 		maxSMGetChunkSize = size;
 		return this;
 	}
+
+	/**
+	 * Set max number of keys in a single get command.
+	 * Bulk gets with more keys for a node are split into several gets.
+	 */
+	public ConnectionFactoryBuilder setMaxGetKeyChunkSize(int size) {
+		assert size > 0 : "Max get key chunk size must be a positive number";
+		maxGetKeyChunkSize = size;
+		return this;
+	}
+
+	/**
+	 * Set max number of key bytes in a single get command.
+	 * Bulk gets with longer key lines for a node are split into several gets.
+	 */
+	public ConnectionFactoryBuilder setMaxGetKeyChunkBytes(int bytes) {
+		assert bytes > 0 : "Max get key chunk bytes must be a positive number";
+		maxGetKeyChunkBytes = bytes;
+		return this;
+	}
 	
 	/**
 	 * Get the ConnectionFactory set up with the provided parameters.
@@ -341,7 +415,11 @@ public class ConnectionFactoryBuilder {
 					case CONSISTENT:
 						return new KetamaNodeLocator(nodes, getHashAlg());
 					case ARCUSCONSISTENT:
-						return new ArcusKetamaNodeLocator(nodes, getHashAlg());
+						ArcusKetamaNodeLocatorConfiguration conf =
+							new ArcusKetamaNodeLocatorConfiguration();
+						conf.setHashTag(hashTag);
+						conf.setNodeWeights(nodeWeights);
+						return new ArcusKetamaNodeLocator(nodes, getHashAlg(), conf);
 					default: throw new IllegalStateException(
 							"Unhandled locator type: " + locator);
 				}
@@ -457,6 +535,16 @@ public class ConnectionFactoryBuilder {
 			public int getDefaultMaxSMGetKeyChunkSize() {
 				return maxSMGetChunkSize;
 			}
+
+			@Override
+			public int getMaxGetKeyChunkSize() {
+				return maxGetKeyChunkSize;
+			}
+
+			@Override
+			public int getMaxGetKeyChunkBytes() {
+				return maxGetKeyChunkBytes;
+			}
 			
 			@Override
 			public String getFrontCacheName() {
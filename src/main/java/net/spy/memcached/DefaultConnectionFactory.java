@@ -112,13 +112,16 @@ public class DefaultConnectionFactory extends SpyObject
 
     /**
      * Default bulk service thread count
+     * @deprecated the bulk service doesn't use threads any more
      */
+    @Deprecated
     public static final int DEFAULT_BULKSERVICE_THREAD_COUNT = 1;
     
     /**
-     * Default bulk service loop limit
+     * Default bulk service loop limit,
+     * the max number of bulk operations in flight per node
      */
-    public static final int DEFAULT_BULKSERVICE_LOOP_LIMIT = 1;
+    public static final int DEFAULT_BULKSERVICE_LOOP_LIMIT = 500;
     
     /**
      * Default bulk service single operation timeout
@@ -129,6 +132,16 @@ public class DefaultConnectionFactory extends SpyObject
      * Max smget key chunk size per request
      */
     public static final int DEFAULT_MAX_SMGET_KEY_CHUNK_SIZE = 500;
+
+    /**
+     * Max number of keys in a single get command
+     */
+    public static final int DEFAULT_MAX_GET_KEY_CHUNK_SIZE = 500;
+
+    /**
+     * Max number of key bytes in a single get command
+     */
+    public static final int DEFAULT_MAX_GET_KEY_CHUNK_BYTES = 16384;
     
     /**
      * Default front cache name
@@ -177,7 +190,9 @@ public class DefaultConnectionFactory extends SpyObject
 				createReadOperationQueue(),
 				createWriteOperationQueue(),
 				createOperationQueue(),
-				getOpQueueMaxBlockTime());
+				getOpQueueMaxBlockTime(),
+				getMaxGetKeyChunkSize(),
+				getMaxGetKeyChunkBytes());
 		} else if(of instanceof BinaryOperationFactory) {
 			boolean doAuth = false;
 			if (getAuthDescriptor() != null) {
@@ -395,6 +410,24 @@ public class DefaultConnectionFactory extends SpyObject
 	public int getDefaultMaxSMGetKeyChunkSize() { 
 		return DEFAULT_MAX_SMGET_KEY_CHUNK_SIZE;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ConnectionFactory#getMaxGetKeyChunkSize()
+	 */
+	@Override
+	public int getMaxGetKeyChunkSize() {
+		return DEFAULT_MAX_GET_KEY_CHUNK_SIZE;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see net.spy.memcached.ConnectionFactory#getMaxGetKeyChunkBytes()
+	 */
+	@Override
+	public int getMaxGetKeyChunkBytes() {
+		return DEFAULT_MAX_GET_KEY_CHUNK_BYTES;
+	}
 	
 	/*
 	 * (non-Javadoc)
@@ -1,5 +1,6 @@
 package net.spy.memcached;
 
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.zip.CRC32;
@@ -64,6 +65,18 @@ public enum HashAlgorithm {
 		}
 	}
 
+	/**
+	 * Per-thread md5 digest and buffers, so that hashing a key for
+	 * KETAMA_HASH neither clones the digest nor allocates.
+	 */
+	private static final ThreadLocal<Md5Buffer> MD5_BUFFER =
+		new ThreadLocal<Md5Buffer>() {
+			@Override
+			protected Md5Buffer initialValue() {
+				return new Md5Buffer();
+			}
+		};
+
 	/**
 	 * Compute the hash for the given key.
 	 *
@@ -119,7 +132,7 @@ public enum HashAlgorithm {
 				}
 				break;
 			case KETAMA_HASH:
-				byte[] bKey=computeMd5(k);
+				byte[] bKey=MD5_BUFFER.get().digest(k);
 				rv = ((long) (bKey[3] & 0xFF) << 24)
 						| ((long) (bKey[2] & 0xFF) << 16)
 						| ((long) (bKey[1] & 0xFF) << 8)
@@ -135,13 +148,53 @@ public enum HashAlgorithm {
 	 * Get the md5 of the given key.
 	 */
 	public static byte[] computeMd5(String k) {
-		MessageDigest md5;
-		try {
-			md5 = (MessageDigest)MD5_DIGEST.clone();
-		} catch (CloneNotSupportedException e) {
-			throw new RuntimeException("clone of MD5 not supported", e);
+		return MD5_BUFFER.get().digest(k).clone();
+	}
+
+	private static final class Md5Buffer {
+
+		private final MessageDigest md5;
+		private final byte[] digest = new byte[16];
+		private byte[] keyBuffer = new byte[256];
+
+		Md5Buffer() {
+			try {
+				md5 = (MessageDigest)MD5_DIGEST.clone();
+			} catch (CloneNotSupportedException e) {
+				throw new RuntimeException("clone of MD5 not supported", e);
+			}
+		}
+
+		/**
+		 * Get the md5 of the given key in the UTF-8 encoding.
+		 * The returned array is reused by the next call on this thread.
+		 */
+		byte[] digest(String k) {
+			int len = k.length();
+			if (keyBuffer.length < len) {
+				keyBuffer = new byte[Math.max(len, keyBuffer.length * 2)];
+			}
+			// ascii keys are encoded in place, others fall back to
+			// the regular encoder.
+			for (int i = 0; i < len; i++) {
+				char c = k.charAt(i);
+				if (c >= 0x80) {
+					md5.update(KeyUtil.getKeyBytes(k));
+					return finish();
+				}
+				keyBuffer[i] = (byte)c;
+			}
+			md5.update(keyBuffer, 0, len);
+			return finish();
+		}
+
+		private byte[] finish() {
+			try {
+				md5.digest(digest, 0, digest.length);
+			} catch (DigestException e) {
+				throw new RuntimeException("Failed to compute MD5", e);
+			}
+			return digest;
 		}
-		md5.update(KeyUtil.getKeyBytes(k));
-		return md5.digest();
 	}
 }
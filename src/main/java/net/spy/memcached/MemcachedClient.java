@@ -27,7 +27,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +41,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -46,7 +49,9 @@ import net.spy.memcached.auth.AuthDescriptor;
 import net.spy.memcached.auth.AuthThreadMonitor;
 import net.spy.memcached.compat.SpyThread;
 import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetCallbackFuture;
 import net.spy.memcached.internal.BulkGetFuture;
+import net.spy.memcached.internal.BulkGetsFuture;
 import net.spy.memcached.internal.GetFuture;
 import net.spy.memcached.internal.OperationFuture;
 import net.spy.memcached.internal.SingleElementInfiniteIterator;
@@ -135,6 +140,26 @@ public class MemcachedClient extends SpyThread
 
 	final AuthDescriptor authDescriptor;
 
+	private final int maxGetKeyChunkSize;
+	private final int maxGetKeyChunkBytes;
+
+	// create the operations of the chunks of bulk gets
+	private final GetBulkOperationCreator<GetOperation.Callback> getCreator=
+		new GetBulkOperationCreator<GetOperation.Callback>() {
+			public Operation create(Collection<String> keys,
+					boolean useMGet, GetOperation.Callback cb) {
+				return useMGet ? opFact.mget(keys, cb) : opFact.get(keys, cb);
+			}
+		};
+
+	private final GetBulkOperationCreator<GetsOperation.Callback> getsCreator=
+		new GetBulkOperationCreator<GetsOperation.Callback>() {
+			public Operation create(Collection<String> keys,
+					boolean useMGet, GetsOperation.Callback cb) {
+				return opFact.gets(keys, cb);
+			}
+		};
+
 	private final AuthThreadMonitor authMonitor = new AuthThreadMonitor();
 
 	/**
@@ -189,6 +214,8 @@ public class MemcachedClient extends SpyThread
 		assert conn != null : "Connection factory failed to make a connection";
 		operationTimeout = cf.getOperationTimeout();
 		authDescriptor = cf.getAuthDescriptor();
+		maxGetKeyChunkSize = cf.getMaxGetKeyChunkSize();
+		maxGetKeyChunkBytes = cf.getMaxGetKeyChunkBytes();
 		if(authDescriptor != null) {
 			addObserver(this);
 		}
@@ -298,6 +325,49 @@ public class MemcachedClient extends SpyThread
 		return op;
 	}
 
+	/**
+	 * Add an operation to the given batch, or send it if there's no batch.
+	 */
+	protected Operation addOp(final String key, final Operation op,
+			OperationBatch batch) {
+		if (batch == null) {
+			return addOp(key, op);
+		}
+		validateKey(key);
+		batch.add(key, op);
+		return op;
+	}
+
+	/**
+	 * Send the operations grouped by node, so that the operations of a node
+	 * are added to its queue at once with a single wakeup.  The node of
+	 * each operation is chosen by the failure mode as in addOp.
+	 *
+	 * @param keys the key of each operation
+	 * @param ops the operations
+	 */
+	protected void addOperations(List<String> keys, List<Operation> ops) {
+		checkState();
+		Map<MemcachedNode, List<Operation>> byNode =
+			new LinkedHashMap<MemcachedNode, List<Operation>>();
+		for (int i = 0; i < ops.size(); i++) {
+			MemcachedNode node = conn.placeOperation(keys.get(i), ops.get(i));
+			if (node == null) {
+				// cancelled by the failure mode
+				continue;
+			}
+			List<Operation> nodeOps = byNode.get(node);
+			if (nodeOps == null) {
+				nodeOps = new ArrayList<Operation>();
+				byNode.put(node, nodeOps);
+			}
+			nodeOps.add(ops.get(i));
+		}
+		for (Map.Entry<MemcachedNode, List<Operation>> me : byNode.entrySet()) {
+			conn.addOperations(me.getKey(), me.getValue());
+		}
+	}
+
 	protected CountDownLatch broadcastOp(final BroadcastOpFactory of) {
 		return broadcastOp(of, conn.getLocator().getAll(), true);
 	}
@@ -318,6 +388,11 @@ public class MemcachedClient extends SpyThread
 	
 	private <T> Future<Boolean> asyncStore(StoreType storeType, String key,
 						   int exp, T value, Transcoder<T> tc) {
+		return asyncStore(storeType, key, exp, value, tc, null);
+	}
+
+	protected <T> Future<Boolean> asyncStore(StoreType storeType, String key,
+			int exp, T value, Transcoder<T> tc, OperationBatch batch) {
 		CachedData co=tc.encode(value);
 		final CountDownLatch latch=new CountDownLatch(1);
 		final OperationFuture<Boolean> rv=new OperationFuture<Boolean>(latch,
@@ -331,7 +406,7 @@ public class MemcachedClient extends SpyThread
 						latch.countDown();
 					}});
 		rv.setOperation(op);
-		addOp(key, op);
+		addOp(key, op, batch);
 		return rv;
 	}
 
@@ -795,7 +870,11 @@ public class MemcachedClient extends SpyThread
 	 *         is too full to accept any more requests
 	 */
 	public <T> Future<T> asyncGet(final String key, final Transcoder<T> tc) {
+		return asyncGet(key, tc, null);
+	}
 
+	protected <T> Future<T> asyncGet(final String key,
+			final Transcoder<T> tc, OperationBatch batch) {
 		final CountDownLatch latch=new CountDownLatch(1);
 		final GetFuture<T> rv=new GetFuture<T>(latch, operationTimeout);
 
@@ -818,7 +897,7 @@ public class MemcachedClient extends SpyThread
 				latch.countDown();
 			}});
 		rv.setOperation(op);
-		addOp(key, op);
+		addOp(key, op, batch);
 		return rv;
 	}
 
@@ -885,6 +964,74 @@ public class MemcachedClient extends SpyThread
 		return asyncGets(key, transcoder);
 	}
 
+	/**
+	 * Gets (with CAS support) a bunch of objects asynchronously.
+	 *
+	 * The keys are grouped by node, and the keys of each node are sent
+	 * in gets commands of limited size, the same way as in
+	 * {@link #asyncGetBulk(Collection, Transcoder)}.  The future also
+	 * works the same way: get() waits until all the commands complete,
+	 * and getSome() gives the values read before the timeout.
+	 *
+	 * @param <T>
+	 * @param keys the keys to request
+	 * @param tc the transcoder to serialize and unserialize values
+	 * @return a future that will hold the value and CAS id of each key found
+	 * @throws IllegalStateException in the rare circumstance where queue
+	 *         is too full to accept any more requests
+	 */
+	public <T> BulkFuture<Map<String, CASValue<T>>> asyncGetsBulk(
+			Collection<String> keys, final Transcoder<T> tc) {
+		final Map<String, CASValue<T>> m=
+			new ConcurrentHashMap<String, CASValue<T>>();
+
+		final List<String> keyList=new ArrayList<String>(keys.size());
+		for(String key : keys) {
+			validateKey(key);
+			keyList.add(key);
+		}
+
+		// There is no mget for gets, so the keys are sent in gets commands.
+		final Map<MemcachedNode, List<Collection<String>>> splitChunks=
+			splitGetBulkKeys(keyList, null);
+		final CountDownLatch latch=new CountDownLatch(
+				countGetBulkOperations(splitChunks));
+
+		GetsOperation.Callback cb=new GetsOperation.Callback() {
+				@SuppressWarnings("synthetic-access")
+				public void receivedStatus(OperationStatus status) {
+					if(!status.isSuccess()) {
+						getLogger().warn("Unsuccessful gets:  %s", status);
+					}
+				}
+				public void gotData(String k, int flags, long cas, byte[] data) {
+					m.put(k, new CASValue<T>(cas, tc.decode(
+						new CachedData(flags, data, tc.getMaxSize()))));
+				}
+				public void complete() {
+					latch.countDown();
+				}
+		};
+
+		final Collection<Operation> ops=
+			addGetBulkOperations(splitChunks, null, getsCreator, cb);
+		return new BulkGetsFuture<T>(m, ops, latch);
+	}
+
+	/**
+	 * Gets (with CAS support) a bunch of objects asynchronously and decode
+	 * using the default transcoder.
+	 *
+	 * @param keys the keys to request
+	 * @return a future that will hold the value and CAS id of each key found
+	 * @throws IllegalStateException in the rare circumstance where queue
+	 *         is too full to accept any more requests
+	 */
+	public BulkFuture<Map<String, CASValue<Object>>> asyncGetsBulk(
+			Collection<String> keys) {
+		return asyncGetsBulk(keys, transcoder);
+	}
+
 	/**
 	 * Gets (with CAS support) with a single key.
 	 *
@@ -990,10 +1137,7 @@ public class MemcachedClient extends SpyThread
 		// used only to read the transcoder for a key.
 		final Map<String, Transcoder<T>> tc_map = new HashMap<String, Transcoder<T>>();
 
-		// Break the gets down into groups by key
-		final Map<MemcachedNode, Collection<String>> chunks
-			=new HashMap<MemcachedNode, Collection<String>>();
-		final NodeLocator locator=conn.getLocator();
+		final List<String> keyList=new ArrayList<String>(keys.size());
 		Iterator<String> key_iter=keys.iterator();
 		while (key_iter.hasNext() && tc_iter.hasNext()) {
 			String key=key_iter.next();
@@ -1011,33 +1155,14 @@ public class MemcachedClient extends SpyThread
 			
 			tc_map.put(key, tc);
 			validateKey(key);
-			final MemcachedNode primaryNode=locator.getPrimary(key);
-			MemcachedNode node=null;
-			if(primaryNode.isActive()) {
-				node=primaryNode;
-			} else {
-				for(Iterator<MemcachedNode> i=locator.getSequence(key);
-					node == null && i.hasNext();) {
-					MemcachedNode n=i.next();
-					if(n.isActive()) {
-						node=n;
-					}
-				}
-				if(node == null) {
-					node=primaryNode;
-				}
-			}
-			assert node != null : "Didn't find a node for " + key;
-			Collection<String> ks=chunks.get(node);
-			if(ks == null) {
-				ks=new ArrayList<String>();
-				chunks.put(node, ks);
-			}
-			ks.add(key);
+			keyList.add(key);
 		}
 
-		final CountDownLatch latch=new CountDownLatch(chunks.size());
-		final Collection<Operation> ops=new ArrayList<Operation>(chunks.size());
+		final Set<MemcachedNode> mgetNodes=new HashSet<MemcachedNode>();
+		final Map<MemcachedNode, List<Collection<String>>> splitChunks=
+			splitGetBulkKeys(keyList, mgetNodes);
+		final int opCount=countGetBulkOperations(splitChunks);
+		final CountDownLatch latch=new CountDownLatch(opCount);
 
 		GetOperation.Callback cb=new GetOperation.Callback() {
 				@SuppressWarnings("synthetic-access")
@@ -1056,21 +1181,113 @@ public class MemcachedClient extends SpyThread
 				}
 		};
 
-		// Now that we know how many servers it breaks down into, and the latch
-		// is all set up, convert all of these strings collections to operations
-		final Map<MemcachedNode, Operation> mops=
-			new HashMap<MemcachedNode, Operation>();
+		final Collection<Operation> ops=
+			addGetBulkOperations(splitChunks, mgetNodes, getCreator, cb);
+		assert ops.size() == opCount;
+		return new BulkGetFuture<T>(m, ops, latch, localCacheManager);
+	}
+
+	/**
+	 * Break the keys of a bulk get down into groups by node, and split the
+	 * keys of each node into get commands of limited size.
+	 *
+	 * Keys that don't fit in a single get command are sent with mget
+	 * instead if the server supports it, as mget sends the keys in
+	 * a data block and so is not limited by the line length.
+	 * The nodes to send mget to are added to mgetNodes, or mget is not
+	 * used if mgetNodes is null.
+	 */
+	private Map<MemcachedNode, List<Collection<String>>> splitGetBulkKeys(
+			List<String> keyList, Set<MemcachedNode> mgetNodes) {
+		final Map<MemcachedNode, List<Collection<String>>> splitChunks
+			=new HashMap<MemcachedNode, List<Collection<String>>>();
+		for(Map.Entry<MemcachedNode, List<List<String>>> me
+				: conn.groupKeysByNode(keyList, Integer.MAX_VALUE).entrySet()) {
+			Collection<String> keys=me.getValue().get(0);
+			List<Collection<String>> split=splitGetKeys(keys,
+					maxGetKeyChunkSize, maxGetKeyChunkBytes);
+			if(mgetNodes != null && split.size() > 1
+					&& me.getKey().enabledMGetOp()) {
+				split=splitGetKeys(keys, maxGetKeyChunkSize, Integer.MAX_VALUE);
+				mgetNodes.add(me.getKey());
+			}
+			splitChunks.put(me.getKey(), split);
+		}
+		return splitChunks;
+	}
+
+	private int countGetBulkOperations(
+			Map<MemcachedNode, List<Collection<String>>> splitChunks) {
+		int opCount=0;
+		for(List<Collection<String>> split : splitChunks.values()) {
+			opCount += split.size();
+		}
+		return opCount;
+	}
+
+	/**
+	 * Creates the operation for a chunk of keys of a bulk get.
+	 */
+	private interface GetBulkOperationCreator<C extends OperationCallback> {
+		Operation create(Collection<String> keys, boolean useMGet, C cb);
+	}
+
+	/**
+	 * Convert the split keys of a bulk get to operations and send them.
+	 * Each operation calls complete() of the callback on its own, so the
+	 * results of a chunk are available as soon as it completes.
+	 */
+	private <C extends OperationCallback> Collection<Operation>
+			addGetBulkOperations(
+			Map<MemcachedNode, List<Collection<String>>> splitChunks,
+			Set<MemcachedNode> mgetNodes, GetBulkOperationCreator<C> creator,
+			C cb) {
+		final Collection<Operation> ops=new ArrayList<Operation>();
+		final Map<MemcachedNode, List<Operation>> mops=
+			new HashMap<MemcachedNode, List<Operation>>();
 
-		for(Map.Entry<MemcachedNode, Collection<String>> me
-				: chunks.entrySet()) {
-			Operation op=opFact.get(me.getValue(), cb);
-			mops.put(me.getKey(), op);
-			ops.add(op);
+		for(Map.Entry<MemcachedNode, List<Collection<String>>> me
+				: splitChunks.entrySet()) {
+			List<Operation> nodeOps=new ArrayList<Operation>(me.getValue().size());
+			boolean useMGet=mgetNodes != null && mgetNodes.contains(me.getKey());
+			for(Collection<String> ks : me.getValue()) {
+				Operation op=creator.create(ks, useMGet, cb);
+				nodeOps.add(op);
+				ops.add(op);
+			}
+			mops.put(me.getKey(), nodeOps);
 		}
-		assert mops.size() == chunks.size();
 		checkState();
-		conn.addOperations(mops);
-		return new BulkGetFuture<T>(m, ops, latch, localCacheManager);
+		for(Map.Entry<MemcachedNode, List<Operation>> me : mops.entrySet()) {
+			conn.addOperations(me.getKey(), me.getValue());
+		}
+		return ops;
+	}
+
+	/**
+	 * Split the keys for a node into chunks that do not exceed the maximum
+	 * number of keys and key bytes of a single get command.
+	 */
+	static List<Collection<String>> splitGetKeys(Collection<String> keys,
+			int maxKeys, int maxBytes) {
+		List<Collection<String>> rv=new ArrayList<Collection<String>>();
+		Collection<String> chunk=new ArrayList<String>();
+		int chunkBytes=0;
+		for(String key : keys) {
+			int keyBytes=KeyUtil.getKeyBytes(key).length + 1;
+			if(!chunk.isEmpty() && (chunk.size() >= maxKeys
+					|| chunkBytes + keyBytes > maxBytes)) {
+				rv.add(chunk);
+				chunk=new ArrayList<String>();
+				chunkBytes=0;
+			}
+			chunk.add(key);
+			chunkBytes += keyBytes;
+		}
+		if(!chunk.isEmpty()) {
+			rv.add(chunk);
+		}
+		return rv;
 	}
 
 	/**
@@ -1128,6 +1345,76 @@ public class MemcachedClient extends SpyThread
 		return asyncGetBulk(Arrays.asList(keys), transcoder);
 	}
 
+	/**
+	 * Asynchronously get a bunch of objects from the cache and give each
+	 * value found to the callback as the responses are read.
+	 *
+	 * Unlike {@link #asyncGetBulk(Collection, Transcoder)}, no future or
+	 * map entry is created per key. The values are decoded in the IO
+	 * thread, so this is meant for small values. Use {@link BulkGetResult}
+	 * as the callback to keep the values in the order of the keys.
+	 *
+	 * @param <T>
+	 * @param keys the keys to request
+	 * @param tc the transcoder to unserialize values
+	 * @param cb the callback to receive the values
+	 * @return a Future of the number of values found
+	 * @throws IllegalStateException in the rare circumstance where queue
+	 *         is too full to accept any more requests
+	 */
+	public <T> BulkFuture<Integer> asyncGetBulk(Collection<String> keys,
+			final Transcoder<T> tc, final BulkGetCallback<T> cb) {
+		final AtomicInteger found=new AtomicInteger(0);
+		final List<String> keyList=new ArrayList<String>(keys.size());
+		for(String key : keys) {
+			if (localCacheManager != null) {
+				T cachedData = localCacheManager.get(key, tc);
+				if (cachedData != null) {
+					found.incrementAndGet();
+					cb.gotData(key, cachedData);
+					continue;
+				}
+			}
+			validateKey(key);
+			keyList.add(key);
+		}
+
+		final Set<MemcachedNode> mgetNodes=new HashSet<MemcachedNode>();
+		final Map<MemcachedNode, List<Collection<String>>> splitChunks=
+			splitGetBulkKeys(keyList, mgetNodes);
+		final CountDownLatch latch=new CountDownLatch(
+				countGetBulkOperations(splitChunks));
+
+		GetOperation.Callback getCb=new GetOperation.Callback() {
+				@SuppressWarnings("synthetic-access")
+				public void receivedStatus(OperationStatus status) {
+					if(!status.isSuccess()) {
+						getLogger().warn("Unsuccessful get:  %s", status);
+					}
+				}
+				@SuppressWarnings("synthetic-access")
+				public void gotData(String k, int flags, byte[] data) {
+					T val=tc.decode(new CachedData(flags, data, tc.getMaxSize()));
+					if (localCacheManager != null) {
+						localCacheManager.put(k, val);
+					}
+					found.incrementAndGet();
+					try {
+						cb.gotData(k, val);
+					} catch (RuntimeException e) {
+						getLogger().warn("Bulk get callback failed for " + k, e);
+					}
+				}
+				public void complete() {
+					latch.countDown();
+				}
+		};
+
+		final Collection<Operation> ops=
+			addGetBulkOperations(splitChunks, mgetNodes, getCreator, getCb);
+		return new BulkGetCallbackFuture(ops, latch, found);
+	}
+
 	/**
 	 * Get the values for multiple keys from the cache.
 	 *
@@ -1394,28 +1681,81 @@ public class MemcachedClient extends SpyThread
 
 	private long mutateWithDefault(Mutator t, String key,
 			int by, long def, int exp) {
-		long rv=mutate(t, key, by, def, exp);
-		// The ascii protocol doesn't support defaults, so I added them
-		// manually here.
-		if(rv == -1) {
-			Future<Boolean> f=asyncStore(StoreType.add,
-					key, exp, String.valueOf(def));
-			try {
-				if(f.get(operationTimeout, TimeUnit.MILLISECONDS)) {
-					rv=def;
+		try {
+			return asyncMutateWithDefault(t, key, by, def, exp).get(
+					operationTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			throw new RuntimeException("Interrupted waiting for mutate", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Failed waiting for mutate", e);
+		} catch (TimeoutException e) {
+			throw new OperationTimeoutException(
+				"Timeout waiting to mutate or init value", e);
+		}
+	}
+
+	/**
+	 * Mutate a counter, adding it with the default value if it doesn't
+	 * exist.
+	 *
+	 * The mutation carries the default value, so the server creates the
+	 * counter itself if it supports that.  Otherwise the add and then the
+	 * second mutation are sent from the callback of the previous step, so
+	 * the caller never waits in between.  The future and its single
+	 * operation timeout cover all the steps.
+	 */
+	private Future<Long> asyncMutateWithDefault(final Mutator m,
+			final String key, final int by, final long def, final int exp) {
+		final CountDownLatch latch=new CountDownLatch(1);
+		final OperationFuture<Long> rv=new OperationFuture<Long>(latch,
+				operationTimeout);
+		final CachedData co=transcoder.encode(String.valueOf(def));
+		OperationCallback cb=new OperationCallback() {
+			// 0: mutate, 1: add the default, 2: mutate the added counter
+			private int step=0;
+			private boolean next=false;
+
+			public void receivedStatus(OperationStatus s) {
+				if(step == 1) {
+					if(s.isSuccess()) {
+						rv.set(def);
+					} else {
+						// someone else has added it in the meantime.
+						next=!(s instanceof CancelledOperationStatus);
+					}
+				} else if(s.isSuccess()) {
+					rv.set(new Long(s.getMessage()));
 				} else {
-					rv=mutate(t, key, by, 0, exp);
-					assert rv != -1 : "Failed to mutate or init value";
+					rv.set(-1L);
+					next=step == 0 && "NOT_FOUND".equals(s.getMessage());
 				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException("Interrupted waiting for store", e);
-			} catch (ExecutionException e) {
-				throw new RuntimeException("Failed waiting for store", e);
-			} catch (TimeoutException e) {
-				throw new OperationTimeoutException(
-					"Timeout waiting to mutate or init value", e);
 			}
-		}
+
+			@SuppressWarnings("synthetic-access")
+			public void complete() {
+				if(!next) {
+					latch.countDown();
+					return;
+				}
+				next=false;
+				step++;
+				Operation op=step == 1
+					? opFact.store(StoreType.add, key, co.getFlags(), exp,
+							co.getData(), this)
+					: opFact.mutate(m, key, by, -1, exp, this);
+				rv.setOperation(op);
+				try {
+					addOp(key, op);
+				} catch (RuntimeException e) {
+					getLogger().warn("Failed to init counter " + key, e);
+					rv.set(-1L);
+					latch.countDown();
+				}
+			}
+		};
+		Operation op=opFact.mutate(m, key, by, def, exp, cb);
+		rv.setOperation(op);
+		addOp(key, op);
 		return rv;
 	}
 
@@ -1459,12 +1799,14 @@ public class MemcachedClient extends SpyThread
 	 * @param def the default value (if the counter does not exist)
 	 * @param exp the expiration of this object
 	 * @return a future with the incremented value, or -1 if the
-	 *		   increment failed.
+	 *		   increment failed.  If the counter has to be added, the
+	 *		   operation timeout bounds the increment, the add and the
+	 *		   retried increment together.
 	 * @throws IllegalStateException in the rare circumstance where queue
 	 *         is too full to accept any more requests
 	 */
 	public Future<Long> asyncIncr(String key, int by, long def, int exp) {
-		return asyncMutate(Mutator.incr, key, by, def, exp);
+		return asyncMutateWithDefault(Mutator.incr, key, by, def, exp);
 	}
 	
 	/**
@@ -1489,12 +1831,14 @@ public class MemcachedClient extends SpyThread
 	 * @param def the default value (if the counter does not exist)
 	 * @param exp the expiration of this object
 	 * @return a future with the decremented value, or -1 if the
-	 *		   increment failed.
+	 *		   increment failed.  If the counter has to be added, the
+	 *		   operation timeout bounds the decrement, the add and the
+	 *		   retried decrement together.
 	 * @throws IllegalStateException in the rare circumstance where queue
 	 *         is too full to accept any more requests
 	 */
 	public Future<Long> asyncDecr(String key, int by, long def, int exp) {
-		return asyncMutate(Mutator.decr, key, by, def, exp);
+		return asyncMutateWithDefault(Mutator.decr, key, by, def, exp);
 	}
 	
 	/**
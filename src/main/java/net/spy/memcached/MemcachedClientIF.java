@@ -71,6 +71,12 @@ public interface MemcachedClientIF {
 
 	Future<CASValue<Object>> asyncGets(String key);
 
+	<T> BulkFuture<Map<String, CASValue<T>>> asyncGetsBulk(
+			Collection<String> keys, Transcoder<T> tc);
+
+	BulkFuture<Map<String, CASValue<Object>>> asyncGetsBulk(
+			Collection<String> keys);
+
 	<T> CASValue<T> gets(String key, Transcoder<T> tc)
 		throws OperationTimeoutException;
 
@@ -94,6 +100,9 @@ public interface MemcachedClientIF {
 
 	BulkFuture<Map<String, Object>> asyncGetBulk(String... keys);
 
+	<T> BulkFuture<Integer> asyncGetBulk(Collection<String> keys,
+		Transcoder<T> tc, BulkGetCallback<T> cb);
+
 	<T> Map<String, T> getBulk(Collection<String> keys, Transcoder<T> tc)
 		throws OperationTimeoutException;
 
@@ -30,6 +30,7 @@ import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
@@ -41,6 +42,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -48,8 +50,10 @@ import net.spy.memcached.compat.SpyObject;
 import net.spy.memcached.compat.log.LoggerFactory;
 import net.spy.memcached.ops.KeyedOperation;
 import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
 import net.spy.memcached.ops.OperationException;
 import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.OperationStatus;
 
 /**
  * Connection to a cluster of memcached servers.
@@ -67,6 +71,7 @@ public final class MemcachedConnection extends SpyObject {
 
 	private volatile boolean shutDown=false;
 	// If true, optimization will collapse multiple sequential get ops
+	// and pipe multiple sequential collection ops
 	private final boolean shouldOptimize;
 	private Selector selector=null;
 	private final NodeLocator locator;
@@ -86,6 +91,16 @@ public final class MemcachedConnection extends SpyObject {
 	private final int timeoutExceptionThreshold;
 
 	private BlockingQueue<String> _nodeManageQueue = new LinkedBlockingQueue<String>();
+
+	// The max time to wait for the added nodes to be connected
+	// before they are added to the hash.
+	private static final long MAX_JOIN_WAIT = 5000;
+	// How often to check the connections of the added nodes.
+	private static final long JOIN_CHECK_INTERVAL = 100;
+	// The added nodes that have not been added to the hash yet.
+	private final List<MemcachedNode> joiningNodes =
+		new CopyOnWriteArrayList<MemcachedNode>();
+	private long joinDeadline = 0;
 	private final ConnectionFactory f;
 	
 	/**
@@ -166,6 +181,12 @@ public final class MemcachedConnection extends SpyObject {
 			long then=reconnectQueue.firstKey();
 			delay=Math.max(then-now, 1);
 		}
+		if(!joiningNodes.isEmpty()) {
+			long now=System.currentTimeMillis();
+			long then=Math.min(joinDeadline, now + JOIN_CHECK_INTERVAL);
+			delay=delay == 0 ? Math.max(then-now, 1)
+					: Math.min(delay, Math.max(then-now, 1));
+		}
 		getLogger().debug("Selecting with delay of %sms", delay);
 		assert selectorsMakeSense() : "Selectors don't make sense.";
 		int selected=selector.select(delay);
@@ -214,6 +235,9 @@ public final class MemcachedConnection extends SpyObject {
 
 		// Deal with the memcached server group that's been added by CacheManager.  
 		handleNodeManageQueue();
+
+		// Add the nodes that got connected to the hash.
+		joinNodes();
 		
 		if(!shutDown && !reconnectQueue.isEmpty()) {
 			attemptReconnects();
@@ -221,38 +245,147 @@ public final class MemcachedConnection extends SpyObject {
 	}
 	
 	public void updateConnections(List<InetSocketAddress> addrs) throws IOException {
-		List<MemcachedNode> attachNodes = new ArrayList<MemcachedNode>();
+		// The same address may be listed more than once,
+		// so count the occurrences of each address.
+		Map<SocketAddress, Integer> newAddrs = new HashMap<SocketAddress, Integer>();
+		for (SocketAddress sa : addrs) {
+			Integer count = newAddrs.get(sa);
+			newAddrs.put(sa, count == null ? 1 : count + 1);
+		}
 		List<MemcachedNode> removeNodes = new ArrayList<MemcachedNode>();
-		
+		List<MemcachedNode> removeJoiningNodes = new ArrayList<MemcachedNode>();
+
 		// Classify the incoming node list.
 		for (MemcachedNode node : locator.getAll()) {
-			if (addrs.contains((InetSocketAddress) node.getSocketAddress())) {
-				addrs.remove((InetSocketAddress) node.getSocketAddress());
-			} else {
+			if (!removeAddress(newAddrs, node.getSocketAddress())) {
 				removeNodes.add(node);
 			}
 		}
-		
+		for (MemcachedNode node : joiningNodes) {
+			if (!removeAddress(newAddrs, node.getSocketAddress())) {
+				removeJoiningNodes.add(node);
+			}
+		}
+
 		// Make connections to the newly added nodes.
-		for (SocketAddress sa : addrs) {
-			attachNodes.add(attachMemcachedNode(sa));
+		// They are added to the hash after they get connected.
+		if (!newAddrs.isEmpty() && joiningNodes.isEmpty()) {
+			joinDeadline = System.currentTimeMillis() + MAX_JOIN_WAIT;
+		}
+		for (Entry<SocketAddress, Integer> each : newAddrs.entrySet()) {
+			for (int i = 0; i < each.getValue(); i++) {
+				joiningNodes.add(attachMemcachedNode(each.getKey()));
+			}
 		}
 
 		// Remove unavailable nodes in the reconnect queue.
 		for (MemcachedNode node : removeNodes) {
 			getLogger().info("old memcached node removed %s", node);
-			for (Entry<Long, MemcachedNode> each : reconnectQueue.entrySet()) {
-				if (node.equals(each.getValue())) {
-					reconnectQueue.remove(each.getKey());
+			removeFromReconnectQueue(node);
+		}
+
+		// The nodes that are removed before joining the hash
+		// don't have any operations of their own.
+		for (MemcachedNode node : removeJoiningNodes) {
+			getLogger().info("joining memcached node removed %s", node);
+			joiningNodes.remove(node);
+			removeFromReconnectQueue(node);
+			node.shutdown();
+		}
+
+		// Update the hash.
+		// The weights of the nodes may have been changed even if no node
+		// has been removed.
+		locator.update(new ArrayList<MemcachedNode>(), removeNodes);
+
+		// Move the operations that were not sent to the removed nodes
+		// to the nodes that own their keys in the updated hash.
+		for (MemcachedNode node : removeNodes) {
+			Collection<Operation> ops = node.destroyWriteQueue();
+			ops.addAll(node.destroyInputQueue());
+			if (!ops.isEmpty()) {
+				getLogger().info("moving %d operations of removed node %s",
+						ops.size(), node);
+				redistributeOperations(ops);
+			}
+		}
+
+		joinNodes();
+	}
+
+	private boolean removeAddress(Map<SocketAddress, Integer> addrs,
+			SocketAddress sa) {
+		Integer count = addrs.get(sa);
+		if (count == null) {
+			return false;
+		}
+		if (count == 1) {
+			addrs.remove(sa);
+		} else {
+			addrs.put(sa, count - 1);
+		}
+		return true;
+	}
+
+	private void removeFromReconnectQueue(MemcachedNode node) {
+		for (Entry<Long, MemcachedNode> each : reconnectQueue.entrySet()) {
+			if (node.equals(each.getValue())) {
+				reconnectQueue.remove(each.getKey());
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Add the joining nodes to the hash all at once when they are all
+	 * connected (and authenticated), so that the keys don't move to the
+	 * nodes that can't serve them yet.  The nodes are added anyway when
+	 * they are not ready in MAX_JOIN_WAIT, or when there's no active node
+	 * in the hash to serve the keys in the meantime.
+	 */
+	void joinNodes() {
+		if (joiningNodes.isEmpty()) {
+			return;
+		}
+
+		boolean ready = System.currentTimeMillis() >= joinDeadline;
+		if (!ready) {
+			ready = true;
+			for (MemcachedNode node : joiningNodes) {
+				if (!node.isActive() || !node.isAuthenticated()) {
+					ready = false;
 					break;
 				}
 			}
 		}
-		
-		// Update the hash.
-		locator.update(attachNodes, removeNodes);
+		if (!ready) {
+			ready = true;
+			for (MemcachedNode node : locator.getAll()) {
+				if (node.isActive()) {
+					ready = false;
+					break;
+				}
+			}
+		}
+		if (!ready) {
+			return;
+		}
+
+		List<MemcachedNode> attachNodes = new ArrayList<MemcachedNode>(joiningNodes);
+		joiningNodes.clear();
+		for (MemcachedNode node : attachNodes) {
+			getLogger().info("new memcached node joined %s", node);
+		}
+		locator.update(attachNodes, new ArrayList<MemcachedNode>());
 	}
-	
+
+	/**
+	 * Get the nodes that are connecting to join the hash.
+	 */
+	Collection<MemcachedNode> getJoiningNodes() {
+		return joiningNodes;
+	}
+
 	MemcachedNode attachMemcachedNode(SocketAddress sa) throws IOException {
 		SocketChannel ch = SocketChannel.open();
 		ch.configureBlocking(false);
@@ -273,6 +406,9 @@ public final class MemcachedConnection extends SpyObject {
 				ops = SelectionKey.OP_CONNECT;
 			}
 			qa.setSk(ch.register(selector, ops, qa));
+			if (ops == 0) {
+				requestVersion(qa);
+			}
 			assert ch.isConnected()
 					|| qa.getSk().interestOps() == SelectionKey.OP_CONNECT 
 					: "Not connected, and not wanting to connect";
@@ -365,11 +501,32 @@ public final class MemcachedConnection extends SpyObject {
 		assert qa.getChannel().isConnected() : "Not connected.";
 		int rt = qa.getReconnectCount();
 		qa.connected();
+		requestVersion(qa);
 		for(ConnectionObserver observer : connObservers) {
 			observer.connectionEstablished(qa.getSocketAddress(), rt);
 		}
 	}
 
+	/**
+	 * Ask the server of a newly connected node for its version,
+	 * so that the node knows which commands it can handle (e.g. mget).
+	 */
+	private void requestVersion(final MemcachedNode qa) {
+		Operation op=opFact.version(new OperationCallback() {
+			public void receivedStatus(OperationStatus status) {
+				if(status.isSuccess()) {
+					qa.setVersion(status.getMessage());
+					getLogger().info("%s runs version %s",
+							qa, status.getMessage());
+				}
+			}
+			public void complete() {
+				// nothing to do
+			}
+		});
+		insertOperation(qa, op);
+	}
+
 	private void lostConnection(MemcachedNode qa) {
 		queueReconnect(qa);
 		for(ConnectionObserver observer : connObservers) {
@@ -553,17 +710,23 @@ public final class MemcachedConnection extends SpyObject {
 
 	private void redistributeOperations(Collection<Operation> ops) {
 		for(Operation op : ops) {
+			if(op.isCancelled()) {
+				// Nobody is waiting for the result any more.
+				continue;
+			}
 			if(op instanceof KeyedOperation) {
 				KeyedOperation ko = (KeyedOperation)op;
-				int added = 0;
-				for(String k : ko.getKeys()) {
-					for(Operation newop : opFact.clone(ko)) {
-						addOperation(k, newop);
-						added++;
-					}
+				// Each clone holds the key(s) it should be sent with,
+				// so it's placed by its own first key.
+				Collection<Operation> newops = opFact.clone(ko);
+				for(Operation newop : newops) {
+					addOperation(((KeyedOperation)newop).getKeys()
+							.iterator().next(), newop);
+				}
+				if(newops.isEmpty()) {
+					getLogger().warn("Couldn't redistribute %s", op);
+					op.cancel();
 				}
-				assert added > 0
-					: "Didn't add any new operations when redistributing";
 			} else {
 				// Cancel things that don't have definite targets.
 				op.cancel();
@@ -596,6 +759,9 @@ public final class MemcachedConnection extends SpyObject {
 					}
 					qa.registerChannel(ch, ch.register(selector, ops, qa));
 					assert qa.getChannel() == ch : "Channel was lost.";
+					if(ops == 0) {
+						connected(qa);
+					}
 				} else {
 					getLogger().debug(
 						"Skipping duplicate reconnect request for %s", qa);
@@ -644,6 +810,21 @@ public final class MemcachedConnection extends SpyObject {
 	 * @param o the operation
 	 */
 	public void addOperation(final String key, final Operation o) {
+		MemcachedNode placeIn=placeOperation(key, o);
+		if(placeIn != null) {
+			addOperation(placeIn, o);
+		}
+	}
+
+	/**
+	 * Find the node to add the operation of the key to, by the failure
+	 * mode.
+	 *
+	 * @param key the key the operation is operating upon
+	 * @param o the operation
+	 * @return the node, or null if the operation is cancelled instead
+	 */
+	MemcachedNode placeOperation(final String key, final Operation o) {
 		MemcachedNode placeIn=null;
 		MemcachedNode primary = locator.getPrimary(key);
 		if(primary.isActive() || failureMode == FailureMode.Retry) {
@@ -669,12 +850,7 @@ public final class MemcachedConnection extends SpyObject {
 
 		assert o.isCancelled() || placeIn != null
 			: "No node found for key " + key;
-		if(placeIn != null) {
-			addOperation(placeIn, o);
-		} else {
-			assert o.isCancelled() : "No not found for "
-				+ key + " (and not immediately cancelled)";
-		}
+		return placeIn;
 	}
 
 	public void insertOperation(final MemcachedNode node, final Operation o) {
@@ -697,6 +873,26 @@ public final class MemcachedConnection extends SpyObject {
 		getLogger().debug("Added %s to %s", o, node);
 	}
 
+	/**
+	 * Add a bunch of operations to the given node.
+	 */
+	public void addOperations(final MemcachedNode node,
+			final Collection<Operation> ops) {
+
+		try {
+			for(Operation o : ops) {
+				o.setHandlingNode(node);
+				o.initialize();
+				node.addOp(o);
+			}
+		} finally {
+			// The operations added before a failure must be sent too.
+			addedQueue.offer(node);
+			Selector s=selector.wakeup();
+			assert s == selector : "Wakeup returned the wrong selector.";
+		}
+	}
+
 	public void addOperations(final Map<MemcachedNode, Operation> ops) {
 
 		for(Map.Entry<MemcachedNode, Operation> me : ops.entrySet()) {
@@ -746,6 +942,9 @@ public final class MemcachedConnection extends SpyObject {
 		for(MemcachedNode qa : locator.getAll()) {
 			qa.shutdown();
 		}
+		for(MemcachedNode qa : joiningNodes) {
+			qa.shutdown();
+		}
 		selector.close();
 		getLogger().debug("Shut down selector %s", selector);
 	}
@@ -829,6 +1028,38 @@ public final class MemcachedConnection extends SpyObject {
 		return placeIn;
 	}
 	
+	/**
+	 * Group the keys by the node they belong to in one pass over the keys.
+	 * The keys of each node are split into chunks of at most groupSize keys.
+	 *
+	 * @param keys the keys to group
+	 * @param groupSize max number of keys in a chunk
+	 * @return map of node and the key chunks to send to the node
+	 */
+	public Map<MemcachedNode, List<List<String>>> groupKeysByNode(
+			Collection<String> keys, int groupSize) {
+		Map<MemcachedNode, List<List<String>>> result =
+			new HashMap<MemcachedNode, List<List<String>>>();
+		for (String key : keys) {
+			MemcachedNode node = findNodeByKey(key);
+			List<List<String>> chunks = result.get(node);
+			if (chunks == null) {
+				chunks = new ArrayList<List<String>>(1);
+				result.put(node, chunks);
+			}
+			List<String> chunk = chunks.isEmpty() ? null
+					: chunks.get(chunks.size() - 1);
+			if (chunk == null || chunk.size() >= groupSize) {
+				// The keys are spread over the nodes, so sizing a chunk by
+				// the keys would reserve them for every node.  Grow as needed.
+				chunk = new ArrayList<String>();
+				chunks.add(chunk);
+			}
+			chunk.add(key);
+		}
+		return result;
+	}
+
 	public int getAddedQueueSize() {
 		return addedQueue.size();
 	}
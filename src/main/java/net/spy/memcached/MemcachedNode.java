@@ -43,6 +43,14 @@ public interface MemcachedNode {
 	 */
 	Collection<Operation> destroyInputQueue();
 
+	/**
+	 * Extract the operations in the write queue that have not been
+	 * written at all destructively.
+	 *
+	 * This is useful for moving the operations of a removed node.
+	 */
+	Collection<Operation> destroyWriteQueue();
+
 	/**
 	 * Clear the queue of currently processing operations by either cancelling
 	 * them or setting them up to be reapplied after a reconnect.
@@ -53,7 +61,8 @@ public interface MemcachedNode {
 	 * Fill the write buffer with data from the next operations in the queue.
 	 *
 	 * @param optimizeGets if true, combine sequential gets into a single
-	 *                     multi-key get
+	 *                     multi-key get and sequential single element
+	 *                     collection operations into a piped command
 	 */
 	void fillWriteBuffer(boolean optimizeGets);
 
@@ -206,6 +215,12 @@ public interface MemcachedNode {
 	 */
 	void setupForAuth();
 
+	/**
+	 * True if the node doesn't need to authenticate or has completed
+	 * the authentication.
+	 */
+	boolean isAuthenticated();
+
 	/**
 	 * Count 'time out' exceptions to drop connections that fail perpetually
 	 * @param timedOut
@@ -230,4 +245,21 @@ public interface MemcachedNode {
 	 * @return status string
 	 */
 	String getStatus();
+
+	/**
+	 * Set the version of the server this node is connected to.
+	 */
+	void setVersion(String version);
+
+	/**
+	 * Get the version of the server this node is connected to.
+	 * @return the version string or null if it isn't known yet
+	 */
+	String getVersion();
+
+	/**
+	 * Can this node handle the mget command?
+	 * @return true if the server version is known to support mget
+	 */
+	boolean enabledMGetOp();
 }
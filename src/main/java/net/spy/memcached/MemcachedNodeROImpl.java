@@ -158,10 +158,18 @@ class MemcachedNodeROImpl implements MemcachedNode {
 		throw new UnsupportedOperationException();
 	}
 
+	public Collection<Operation> destroyWriteQueue() {
+		throw new UnsupportedOperationException();
+	}
+
 	public void authComplete() {
 		throw new UnsupportedOperationException();
 	}
 
+	public boolean isAuthenticated() {
+		return root.isAuthenticated();
+	}
+
 	public void setupForAuth() {
 		throw new UnsupportedOperationException();
 	}
@@ -185,4 +193,16 @@ class MemcachedNodeROImpl implements MemcachedNode {
 	public String getStatus() {
 		throw new UnsupportedOperationException();
 	}
-}
\ No newline at end of file
+
+	public void setVersion(String version) {
+		throw new UnsupportedOperationException();
+	}
+
+	public String getVersion() {
+		return root.getVersion();
+	}
+
+	public boolean enabledMGetOp() {
+		return root.enabledMGetOp();
+	}
+}
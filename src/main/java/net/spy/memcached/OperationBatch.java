@@ -0,0 +1,205 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import net.spy.memcached.collection.BTreeGet;
+import net.spy.memcached.collection.Element;
+import net.spy.memcached.collection.ElementFlagFilter;
+import net.spy.memcached.collection.SetExist;
+import net.spy.memcached.internal.BatchFuture;
+import net.spy.memcached.internal.CollectionFuture;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.StoreType;
+import net.spy.memcached.transcoders.Transcoder;
+
+/**
+ * A batch of operations of different types sent together.
+ *
+ * The operations added to a batch are not sent until {@link #execute()},
+ * which groups them by node and adds the operations of each node to its
+ * queue at once with a single wakeup of the IO thread.  Each operation
+ * gets its own future as if it had been sent alone, and the future
+ * returned by execute() completes when all of them are complete.
+ *
+ * <pre>
+ * OperationBatch batch = client.newBatch();
+ * Future&lt;Object&gt; user = batch.get("user:1");
+ * CollectionFuture&lt;Boolean&gt; member = batch.sopExist("group:1", "user:1");
+ * batch.execute().get(700L, TimeUnit.MILLISECONDS);
+ * </pre>
+ *
+ * A batch is not thread-safe, and can be executed only once.
+ */
+public class OperationBatch {
+
+	private final ArcusClient client;
+	private final List<String> keys = new ArrayList<String>();
+	private final List<Operation> ops = new ArrayList<Operation>();
+	private final List<Future<?>> futures = new ArrayList<Future<?>>();
+	private boolean executed = false;
+
+	OperationBatch(ArcusClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * Add a get of the given key.
+	 *
+	 * @param key the key to fetch
+	 * @param tc the transcoder to serialize and unserialize value
+	 * @return a future that will hold the value of the key
+	 */
+	public <T> Future<T> get(String key, Transcoder<T> tc) {
+		checkNotExecuted();
+		// The front cache overrides the get in another package, so call it
+		// as declared by MemcachedClient.
+		return added(((MemcachedClient) client).asyncGet(key, tc, this));
+	}
+
+	/**
+	 * Add a get of the given key with the default transcoder.
+	 *
+	 * @param key the key to fetch
+	 * @return a future that will hold the value of the key
+	 */
+	public Future<Object> get(String key) {
+		return get(key, client.transcoder);
+	}
+
+	/**
+	 * Add a set of the given key.
+	 *
+	 * @param key the key under which this object should be added
+	 * @param exp the expiration of this object
+	 * @param o the object to store
+	 * @param tc the transcoder to serialize and unserialize the value
+	 * @return a future that will hold the success of the set
+	 */
+	public <T> Future<Boolean> set(String key, int exp, T o, Transcoder<T> tc) {
+		checkNotExecuted();
+		return added(client.asyncStore(StoreType.set, key, exp, o, tc, this));
+	}
+
+	/**
+	 * Add a set of the given key with the default transcoder.
+	 *
+	 * @param key the key under which this object should be added
+	 * @param exp the expiration of this object
+	 * @param o the object to store
+	 * @return a future that will hold the success of the set
+	 */
+	public Future<Boolean> set(String key, int exp, Object o) {
+		return set(key, exp, o, client.transcoder);
+	}
+
+	/**
+	 * Add a get of the elements in a bkey range of a b+tree.
+	 *
+	 * @see ArcusClientIF#asyncBopGet(String, long, long, ElementFlagFilter,
+	 *      int, int, boolean, boolean, Transcoder)
+	 */
+	public <T> CollectionFuture<Map<Long, Element<T>>> bopGet(String key,
+			long from, long to, ElementFlagFilter eFlagFilter, int offset,
+			int count, boolean withDelete, boolean dropIfEmpty,
+			Transcoder<T> tc) {
+		checkNotExecuted();
+		BTreeGet<T> get = new BTreeGet<T>(from, to, offset, count, withDelete,
+				dropIfEmpty, eFlagFilter);
+		return added(client.asyncBopGet(key, get, from > to, tc, this));
+	}
+
+	/**
+	 * Add a get of the elements in a bkey range of a b+tree with the default
+	 * transcoder.
+	 *
+	 * @see ArcusClientIF#asyncBopGet(String, long, long, ElementFlagFilter,
+	 *      int, int, boolean, boolean)
+	 */
+	public CollectionFuture<Map<Long, Element<Object>>> bopGet(String key,
+			long from, long to, ElementFlagFilter eFlagFilter, int offset,
+			int count, boolean withDelete, boolean dropIfEmpty) {
+		return bopGet(key, from, to, eFlagFilter, offset, count, withDelete,
+				dropIfEmpty, client.collectionTranscoder);
+	}
+
+	/**
+	 * Add a check of the membership of a value in a set.
+	 *
+	 * @see ArcusClientIF#asyncSopExist(String, Object, Transcoder)
+	 */
+	public <T> CollectionFuture<Boolean> sopExist(String key, T value,
+			Transcoder<T> tc) {
+		checkNotExecuted();
+		SetExist<T> exist = new SetExist<T>();
+		exist.setValue(value);
+		return added(client.asyncCollectionExist(key, "", exist, tc, this));
+	}
+
+	/**
+	 * Add a check of the membership of a value in a set with the default
+	 * transcoder.
+	 *
+	 * @see ArcusClientIF#asyncSopExist(String, Object)
+	 */
+	public CollectionFuture<Boolean> sopExist(String key, Object value) {
+		return sopExist(key, value, client.collectionTranscoder);
+	}
+
+	/**
+	 * Get the number of operations in the batch.
+	 */
+	public int size() {
+		return ops.size();
+	}
+
+	/**
+	 * Send all the operations in the batch.
+	 *
+	 * @return a future that will hold the results of the operations in the
+	 *         order they were added
+	 * @throws IllegalStateException if the batch is already executed, or in
+	 *         the rare circumstance where queue is too full to accept any
+	 *         more requests
+	 */
+	public Future<List<Object>> execute() {
+		checkNotExecuted();
+		executed = true;
+		client.addOperations(keys, ops);
+		return new BatchFuture(futures);
+	}
+
+	void add(String key, Operation op) {
+		keys.add(key);
+		ops.add(op);
+	}
+
+	private <F extends Future<?>> F added(F future) {
+		futures.add(future);
+		return future;
+	}
+
+	private void checkNotExecuted() {
+		if (executed) {
+			throw new IllegalStateException("The batch is already executed.");
+		}
+	}
+}
@@ -105,6 +105,17 @@ public interface OperationFactory {
 	 */
 	DeleteOperation delete(String key, OperationCallback operationCallback);
 
+	/**
+	 * Create a deletion operation.
+	 *
+	 * @param key the key to delete
+	 * @param noreply flag to make no response
+	 * @param operationCallback the status callback
+	 * @return the new DeleteOperation
+	 */
+	DeleteOperation delete(String key, boolean noreply,
+			OperationCallback operationCallback);
+
 	/**
 	 * Create a flush operation.
 	 *
@@ -132,6 +143,16 @@ public interface OperationFactory {
 	 */
 	GetsOperation gets(String key, GetsOperation.Callback callback);
 
+	/**
+	 * Create a gets operation for multiple keys.
+	 *
+	 * @param keys the collection of keys to get
+	 * @param callback the callback that will contain the results
+	 * @return a new GetsOperation
+	 */
+	GetsOperation gets(Collection<String> keys,
+			GetsOperation.Callback callback);
+
 
 	/**
 	 * Create a get operation.
@@ -142,6 +163,16 @@ public interface OperationFactory {
 	 */
 	GetOperation get(Collection<String> keys, GetOperation.Callback cb);
 
+	/**
+	 * Create a mget operation, which sends the keys in a data block
+	 * instead of the command line.
+	 *
+	 * @param keys the collection of keys to get
+	 * @param cb the callback that will contain the results
+	 * @return a new GetOperation
+	 */
+	GetOperation mget(Collection<String> keys, GetOperation.Callback cb);
+
 	/**
 	 * Create a mutator operation.
 	 *
@@ -156,6 +187,21 @@ public interface OperationFactory {
 	MutatorOperation mutate(Mutator m, String key, int by,
 			long def, int exp, OperationCallback cb);
 
+	/**
+	 * Create a mutator operation.
+	 *
+	 * @param m the mutator type
+	 * @param key the mutatee key
+	 * @param by the amount to increment or decrement
+	 * @param def the default value
+	 * @param exp expiration in case we need to default (0 if no default)
+	 * @param noreply flag to make no response
+	 * @param cb the status callback
+	 * @return the new mutator operation
+	 */
+	MutatorOperation mutate(Mutator m, String key, int by,
+			long def, int exp, boolean noreply, OperationCallback cb);
+
 	/**
 	 * Get a new StatsOperation.
 	 *
@@ -179,6 +225,21 @@ public interface OperationFactory {
 	StoreOperation store(StoreType storeType, String key, int flags, int exp,
 			byte[] data, OperationCallback cb);
 
+	/**
+	 * Create a store operation.
+	 *
+	 * @param storeType the type of store operation
+	 * @param key the key to store
+	 * @param flags the storage flags
+	 * @param exp the expiration time
+	 * @param data the data
+	 * @param noreply flag to make no response
+	 * @param cb the status callback
+	 * @return the new store operation
+	 */
+	StoreOperation store(StoreType storeType, String key, int flags, int exp,
+			byte[] data, boolean noreply, OperationCallback cb);
+
 	/**
 	 * Get a concatenation operation.
 	 *
@@ -0,0 +1,49 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.collection;
+
+/**
+ * A range of long bkeys (from..to) in a b+tree.
+ * The range is in descending order if from is greater than to.
+ */
+public class BKeyRange {
+
+	private final long from;
+	private final long to;
+
+	public BKeyRange(long from, long to) {
+		this.from = from;
+		this.to = to;
+	}
+
+	public long getFrom() {
+		return from;
+	}
+
+	public long getTo() {
+		return to;
+	}
+
+	public boolean isDescending() {
+		return from > to;
+	}
+
+	@Override
+	public String toString() {
+		return from + ".." + to;
+	}
+}
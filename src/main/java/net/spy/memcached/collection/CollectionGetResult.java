@@ -0,0 +1,46 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.collection;
+
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+/**
+ * Result of a key in a collection bulk operation.
+ *
+ * @param <V> the type of the value got, e.g. a list or a set of elements
+ */
+public class CollectionGetResult<V> {
+
+	private final V value;
+	private final CollectionOperationStatus opStatus;
+
+	public CollectionGetResult(V value, CollectionOperationStatus opStatus) {
+		this.value = value;
+		this.opStatus = opStatus;
+	}
+
+	/**
+	 * Get the value got, or null if the item was not found or readable.
+	 */
+	public V getValue() {
+		return value;
+	}
+
+	public CollectionOperationStatus getCollectionResponse() {
+		return opStatus;
+	}
+}
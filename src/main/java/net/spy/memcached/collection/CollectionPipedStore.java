@@ -50,11 +50,24 @@ public abstract class CollectionPipedStore<T> extends CollectionObject {
 		private static final String COMMAND = "lop insert";
 		private Collection<T> list;
 		private int index;
+		private boolean inOrder;
 		
 		public ListPipedStore(String key, int index, Collection<T> list,
 				boolean createKeyIfNotExists, CollectionAttributes attr, Transcoder<T> tc) {
+			this(key, index, false, list, createKeyIfNotExists, attr, tc);
+		}
+
+		/**
+		 * @param inOrder insert the values one after another from the index,
+		 *        instead of each at the index, which reverses them when the
+		 *        index is 0 or more
+		 */
+		public ListPipedStore(String key, int index, boolean inOrder,
+				Collection<T> list, boolean createKeyIfNotExists,
+				CollectionAttributes attr, Transcoder<T> tc) {
 			this.key = key;
 			this.index = index;
+			this.inOrder = inOrder;
 			this.list = list;
 			this.createKeyIfNotExists = createKeyIfNotExists;
 			this.attribute = attr;
@@ -85,15 +98,19 @@ public abstract class CollectionPipedStore<T> extends CollectionObject {
 
 			// create ascii operation string
 			Iterator<byte[]> iterator = encodedList.iterator();
+			int eachIndex = index;
 			while (iterator.hasNext()) {
 				byte[] each = iterator.next();
-				setArguments(bb, COMMAND, key, index, each.length,
+				setArguments(bb, COMMAND, key, eachIndex, each.length,
 						(createKeyIfNotExists) ? "create" : "", (createKeyIfNotExists) ? cd.getFlags() : "",
 						(createKeyIfNotExists) ? (attribute != null && attribute.getExpireTime() != null) ? attribute.getExpireTime() : CollectionAttributes.DEFAULT_EXPIRETIME : "",
 						(createKeyIfNotExists) ? (attribute != null && attribute.getMaxCount() != null) ? attribute.getMaxCount() : CollectionAttributes.DEFAULT_MAXCOUNT : "",
 						(iterator.hasNext()) ? PIPE : "");
 				bb.put(each);
 				bb.put(CRLF);
+				if (inOrder && index >= 0) {
+					eachIndex++;
+				}
 			}
 
 			// flip the buffer
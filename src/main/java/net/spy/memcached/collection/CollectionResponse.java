@@ -73,7 +73,12 @@ public enum CollectionResponse {
 	TRIMMED,
 	DUPLICATED_TRIMMED,
 	ATTR_MISMATCH,
-	NOTHING_TO_UPDATE;
+	NOTHING_TO_UPDATE,
+	
+	/**
+	 * The request was sent with noreply
+	 */
+	NOREPLY;
 	
 	private static final Set<String> ENUM_STRINGS;
 
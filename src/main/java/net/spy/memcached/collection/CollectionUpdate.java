@@ -76,9 +76,7 @@ public abstract class CollectionUpdate<T> {
 			b.append(getElementFlagByHex());
 		}
 
-		if (noreply) {
-			b.append((b.length() <= 0) ? "" : " ").append("noreply");
-		}
+		// noreply is appended by the operation after the length of data.
 
 		str = b.toString();
 		return str;
@@ -0,0 +1,159 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.internal;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.spy.memcached.MemcachedConnection;
+import net.spy.memcached.compat.log.LoggerFactory;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationState;
+
+/**
+ * Base of the futures of bulk gets, which wait for the get operations
+ * sent to the nodes and then build the result.
+ *
+ * Not intended for general use.
+ *
+ * @param <V> type of the result
+ */
+public abstract class BaseBulkGetFuture<V> implements BulkFuture<V> {
+	private final Collection<Operation> ops;
+	private final CountDownLatch latch;
+	private volatile boolean cancelled = false;
+	private volatile boolean timeout = false;
+
+	protected BaseBulkGetFuture(Collection<Operation> getOps,
+			CountDownLatch l) {
+		super();
+		ops = getOps;
+		latch = l;
+	}
+
+	/**
+	 * Build the result once the operations are done.
+	 */
+	protected abstract V getResult() throws InterruptedException,
+			ExecutionException;
+
+	public boolean cancel(boolean ign) {
+		boolean rv = false;
+		for (Operation op : ops) {
+			rv |= op.getState() == OperationState.WRITING;
+			op.cancel();
+		}
+		cancelled = true;
+		return rv;
+	}
+
+	public V get() throws InterruptedException, ExecutionException {
+		latch.await();
+		checkOperations();
+		return getResult();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.spy.memcached.internal.BulkFuture#getSome(long,
+	 * java.util.concurrent.TimeUnit)
+	 */
+	public V getSome(long to, TimeUnit unit)
+			throws InterruptedException, ExecutionException {
+		Collection<Operation> timedoutOps = new HashSet<Operation>();
+		V ret = internalGet(to, unit, timedoutOps);
+		if (timedoutOps.size() > 0) {
+			timeout = true;
+			LoggerFactory.getLogger(getClass()).warn(
+					new CheckedOperationTimeoutException(
+							"Operation timed out: ", timedoutOps).getMessage());
+		}
+		return ret;
+	}
+
+	/*
+	 * get all or nothing: timeout exception is thrown if all the data could not
+	 * be retrieved
+	 * 
+	 * @see java.util.concurrent.Future#get(long, java.util.concurrent.TimeUnit)
+	 */
+	public V get(long to, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		Collection<Operation> timedoutOps = new HashSet<Operation>();
+		V ret = internalGet(to, unit, timedoutOps);
+		if (timedoutOps.size() > 0) {
+			this.timeout = true;
+			throw new CheckedOperationTimeoutException("Operation timed out.",
+					timedoutOps);
+		}
+		return ret;
+	}
+
+	/**
+	 * refactored code common to both get(long, TimeUnit) and getSome(long,
+	 * TimeUnit)
+	 */
+	private V internalGet(long to, TimeUnit unit,
+			Collection<Operation> timedoutOps) throws InterruptedException,
+			ExecutionException {
+		if (!latch.await(to, unit)) {
+			for (Operation op : ops) {
+				if (op.getState() != OperationState.COMPLETE) {
+					MemcachedConnection.opTimedOut(op);
+					timedoutOps.add(op);
+				} else {
+					MemcachedConnection.opSucceeded(op);
+				}
+			}
+		}
+		checkOperations();
+		return getResult();
+	}
+
+	private void checkOperations() throws ExecutionException {
+		for (Operation op : ops) {
+			if (op.isCancelled()) {
+				throw new ExecutionException(new RuntimeException("Cancelled"));
+			}
+			if (op.hasErrored()) {
+				throw new ExecutionException(op.getException());
+			}
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isDone() {
+		return latch.getCount() == 0;
+	}
+
+	/*
+	 * set to true if timeout was reached.
+	 * 
+	 * @see net.spy.memcached.internal.BulkFuture#isTimeout()
+	 */
+	public boolean isTimeout() {
+		return timeout;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future for a batch of operations, holding the result of each operation in
+ * the order they were added.
+ *
+ * Not intended for general use.
+ */
+public class BatchFuture implements Future<List<Object>> {
+	private final List<Future<?>> futures;
+
+	public BatchFuture(List<Future<?>> futures) {
+		super();
+		this.futures = futures;
+	}
+
+	public boolean cancel(boolean ign) {
+		boolean rv = false;
+		for (Future<?> f : futures) {
+			rv |= f.cancel(ign);
+		}
+		return rv;
+	}
+
+	public List<Object> get() throws InterruptedException, ExecutionException {
+		List<Object> rv = new ArrayList<Object>(futures.size());
+		for (Future<?> f : futures) {
+			rv.add(f.get());
+		}
+		return rv;
+	}
+
+	public List<Object> get(long to, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		long deadline = System.nanoTime() + unit.toNanos(to);
+		List<Object> rv = new ArrayList<Object>(futures.size());
+		for (Future<?> f : futures) {
+			rv.add(f.get(Math.max(deadline - System.nanoTime(), 0),
+					TimeUnit.NANOSECONDS));
+		}
+		return rv;
+	}
+
+	public boolean isCancelled() {
+		for (Future<?> f : futures) {
+			if (f.isCancelled()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isDone() {
+		for (Future<?> f : futures) {
+			if (!f.isDone()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
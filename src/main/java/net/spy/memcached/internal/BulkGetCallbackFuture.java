@@ -0,0 +1,45 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.internal;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.spy.memcached.ops.Operation;
+
+/**
+ * Future for bulk gets whose values are given to a callback.
+ *
+ * The result is the number of values found.
+ *
+ * Not intended for general use.
+ */
+public class BulkGetCallbackFuture extends BaseBulkGetFuture<Integer> {
+	private final AtomicInteger found;
+
+	public BulkGetCallbackFuture(Collection<Operation> getOps,
+			CountDownLatch l, AtomicInteger found) {
+		super(getOps, l);
+		this.found = found;
+	}
+
+	@Override
+	protected Integer getResult() {
+		return found.get();
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import net.spy.memcached.CASValue;
+import net.spy.memcached.ops.Operation;
+
+/**
+ * Future for handling results from bulk gets with CAS ids.
+ *
+ * Not intended for general use.
+ *
+ * @param <T> types of objects returned from the GETS
+ */
+public class BulkGetsFuture<T> extends BaseBulkGetFuture<Map<String, CASValue<T>>> {
+	private final Map<String, CASValue<T>> rvMap;
+
+	public BulkGetsFuture(Map<String, CASValue<T>> m,
+			Collection<Operation> getOps, CountDownLatch l) {
+		super(getOps, l);
+		rvMap = m;
+	}
+
+	@Override
+	protected Map<String, CASValue<T>> getResult() {
+		return new HashMap<String, CASValue<T>>(rvMap);
+	}
+}
@@ -16,25 +16,27 @@
  */
 package net.spy.memcached.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import net.spy.memcached.MemcachedConnection;
+import net.spy.memcached.compat.log.LoggerFactory;
 import net.spy.memcached.ops.CollectionOperationStatus;
 import net.spy.memcached.ops.Operation;
 import net.spy.memcached.ops.OperationState;
 import net.spy.memcached.ops.OperationStatus;
 
-public class CollectionGetBulkFuture<T> implements Future<T> {
+public class CollectionGetBulkFuture<T> implements BulkFuture<T> {
 
 	private final Collection<Operation> ops;
 	private final long timeout;
 	private final CountDownLatch latch;
 	private final T result;
+	private volatile boolean timedOut = false;
 	
 	public CollectionGetBulkFuture(CountDownLatch latch, Collection<Operation> ops, T result, long timeout) {
 		this.latch = latch;
@@ -58,6 +60,7 @@ public class CollectionGetBulkFuture<T> implements Future<T> {
 			for (Operation op : ops) {
 				MemcachedConnection.opTimedOut(op);
 			}
+			timedOut = true;
 			throw new CheckedOperationTimeoutException("Timed out waiting for b+tree get bulk operation", ops);
 		} else {
 			for (Operation op : ops) {
@@ -78,6 +81,39 @@ public class CollectionGetBulkFuture<T> implements Future<T> {
 		return result;
 	}
 	
+	/**
+	 * Wait for the operation to complete and return the results of the
+	 * keys whose operations have completed so far.
+	 *
+	 * @see net.spy.memcached.internal.BulkFuture#getSome(long, java.util.concurrent.TimeUnit)
+	 */
+	public T getSome(long duration, TimeUnit units) throws InterruptedException, ExecutionException {
+		if (!latch.await(duration, units)) {
+			Collection<Operation> timedoutOps = new ArrayList<Operation>();
+			for (Operation op : ops) {
+				if (op.getState() != OperationState.COMPLETE) {
+					MemcachedConnection.opTimedOut(op);
+					timedoutOps.add(op);
+				}
+			}
+			timedOut = true;
+			LoggerFactory.getLogger(getClass()).warn(
+					new CheckedOperationTimeoutException(
+							"Operation timed out: ", timedoutOps).getMessage());
+		}
+
+		for (Operation op : ops) {
+			if (op != null && op.hasErrored()) {
+				throw new ExecutionException(op.getException());
+			}
+		}
+		return result;
+	}
+
+	public boolean isTimeout() {
+		return timedOut;
+	}
+
 	@Override
 	public boolean cancel(boolean ign) {
 		boolean rv = false;
@@ -0,0 +1,126 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.internal;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future merging the results of the bulk operations run by several clients
+ * on the parts of a key set.
+ *
+ * Not intended for general use.
+ *
+ * @param <V> the type of the values of the result map
+ */
+public class MergedBulkFuture<V> implements BulkFuture<Map<String, V>> {
+	private final List<Future<Map<String, V>>> futures;
+	private volatile boolean timeout = false;
+
+	public MergedBulkFuture(List<Future<Map<String, V>>> futures) {
+		super();
+		this.futures = futures;
+	}
+
+	public boolean cancel(boolean ign) {
+		boolean rv = false;
+		for (Future<Map<String, V>> f : futures) {
+			rv |= f.cancel(ign);
+		}
+		return rv;
+	}
+
+	public Map<String, V> get() throws InterruptedException,
+			ExecutionException {
+		Map<String, V> rv = new HashMap<String, V>();
+		for (Future<Map<String, V>> f : futures) {
+			rv.putAll(f.get());
+		}
+		return rv;
+	}
+
+	public Map<String, V> get(long to, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		long deadline = System.nanoTime() + unit.toNanos(to);
+		Map<String, V> rv = new HashMap<String, V>();
+		for (Future<Map<String, V>> f : futures) {
+			try {
+				rv.putAll(f.get(Math.max(deadline - System.nanoTime(), 0),
+						TimeUnit.NANOSECONDS));
+			} catch (TimeoutException e) {
+				timeout = true;
+				throw e;
+			}
+		}
+		return rv;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.spy.memcached.internal.BulkFuture#getSome(long,
+	 * java.util.concurrent.TimeUnit)
+	 */
+	public Map<String, V> getSome(long to, TimeUnit unit)
+			throws InterruptedException, ExecutionException {
+		long deadline = System.nanoTime() + unit.toNanos(to);
+		Map<String, V> rv = new HashMap<String, V>();
+		for (Future<Map<String, V>> f : futures) {
+			long remaining = Math.max(deadline - System.nanoTime(), 0);
+			if (f instanceof BulkFuture) {
+				BulkFuture<Map<String, V>> bf = (BulkFuture<Map<String, V>>) f;
+				rv.putAll(bf.getSome(remaining, TimeUnit.NANOSECONDS));
+				timeout |= bf.isTimeout();
+			} else {
+				try {
+					rv.putAll(f.get(remaining, TimeUnit.NANOSECONDS));
+				} catch (TimeoutException e) {
+					// give the results of the others.
+					timeout = true;
+				}
+			}
+		}
+		return rv;
+	}
+
+	public boolean isCancelled() {
+		for (Future<Map<String, V>> f : futures) {
+			if (f.isCancelled()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isDone() {
+		for (Future<Map<String, V>> f : futures) {
+			if (!f.isDone()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean isTimeout() {
+		return timeout;
+	}
+}
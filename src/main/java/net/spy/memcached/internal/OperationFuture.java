@@ -39,7 +39,7 @@ public class OperationFuture<T> implements Future<T> {
 	private final CountDownLatch latch;
 	private final AtomicReference<T> objRef;
 	private final long timeout;
-	private Operation op;
+	private volatile Operation op;
 
 	public OperationFuture(CountDownLatch l, long opTimeout) {
 		this(l, new AtomicReference<T>(null), opTimeout);
@@ -46,8 +46,9 @@ public abstract class BaseOperationFactory implements OperationFactory {
 		if(op instanceof GetOperation) {
 			rv.addAll(cloneGet(op));
 		} else if(op instanceof GetsOperation) {
-			GetsOperation.Callback callback =
-				(GetsOperation.Callback)op.getCallback();
+			// a multi-key gets must complete its callback only once.
+			GetsOperation.Callback callback = new MultiGetsOperationCallback(
+					op.getCallback(), op.getKeys().size());
 			for(String k : op.getKeys()) {
 				rv.add(gets(k, callback));
 			}
@@ -57,16 +58,18 @@ public abstract class BaseOperationFactory implements OperationFactory {
 					cop.getCasValue(), cop.getFlags(), cop.getExpiration(),
 					cop.getBytes(), cop.getCallback()));
 		} else if(op instanceof DeleteOperation) {
-			rv.add(delete(first(op.getKeys()), op.getCallback()));
+			rv.add(delete(first(op.getKeys()), op.isNoreply(),
+					op.getCallback()));
 		} else if(op instanceof MutatorOperation) {
 			MutatorOperation mo = (MutatorOperation)op;
 			rv.add(mutate(mo.getType(), first(op.getKeys()),
 					mo.getBy(), mo.getDefault(), mo.getExpiration(),
-					op.getCallback()));
+					op.isNoreply(), op.getCallback()));
 		} else if(op instanceof StoreOperation) {
 			StoreOperation so = (StoreOperation)op;
 			rv.add(store(so.getStoreType(), first(op.getKeys()), so.getFlags(),
-					so.getExpiration(), so.getData(), op.getCallback()));
+					so.getExpiration(), so.getData(), op.isNoreply(),
+					op.getCallback()));
 		} else if(op instanceof ConcatenationOperation) {
 			ConcatenationOperation c = (ConcatenationOperation)op;
 			rv.add(cat(c.getStoreType(), c.getCasValue(), first(op.getKeys()),
@@ -87,6 +90,10 @@ public abstract class BaseOperationFactory implements OperationFactory {
 			CollectionGetOperation c = (CollectionGetOperation)op;
 			rv.add(collectionGet(first(c.getKeys()), c.getGet(), 
 					(CollectionGetOperation.Callback) c.getCallback()));
+		} else if(op instanceof CollectionUpdateOperation) {
+			CollectionUpdateOperation c = (CollectionUpdateOperation)op;
+			rv.add(collectionUpdate(first(c.getKeys()), c.getSubKey(),
+					c.getUpdate(), c.getData(), c.getCallback()));
 		} else if(op instanceof CollectionDeleteOperation) {
 			CollectionDeleteOperation c = (CollectionDeleteOperation)op;
 			rv.add(collectionDelete(first(c.getKeys()), c.getDelete(), 
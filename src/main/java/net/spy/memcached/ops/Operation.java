@@ -80,4 +80,12 @@ public interface Operation {
 	 * @param to a memcached node
 	 */
 	void setHandlingNode(MemcachedNode to);
+
+	/**
+	 * True if the server doesn't reply to this operation.
+	 *
+	 * A noreply operation is complete as soon as it's written, so it never
+	 * waits in the read queue.
+	 */
+	boolean isNoreply();
 }
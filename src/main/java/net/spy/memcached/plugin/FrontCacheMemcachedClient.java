@@ -24,6 +24,7 @@ import java.util.concurrent.Future;
 import net.sf.ehcache.Element;
 import net.spy.memcached.ConnectionFactory;
 import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.OperationBatch;
 import net.spy.memcached.transcoders.Transcoder;
 
 /**
@@ -64,13 +65,16 @@ public class FrontCacheMemcachedClient extends MemcachedClient {
 	/**
 	 * Get the value of the key.
          * Check the local cache first. If the key is not found, send the command to the server.
+         * A get added to an operation batch checks the local cache the same way.
 	 *
 	 * @param key  the key to fetch
 	 * @param tc  the transcoder to serialize and unserialize value
+	 * @param batch  the batch to add the get to, or null to send it now
 	 * @return a future that will hold the value of the key
 	 */
 	@Override
-	public <T> Future<T> asyncGet(final String key, final Transcoder<T> tc) {
+	protected <T> Future<T> asyncGet(final String key, final Transcoder<T> tc,
+			OperationBatch batch) {
 		Element frontElement = null;
 
 		if (localCacheManager != null) {
@@ -78,7 +82,7 @@ public class FrontCacheMemcachedClient extends MemcachedClient {
 		}
 
 		if (frontElement == null) {
-			return super.asyncGet(key, tc);
+			return super.asyncGet(key, tc, batch);
 		} else {
 			return new FrontCacheGetFuture<T>(frontElement);
 		}
@@ -22,6 +22,7 @@ import java.nio.ByteBuffer;
 import net.spy.memcached.MemcachedNode;
 import net.spy.memcached.compat.SpyObject;
 import net.spy.memcached.ops.CancelledOperationStatus;
+import net.spy.memcached.ops.NoreplyOperationStatus;
 import net.spy.memcached.ops.OperationCallback;
 import net.spy.memcached.ops.OperationErrorType;
 import net.spy.memcached.ops.OperationException;
@@ -38,6 +39,11 @@ public abstract class BaseOperationImpl extends SpyObject {
 	 */
 	public static final OperationStatus CANCELLED =
 		new CancelledOperationStatus();
+	/**
+	 * Status object for operations written without expecting a reply.
+	 */
+	public static final OperationStatus NOREPLY =
+		new NoreplyOperationStatus();
 	private OperationState state = OperationState.WRITING;
 	private ByteBuffer cmd = null;
 	private boolean cancelled = false;
@@ -125,7 +131,20 @@ public abstract class BaseOperationImpl extends SpyObject {
 	}
 
 	public final void writeComplete() {
-		transitionState(OperationState.READING);
+		if(isNoreply()) {
+			// Nothing will be read for this operation.
+			callback.receivedStatus(NOREPLY);
+			transitionState(OperationState.COMPLETE);
+		} else {
+			transitionState(OperationState.READING);
+		}
+	}
+
+	/**
+	 * Operations that can be sent with noreply override this.
+	 */
+	public boolean isNoreply() {
+		return false;
 	}
 
 	public abstract void initialize();
@@ -23,6 +23,8 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -65,8 +67,15 @@ public abstract class TCPMemcachedNodeImpl extends SpyObject
 	// # of operations added into inputQueue
 	private long addOpCount;
 
+	// # of noreply operations written
+	private long noreplyOpCount;
+
 	// fake node
 	private boolean isFake = false; 
+
+	// server version, set once the node is connected
+	private volatile String version = null;
+	private volatile boolean enabledMGetOp = false;
 	
 	public boolean isFake() {
 		return isFake;
@@ -121,6 +130,39 @@ public abstract class TCPMemcachedNodeImpl extends SpyObject
 		return rv;
 	}
 
+	/* (non-Javadoc)
+	 * @see net.spy.memcached.MemcachedNode#destroyWriteQueue()
+	 */
+	public Collection<Operation> destroyWriteQueue() {
+		Collection<Operation> rv=new ArrayList<Operation>();
+		if(optimizedOp != null && !isWriteStarted(optimizedOp)) {
+			rv.addAll(unfold(optimizedOp));
+			optimizedOp=null;
+		}
+		for(Iterator<Operation> i=writeQ.iterator(); i.hasNext();) {
+			Operation op=i.next();
+			if(!isWriteStarted(op)) {
+				i.remove();
+				rv.add(op);
+			}
+		}
+		return rv;
+	}
+
+	/**
+	 * Get the operations an unsent optimized operation was built from, so
+	 * that they can be moved to other nodes each on its own.
+	 */
+	protected Collection<Operation> unfold(Operation op) {
+		return Collections.singletonList(op);
+	}
+
+	// Some of the operation may already be sent to the server.
+	private boolean isWriteStarted(Operation op) {
+		ByteBuffer buf=op.getBuffer();
+		return readQ.contains(op) || (buf != null && buf.position() > 0);
+	}
+
 	/* (non-Javadoc)
 	 * @see net.spy.memcached.MemcachedNode#setupResend()
 	 */
@@ -190,7 +232,7 @@ public abstract class TCPMemcachedNodeImpl extends SpyObject
 				// at a larger design problem that may need to be taken care
 				// if in the bowels of the client.
 				// In practice, readQ should be small, however.
-				if(!readQ.contains(o)) {
+				if(!o.isNoreply() && !readQ.contains(o)) {
 					readQ.add(o);
 				}
 
@@ -206,6 +248,9 @@ public abstract class TCPMemcachedNodeImpl extends SpyObject
 				if(!o.getBuffer().hasRemaining()) {
 					o.writeComplete();
 					transitionWriteItem();
+					if(o.isNoreply()) {
+						noreplyOpCount += 1;
+					}
 
 					preparePending();
 					if(shouldOptimize) {
@@ -519,6 +564,10 @@ public abstract class TCPMemcachedNodeImpl extends SpyObject
 		authLatch.countDown();
 	}
 
+	public final boolean isAuthenticated() {
+		return authLatch.getCount() == 0;
+	}
+
 	public final void setupForAuth() {
 		if (shouldAuth) {
 			authLatch = new CountDownLatch(1);
@@ -563,10 +612,41 @@ public abstract class TCPMemcachedNodeImpl extends SpyObject
 	public String getStatus() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("#Tops=").append(addOpCount);
+		sb.append(" #NRops=").append(noreplyOpCount);
 		sb.append(" #iq=").append(getInputQueueSize());
 		sb.append(" #Wops=").append(getWriteQueueSize());
 		sb.append(" #Rops=").append(getReadQueueSize());
 		sb.append(" #CT=").append(getContinuousTimeout());
 		return sb.toString();
 	}
+
+	public void setVersion(String vr) {
+		version = vr;
+		enabledMGetOp = isMGetSupported(vr);
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public boolean enabledMGetOp() {
+		return enabledMGetOp;
+	}
+
+	/**
+	 * True if the given Arcus server version supports mget (1.11.0 or later).
+	 */
+	static boolean isMGetSupported(String vr) {
+		if (vr == null) {
+			return false;
+		}
+		String[] tokens = vr.split("[.\\-]");
+		try {
+			int major = Integer.parseInt(tokens[0]);
+			int minor = tokens.length > 1 ? Integer.parseInt(tokens[1]) : 0;
+			return major > 1 || (major == 1 && minor >= 11);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
 }
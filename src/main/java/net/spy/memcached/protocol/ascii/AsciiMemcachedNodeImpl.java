@@ -2,8 +2,10 @@ package net.spy.memcached.protocol.ascii;
 
 import java.net.SocketAddress;
 import java.nio.channels.SocketChannel;
+import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
 
+import net.spy.memcached.collection.CollectionPipedStore;
 import net.spy.memcached.ops.GetOperation;
 import net.spy.memcached.ops.Operation;
 import net.spy.memcached.ops.OperationState;
@@ -15,24 +17,55 @@ import net.spy.memcached.protocol.TCPMemcachedNodeImpl;
  */
 public final class AsciiMemcachedNodeImpl extends TCPMemcachedNodeImpl {
 
+	private final int maxGetKeys;
+	private final int maxGetKeyBytes;
+
 	public AsciiMemcachedNodeImpl(SocketAddress sa, SocketChannel c,
 			int bufSize, BlockingQueue<Operation> rq,
 			BlockingQueue<Operation> wq, BlockingQueue<Operation> iq, Long opQueueMaxBlockTimeNs) {
+		this(sa, c, bufSize, rq, wq, iq, opQueueMaxBlockTimeNs,
+				Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	public AsciiMemcachedNodeImpl(SocketAddress sa, SocketChannel c,
+			int bufSize, BlockingQueue<Operation> rq,
+			BlockingQueue<Operation> wq, BlockingQueue<Operation> iq, Long opQueueMaxBlockTimeNs,
+			int maxGetKeys, int maxGetKeyBytes) {
 		super(sa, c, bufSize, rq, wq, iq, opQueueMaxBlockTimeNs, false); /* ascii never does auth */
+		this.maxGetKeys = maxGetKeys;
+		this.maxGetKeyBytes = maxGetKeyBytes;
+	}
+
+	/**
+	 * An optimized get is still a get of its keys and is cloned as such,
+	 * but a pipe is not a keyed operation, so give back the operations
+	 * folded into it instead.
+	 */
+	@Override
+	protected Collection<Operation> unfold(Operation op) {
+		if(op instanceof OptimizedPipeImpl) {
+			return ((OptimizedPipeImpl) op).getOperations();
+		}
+		return super.unfold(op);
 	}
 
 	@Override
 	protected void optimize() {
 		// make sure there are at least two get operations in a row before
-		// attempting to optimize them.
-		if(writeQ.peek() instanceof GetOperation) {
+		// attempting to optimize them. mget operations are left alone as
+		// their keys are already sent in a data block.
+		if(writeQ.peek() instanceof GetOperationImpl) {
 			optimizedOp=writeQ.remove();
-			if(writeQ.peek() instanceof GetOperation) {
+			if(writeQ.peek() instanceof GetOperationImpl) {
 				OptimizedGetImpl og=new OptimizedGetImpl(
 						(GetOperation)optimizedOp);
 				optimizedOp=og;
 
-				while(writeQ.peek() instanceof GetOperation) {
+				// stop merging when the get command would get too long,
+				// the remaining gets are merged in the next round.
+				while(writeQ.peek() instanceof GetOperationImpl
+						&& og.hasRoomFor((GetOperation)writeQ.peek(),
+								maxGetKeys, maxGetKeyBytes)) {
 					GetOperationImpl o=(GetOperationImpl) writeQ.remove();
 					if(!o.isCancelled()) {
 						og.addOperation(o);
@@ -46,6 +79,28 @@ public final class AsciiMemcachedNodeImpl extends TCPMemcachedNodeImpl {
 				getLogger().debug("Set up %s with %s keys and %s callbacks",
 					this, pcb.numKeys(), pcb.numCallbacks());
 			}
+		} else if(OptimizedPipeImpl.isPipelinable(writeQ.peek())) {
+			// likewise, fold two or more single element collection
+			// operations in a row into a piped command.
+			optimizedOp=writeQ.remove();
+			if(OptimizedPipeImpl.isPipelinable(writeQ.peek())) {
+				OptimizedPipeImpl op=new OptimizedPipeImpl(optimizedOp);
+				optimizedOp=op;
+
+				while(op.size() < CollectionPipedStore.MAX_PIPED_ITEM_COUNT
+						&& OptimizedPipeImpl.isPipelinable(writeQ.peek())) {
+					Operation o=writeQ.remove();
+					if(!o.isCancelled()) {
+						op.addOperation(o);
+					}
+				}
+
+				// Initialize the new pipe
+				optimizedOp.initialize();
+				assert optimizedOp.getState() == OperationState.WRITING;
+				getLogger().debug("Set up %s with %s piped operations",
+					this, op.size());
+			}
 		}
 	}
 
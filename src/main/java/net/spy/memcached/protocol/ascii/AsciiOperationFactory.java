@@ -18,6 +18,7 @@ package net.spy.memcached.protocol.ascii;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -95,6 +96,11 @@ public class AsciiOperationFactory extends BaseOperationFactory {
 		return new DeleteOperationImpl(key, cb);
 	}
 
+	public DeleteOperation delete(String key, boolean noreply,
+			OperationCallback cb) {
+		return new DeleteOperationImpl(key, noreply, cb);
+	}
+
 	public FlushOperation flush(int delay, OperationCallback cb) {
 		return new FlushOperationImpl(delay, cb);
 	}
@@ -107,15 +113,29 @@ public class AsciiOperationFactory extends BaseOperationFactory {
 		return new GetOperationImpl(keys, cb);
 	}
 
+	public GetOperation mget(Collection<String> keys, GetOperation.Callback cb) {
+		return new MGetOperationImpl(keys, cb);
+	}
+
 	public GetsOperation gets(String key, GetsOperation.Callback cb) {
 		 return new GetsOperationImpl(key, cb);
 	}
 
+	public GetsOperation gets(Collection<String> keys,
+			GetsOperation.Callback cb) {
+		return new GetsOperationImpl(keys, cb);
+	}
+
 	public MutatorOperation mutate(Mutator m, String key, int by,
 			long def, int exp, OperationCallback cb) {
 		return new MutatorOperationImpl(m, key, by, def, exp, cb);
 	}
 
+	public MutatorOperation mutate(Mutator m, String key, int by,
+			long def, int exp, boolean noreply, OperationCallback cb) {
+		return new MutatorOperationImpl(m, key, by, def, exp, noreply, cb);
+	}
+
 	public StatsOperation stats(String arg, StatsOperation.Callback cb) {
 		return new StatsOperationImpl(arg, cb);
 	}
@@ -125,6 +145,12 @@ public class AsciiOperationFactory extends BaseOperationFactory {
 		return new StoreOperationImpl(storeType, key, flags, exp, data, cb);
 	}
 
+	public StoreOperation store(StoreType storeType, String key, int flags,
+			int exp, byte[] data, boolean noreply, OperationCallback cb) {
+		return new StoreOperationImpl(storeType, key, flags, exp, data,
+				noreply, cb);
+	}
+
 	public VersionOperation version(OperationCallback cb) {
 		return new VersionOperationImpl(cb);
 	}
@@ -144,13 +170,22 @@ public class AsciiOperationFactory extends BaseOperationFactory {
 		return new ConcatenationOperationImpl(catType, key, data, cb);
 	}
 
+	/**
+	 * Clone a get into a get per key, as its keys may go to different
+	 * nodes.  An mget is cloned into an mget per key instead, since the
+	 * gets of a node are merged into a get line its keys may not fit in.
+	 */
 	@Override
 	protected Collection<? extends Operation> cloneGet(KeyedOperation op) {
 		Collection<Operation> rv=new ArrayList<Operation>();
 		GetOperation.Callback callback = new MultiGetOperationCallback(
 				op.getCallback(), op.getKeys().size());
 		for(String k : op.getKeys()) {
-			rv.add(get(k, callback));
+			if(op instanceof MGetOperationImpl) {
+				rv.add(mget(Collections.singleton(k), callback));
+			} else {
+				rv.add(get(k, callback));
+			}
 		}
 		return rv;
 	}
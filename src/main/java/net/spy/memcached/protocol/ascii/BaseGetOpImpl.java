@@ -19,6 +19,7 @@ abstract class BaseGetOpImpl extends OperationImpl {
 	private static final byte[] RN_BYTES = "\r\n".getBytes();
 	private final String cmd;
 	private final Collection<String> keys;
+	private final boolean keysInData;
 	private String currentKey = null;
 	private long casValue=0;
 	private int currentFlags = 0;
@@ -28,9 +29,20 @@ abstract class BaseGetOpImpl extends OperationImpl {
 
 	public BaseGetOpImpl(String c,
 			OperationCallback cb, Collection<String> k) {
+		this(c, cb, k, false);
+	}
+
+	/**
+	 * Construct a get handler that sends its keys either on the command
+	 * line (get, gets) or in a data block following the command line
+	 * with the length and number of keys (mget).
+	 */
+	public BaseGetOpImpl(String c,
+			OperationCallback cb, Collection<String> k, boolean inData) {
 		super(cb);
 		cmd=c;
 		keys=k;
+		keysInData=inData;
 	}
 
 	/**
@@ -127,6 +139,10 @@ abstract class BaseGetOpImpl extends OperationImpl {
 
 	@Override
 	public final void initialize() {
+		if(keysInData) {
+			initializeWithKeysInData();
+			return;
+		}
 		// Figure out the length of the request
 		int size=6; // Enough for gets\r\n
 		Collection<byte[]> keyBytes=KeyUtil.getKeyBytes(keys);
@@ -145,6 +161,31 @@ abstract class BaseGetOpImpl extends OperationImpl {
 		setBuffer(b);
 	}
 
+	private void initializeWithKeysInData() {
+		// <cmd> <lenkeys> <numkeys>\r\n<key> <key> ...\r\n
+		Collection<byte[]> keyBytes=KeyUtil.getKeyBytes(keys);
+		int lenKeys=keyBytes.size() - 1;
+		for(byte[] k : keyBytes) {
+			lenKeys+=k.length;
+		}
+		byte[] line=KeyUtil.getKeyBytes(cmd + " " + lenKeys + " "
+				+ keyBytes.size());
+		ByteBuffer b=ByteBuffer.allocate(line.length + lenKeys + 4);
+		b.put(line);
+		b.put(RN_BYTES);
+		boolean first=true;
+		for(byte[] k : keyBytes) {
+			if(!first) {
+				b.put((byte)' ');
+			}
+			b.put(k);
+			first=false;
+		}
+		b.put(RN_BYTES);
+		b.flip();
+		setBuffer(b);
+	}
+
 	@Override
 	protected final void wasCancelled() {
 		getCallback().receivedStatus(CANCELLED);
@@ -38,15 +38,22 @@ abstract class BaseStoreOperationImpl extends OperationImpl {
 	protected final int flags;
 	protected final int exp;
 	protected final byte[] data;
+	protected final boolean noreply;
 
 	public BaseStoreOperationImpl(String t, String k, int f, int e,
 			byte[] d, OperationCallback cb) {
+		this(t, k, f, e, d, false, cb);
+	}
+
+	public BaseStoreOperationImpl(String t, String k, int f, int e,
+			byte[] d, boolean nr, OperationCallback cb) {
 		super(cb);
 		type=t;
 		key=k;
 		flags=f;
 		exp=e;
 		data=d;
+		noreply=nr;
 	}
 
 	@Override
@@ -61,7 +68,11 @@ abstract class BaseStoreOperationImpl extends OperationImpl {
 	public void initialize() {
 		ByteBuffer bb=ByteBuffer.allocate(data.length
 				+ KeyUtil.getKeyBytes(key).length + OVERHEAD);
-		setArguments(bb, type, key, flags, exp, data.length);
+		if(noreply) {
+			setArguments(bb, type, key, flags, exp, data.length, "noreply");
+		} else {
+			setArguments(bb, type, key, flags, exp, data.length);
+		}
 		assert bb.remaining() >= data.length + 2
 			: "Not enough room in buffer, need another "
 				+ (2 + data.length - bb.remaining());
@@ -82,6 +93,11 @@ abstract class BaseStoreOperationImpl extends OperationImpl {
 		getCallback().receivedStatus(CANCELLED);
 	}
 
+	@Override
+	public boolean isNoreply() {
+		return noreply;
+	}
+
 	public Collection<String> getKeys() {
 		return Collections.singleton(key);
 	}
@@ -105,6 +105,11 @@ public class CollectionDeleteOperationImpl extends OperationImpl
 	protected void wasCancelled() {
 		getCallback().receivedStatus(DELETE_CANCELED);
 	}
+
+	@Override
+	public boolean isNoreply() {
+		return collectionDelete.isNoreply();
+	}
 	
 	public Collection<String> getKeys() {
 		return Collections.singleton(key);
@@ -23,6 +23,7 @@ import java.util.Collections;
 import net.spy.memcached.KeyUtil;
 import net.spy.memcached.collection.CollectionResponse;
 import net.spy.memcached.collection.CollectionStore;
+import net.spy.memcached.collection.RequestMode;
 import net.spy.memcached.ops.CollectionOperationStatus;
 import net.spy.memcached.ops.CollectionStoreOperation;
 import net.spy.memcached.ops.OperationCallback;
@@ -109,6 +110,11 @@ public class CollectionStoreOperationImpl extends OperationImpl
 	protected void wasCancelled() {
 		getCallback().receivedStatus(STORE_CANCELED);
 	}
+
+	@Override
+	public boolean isNoreply() {
+		return collectionStore.getRequestMode() == RequestMode.NO_REPLY;
+	}
 	
 	public Collection<String> getKeys() {
 		return Collections.singleton(key);
@@ -95,8 +95,10 @@ public class CollectionUpdateOperationImpl extends OperationImpl implements
 								.getElementFlagByHex()).length + args.length()
 						+ OVERHEAD);
 
+		// noreply follows the length of data.
 		setArguments(bb, collectionUpdate.getCommand(), key, subkey, args,
-				((data != null) ? data.length : "-1"));
+				((data != null) ? data.length : "-1"),
+				(collectionUpdate.isNoreply() ? "noreply" : ""));
 
 		if (data != null) {
 			bb.put(data);
@@ -118,6 +120,11 @@ public class CollectionUpdateOperationImpl extends OperationImpl implements
 		getCallback().receivedStatus(STORE_CANCELED);
 	}
 
+	@Override
+	public boolean isNoreply() {
+		return collectionUpdate.isNoreply();
+	}
+
 	public Collection<String> getKeys() {
 		return Collections.singleton(key);
 	}
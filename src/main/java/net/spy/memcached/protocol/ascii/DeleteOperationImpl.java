@@ -26,10 +26,16 @@ final class DeleteOperationImpl extends OperationImpl
 		new OperationStatus(false, "NOT_FOUND");
 
 	private final String key;
+	private final boolean noreply;
 
 	public DeleteOperationImpl(String k, OperationCallback cb) {
+		this(k, false, cb);
+	}
+
+	public DeleteOperationImpl(String k, boolean nr, OperationCallback cb) {
 		super(cb);
 		key=k;
+		noreply=nr;
 	}
 
 	@Override
@@ -43,11 +49,20 @@ final class DeleteOperationImpl extends OperationImpl
 	public void initialize() {
 		ByteBuffer b=ByteBuffer.allocate(
 			KeyUtil.getKeyBytes(key).length + OVERHEAD);
-		setArguments(b, "delete", key);
+		if(noreply) {
+			setArguments(b, "delete", key, "noreply");
+		} else {
+			setArguments(b, "delete", key);
+		}
 		b.flip();
 		setBuffer(b);
 	}
 
+	@Override
+	public boolean isNoreply() {
+		return noreply;
+	}
+
 	public Collection<String> getKeys() {
 		return Collections.singleton(key);
 	}
@@ -1,6 +1,8 @@
 package net.spy.memcached.protocol.ascii;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 
 import net.spy.memcached.ops.GetsOperation;
 
@@ -15,4 +17,8 @@ class GetsOperationImpl extends BaseGetOpImpl implements GetsOperation {
 		super(CMD, cb, Collections.singleton(key));
 	}
 
+	public GetsOperationImpl(Collection<String> k, GetsOperation.Callback cb) {
+		super(CMD, cb, new HashSet<String>(k));
+	}
+
 }
@@ -0,0 +1,36 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+import net.spy.memcached.ops.GetOperation;
+
+/**
+ * Operation for retrieving data with the mget command, which sends the keys
+ * in a data block instead of the command line.
+ */
+class MGetOperationImpl extends BaseGetOpImpl implements GetOperation {
+
+	private static final String CMD="mget";
+
+	public MGetOperationImpl(Collection<String> k, GetOperation.Callback c) {
+		super(CMD, c, new LinkedHashSet<String>(k), true);
+	}
+
+}
@@ -45,15 +45,22 @@ final class MutatorOperationImpl extends OperationImpl
 	private final int amount;
 	private final long def;
 	private final int exp;
+	private final boolean noreply;
 
 	public MutatorOperationImpl(Mutator m, String k, int amt, long d, int e,
 			OperationCallback c) {
+		this(m, k, amt, d, e, false, c);
+	}
+
+	public MutatorOperationImpl(Mutator m, String k, int amt, long d, int e,
+			boolean nr, OperationCallback c) {
 		super(c);
 		mutator=m;
 		key=k;
 		amount=amt;
 		def=d;
 		exp=e;
+		noreply=nr;
 	}
 
 	@Override
@@ -73,15 +80,21 @@ final class MutatorOperationImpl extends OperationImpl
 	public void initialize() {
 		int size=KeyUtil.getKeyBytes(key).length + OVERHEAD;
 		ByteBuffer b=ByteBuffer.allocate(size);
+		String nr = noreply ? "noreply" : "";
 		if (def > -1) {
-			setArguments(b, mutator.name(), key, amount, 0, exp, def);
+			setArguments(b, mutator.name(), key, amount, 0, exp, def, nr);
 		} else {
-			setArguments(b, mutator.name(), key, amount);
+			setArguments(b, mutator.name(), key, amount, nr);
 		}
 		b.flip();
 		setBuffer(b);
 	}
 
+	@Override
+	public boolean isNoreply() {
+		return noreply;
+	}
+
 	@Override
 	protected void wasCancelled() {
 		// XXX:  Replace this comment with why the hell I did this.
@@ -2,6 +2,7 @@ package net.spy.memcached.protocol.ascii;
 
 import java.util.HashSet;
 
+import net.spy.memcached.KeyUtil;
 import net.spy.memcached.ops.GetOperation;
 import net.spy.memcached.protocol.ProxyCallback;
 
@@ -12,6 +13,8 @@ final class OptimizedGetImpl extends GetOperationImpl {
 
 	private final ProxyCallback pcb;
 
+	private int keyBytes = 0;
+
 	/**
 	 * Construct an optimized get starting with the given get operation.
 	 */
@@ -25,7 +28,35 @@ final class OptimizedGetImpl extends GetOperationImpl {
 	 * Add a new GetOperation to get.
 	 */
 	public void addOperation(GetOperation o) {
-		getKeys().addAll(o.getKeys());
+		for(String k : o.getKeys()) {
+			if(getKeys().add(k)) {
+				keyBytes += keyLength(k);
+			}
+		}
 		pcb.addCallbacks(o);
 	}
+
+	/**
+	 * True if the keys of the given GetOperation can be added without
+	 * exceeding the given number of keys or key bytes in the get command.
+	 */
+	public boolean hasRoomFor(GetOperation o, int maxKeys, int maxBytes) {
+		int keys = getKeys().size();
+		int bytes = keyBytes;
+		for(String k : o.getKeys()) {
+			if(!getKeys().contains(k)) {
+				keys++;
+				bytes += keyLength(k);
+			}
+		}
+		return keys <= maxKeys && bytes <= maxBytes;
+	}
+
+	/**
+	 * Get the number of bytes the key takes up in the get command,
+	 * including the separating space.
+	 */
+	static int keyLength(String k) {
+		return KeyUtil.getKeyBytes(k).length + 1;
+	}
 }
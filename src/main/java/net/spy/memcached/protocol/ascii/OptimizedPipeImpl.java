@@ -0,0 +1,189 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.spy.memcached.KeyUtil;
+import net.spy.memcached.collection.BTreeDelete;
+import net.spy.memcached.collection.BTreeUpdate;
+import net.spy.memcached.collection.CollectionPipedStore;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
+import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Optimized operation for folding a bunch of single element collection
+ * operations (bop/sop/lop insert, bop delete and bop update) together
+ * into one piped command.
+ *
+ * Each folded operation gets its own response line, so the operation is
+ * completed with its own status as if it had been sent alone.
+ */
+final class OptimizedPipeImpl extends OperationImpl {
+
+	private static final byte[] PIPE = KeyUtil.getKeyBytes(" "
+			+ CollectionPipedStore.PIPE);
+
+	private final List<OperationImpl> ops = new ArrayList<OperationImpl>();
+
+	private int index = 0;
+
+	/**
+	 * Construct an optimized pipe starting with the given operation.
+	 */
+	public OptimizedPipeImpl(Operation firstOp) {
+		super();
+		setCallback(new PipeCallback());
+		addOperation(firstOp);
+	}
+
+	/**
+	 * True if the given operation can be folded into a piped command.
+	 *
+	 * Operations with an explicit request mode (noreply, pipe, getrim)
+	 * are excluded because their responses do not consist of one line.
+	 */
+	static boolean isPipelinable(Operation o) {
+		if (o instanceof CollectionStoreOperationImpl) {
+			return ((CollectionStoreOperationImpl) o).getStore()
+					.getRequestMode() == null;
+		} else if (o instanceof CollectionDeleteOperationImpl) {
+			return ((CollectionDeleteOperationImpl) o).getDelete()
+					instanceof BTreeDelete
+					&& !((CollectionDeleteOperationImpl) o).getDelete()
+							.isNoreply();
+		} else if (o instanceof CollectionUpdateOperationImpl) {
+			return ((CollectionUpdateOperationImpl) o).getUpdate()
+					instanceof BTreeUpdate
+					&& !((CollectionUpdateOperationImpl) o).getUpdate()
+							.isNoreply();
+		}
+		return false;
+	}
+
+	/**
+	 * Add a new operation to the pipe.
+	 */
+	public void addOperation(Operation o) {
+		assert isPipelinable(o) : "Can't pipe " + o;
+		ops.add((OperationImpl) o);
+	}
+
+	/**
+	 * Get the operations folded into the pipe.
+	 */
+	public List<Operation> getOperations() {
+		return new ArrayList<Operation>(ops);
+	}
+
+	/**
+	 * Get the number of operations in the pipe.
+	 */
+	public int size() {
+		return ops.size();
+	}
+
+	@Override
+	public void initialize() {
+		int size = PIPE.length * (ops.size() - 1);
+		for (OperationImpl o : ops) {
+			size += o.getBuffer().remaining();
+		}
+
+		ByteBuffer bb = ByteBuffer.allocate(size);
+		for (int i = 0; i < ops.size(); i++) {
+			ByteBuffer obuf = ops.get(i).getBuffer().duplicate();
+			if (i < ops.size() - 1) {
+				// append "pipe" at the end of the command line
+				int eol = obuf.position();
+				while (obuf.get(eol) != '\r') {
+					eol++;
+				}
+				ByteBuffer line = obuf.duplicate();
+				line.limit(eol);
+				bb.put(line);
+				bb.put(PIPE);
+				obuf.position(eol);
+			}
+			bb.put(obuf);
+		}
+		bb.flip();
+		setBuffer(bb);
+
+		if (getLogger().isDebugEnabled()) {
+			getLogger().debug("Request in ascii protocol: \n"
+					+ (new String(bb.array())).replaceAll("\\r\\n", "\n"));
+		}
+	}
+
+	@Override
+	public void handleLine(String line) {
+		assert getState() == OperationState.READING
+			: "Read ``" + line + "'' when in " + getState() + " state";
+		if (line.startsWith("RESPONSE ")) {
+			getLogger().debug("Got line %s", line);
+			return;
+		}
+
+		if (line.startsWith("END") || line.startsWith("PIPE_ERROR")) {
+			if (index < ops.size()) {
+				getLogger().warn("Pipe terminated with %s after %d of %d"
+						+ " operations", line, index, ops.size());
+			}
+			transitionState(OperationState.COMPLETE);
+			return;
+		}
+
+		assert index < ops.size() : "Unexpected line " + line;
+		OperationImpl o = ops.get(index++);
+		if (!o.isCancelled()) {
+			if (o.getState() == OperationState.WRITING) {
+				o.writeComplete();
+			}
+			o.handleLine(line);
+		}
+
+		// a single command is sent without "pipe", so there's no "END".
+		if (ops.size() == 1) {
+			transitionState(OperationState.COMPLETE);
+		}
+	}
+
+	/**
+	 * Cancel the folded operations that didn't get their own response
+	 * when the pipe is completed, cancelled or failed.
+	 */
+	private class PipeCallback implements OperationCallback {
+
+		public void receivedStatus(OperationStatus status) {
+			// Each folded operation receives its own status.
+		}
+
+		public void complete() {
+			for (OperationImpl o : ops) {
+				if (o.getState() != OperationState.COMPLETE
+						&& !o.isCancelled()) {
+					o.cancel();
+				}
+			}
+		}
+	}
+}
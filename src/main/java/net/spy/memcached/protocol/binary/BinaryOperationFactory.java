@@ -98,6 +98,15 @@ public class BinaryOperationFactory extends BaseOperationFactory {
 		return new DeleteOperationImpl(key, operationCallback);
 	}
 
+	public DeleteOperation delete(String key, boolean noreply,
+		OperationCallback operationCallback) {
+		if (noreply) {
+			throw new RuntimeException(
+				"Noreply delete operation is not supported in binary protocol yet.");
+		}
+		return delete(key, operationCallback);
+	}
+
 	public FlushOperation flush(int delay, OperationCallback cb) {
 		return new FlushOperationImpl(cb);
 	}
@@ -110,15 +119,35 @@ public class BinaryOperationFactory extends BaseOperationFactory {
 		return new MultiGetOperationImpl(value, cb);
 	}
 
+	public GetOperation mget(Collection<String> keys, Callback cb) {
+		throw new RuntimeException(
+				"MGet operation is not supported in binary protocol yet.");
+	}
+
 	public GetsOperation gets(String key, GetsOperation.Callback cb) {
 		return new GetOperationImpl(key, cb);
 	}
 
+	public GetsOperation gets(Collection<String> keys,
+			GetsOperation.Callback cb) {
+		throw new RuntimeException(
+				"Multi-key gets operation is not supported in binary protocol yet.");
+	}
+
 	public MutatorOperation mutate(Mutator m, String key, int by,
 			long def, int exp, OperationCallback cb) {
 		return new MutatorOperationImpl(m, key, by, def, exp, cb);
 	}
 
+	public MutatorOperation mutate(Mutator m, String key, int by,
+			long def, int exp, boolean noreply, OperationCallback cb) {
+		if (noreply) {
+			throw new RuntimeException(
+				"Noreply mutator operation is not supported in binary protocol yet.");
+		}
+		return mutate(m, key, by, def, exp, cb);
+	}
+
 	public StatsOperation stats(String arg,
 			net.spy.memcached.ops.StatsOperation.Callback cb) {
 		return new StatsOperationImpl(arg, cb);
@@ -129,6 +158,15 @@ public class BinaryOperationFactory extends BaseOperationFactory {
 		return new StoreOperationImpl(storeType, key, flags, exp, data, 0, cb);
 	}
 
+	public StoreOperation store(StoreType storeType, String key, int flags,
+			int exp, byte[] data, boolean noreply, OperationCallback cb) {
+		if (noreply) {
+			throw new RuntimeException(
+				"Noreply store operation is not supported in binary protocol yet.");
+		}
+		return store(storeType, key, flags, exp, data, cb);
+	}
+
 	public VersionOperation version(OperationCallback cb) {
 		return new VersionOperationImpl(cb);
 	}
@@ -16,11 +16,26 @@
  */
 package net.spy.memcached.util;
 
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import net.spy.memcached.MemcachedNode;
 
 public class ArcusKetamaNodeLocatorConfiguration extends
 		DefaultKetamaNodeLocatorConfiguration {
 
+	/**
+	 * The max weight of a node.
+	 */
+	public static final int MAX_NODE_WEIGHT = 10;
+
+	private boolean hashTag = false;
+
+	private volatile Map<SocketAddress, Integer> nodeWeights =
+		Collections.emptyMap();
+
 	/**
 	 * Removes a node from the internal node-address map.
 	 * @param node
@@ -28,5 +43,88 @@ public class ArcusKetamaNodeLocatorConfiguration extends
 	public void removeNode(MemcachedNode node) {
 		super.socketAddresses.remove(node);
 	}
-	
+
+	/**
+	 * Set the weights of the nodes.
+	 *
+	 * A node of weight N gets N times as many points in the continuum as
+	 * the nodes of weight 1, so it gets about N times as many keys.
+	 * The nodes not in the given map have weight 1.
+	 *
+	 * @param weights the weights of the nodes by their addresses
+	 */
+	public void setNodeWeights(Map<? extends SocketAddress, Integer> weights) {
+		Map<SocketAddress, Integer> m = new HashMap<SocketAddress, Integer>();
+		for (Map.Entry<? extends SocketAddress, Integer> e : weights.entrySet()) {
+			if (e.getValue() < 1 || e.getValue() > MAX_NODE_WEIGHT) {
+				throw new IllegalArgumentException("Invalid weight "
+						+ e.getValue() + " of " + e.getKey() + ". The weight"
+						+ " should be between 1 and " + MAX_NODE_WEIGHT + ".");
+			}
+			m.put(e.getKey(), e.getValue());
+		}
+		nodeWeights = Collections.unmodifiableMap(m);
+	}
+
+	/**
+	 * Returns the weight of a given node.
+	 *
+	 * @param node the node
+	 * @return the weight of the node, 1 if it has none
+	 */
+	public int getNodeWeight(MemcachedNode node) {
+		Integer weight = nodeWeights.get(node.getSocketAddress());
+		return weight == null ? 1 : weight;
+	}
+
+	/**
+	 * Returns the number of hashes that should be defined for a given
+	 * node in the continuum, which is scaled by the weight of the node.
+	 *
+	 * @param node the node
+	 * @return the number of repetitions
+	 */
+	public int getNodeRepetitions(MemcachedNode node) {
+		return getNodeRepetitions() * getNodeWeight(node);
+	}
+
+	/**
+	 * Enable or disable the hash tag.
+	 *
+	 * If the hash tag is enabled, only the tag between the first '{' of a
+	 * key and the first '}' after it is hashed to find the node.  A key
+	 * without the tag, or whose tag is empty as in "{}:key", is hashed as
+	 * a whole.  So the keys with the same tag, for example
+	 * "{user1}:profile" and "{user1}:friends", are stored in the same node.
+	 *
+	 * @param hashTag true to hash only the tag of the keys
+	 */
+	public void setHashTag(boolean hashTag) {
+		this.hashTag = hashTag;
+	}
+
+	public boolean isHashTag() {
+		return hashTag;
+	}
+
+	/**
+	 * Get the part of the key that is hashed to find the node.
+	 *
+	 * @param key the key
+	 * @return the hash tag of the key if the hash tag is enabled and
+	 *         the key has one, the key itself otherwise
+	 */
+	public String getKeyForHash(String key) {
+		if (hashTag) {
+			int start = key.indexOf('{');
+			if (start >= 0) {
+				int end = key.indexOf('}', start + 1);
+				if (end > start + 1) {
+					return key.substring(start + 1, end);
+				}
+			}
+		}
+		return key;
+	}
+
 }
@@ -1,12 +1,16 @@
 package net.spy.memcached.util;
 
+import java.net.SocketAddress;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.NodeLocator;
 import net.spy.memcached.compat.SpyObject;
 import net.spy.memcached.internal.ImmediateFuture;
 
@@ -15,6 +19,16 @@ import net.spy.memcached.internal.ImmediateFuture;
  */
 public class CacheLoader extends SpyObject {
 
+	/**
+	 * Interval in milliseconds between the progress reports of a windowed
+	 * load.
+	 */
+	public static final long REPORT_INTERVAL = 10000;
+
+	// bounds of the backoff of a windowed load on a full queue
+	private static final long MIN_BACKOFF = 10;
+	private static final long MAX_BACKOFF = 250;
+
 	private final ExecutorService executorService;
 	private final StorageListener storageListener;
 	private final MemcachedClientIF client;
@@ -75,6 +89,136 @@ public class CacheLoader extends SpyObject {
 		return loadData(map.entrySet().iterator());
 	}
 
+	/**
+	 * Load data from the given iterator, keeping up to windowSize stores in
+	 * flight per node.
+	 *
+	 * Each entry is sent to the window of the node its key belongs to.
+	 * When the window of a node is full, the oldest store of that node is
+	 * waited for before the next one is sent, so a slow node slows down the
+	 * load instead of overflowing its queue.  If the queue of a node is
+	 * full anyway, the oldest store of the load is waited for, or the load
+	 * backs off for a while if it has none.  The results are given to the
+	 * storage listener from the calling thread as the stores complete, and
+	 * the throughput and failures are logged every REPORT_INTERVAL
+	 * milliseconds.
+	 *
+	 * Unlike {@link #loadData(Iterator)}, this returns after all the
+	 * stores are complete.
+	 *
+	 * @param <T> type of data being loaded
+	 * @param i the iterator of data to load
+	 * @param windowSize max number of stores in flight per node
+	 * @param rate max number of stores per second, or 0 for no limit
+	 * @return the number of keys that failed to be stored
+	 * @throws InterruptedException if interrupted while waiting for stores
+	 */
+	public <T> long loadData(Iterator<Map.Entry<String, T>> i,
+			int windowSize, int rate) throws InterruptedException {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("Invalid window size : "
+					+ windowSize);
+		}
+		if (rate < 0) {
+			throw new IllegalArgumentException("Invalid rate : " + rate);
+		}
+
+		LoadProgress progress = new LoadProgress();
+		// The locator gives a copy of the nodes, so the windows are kept
+		// by the address of the node.
+		NodeLocator locator = client.getNodeLocator();
+		Map<SocketAddress, LinkedList<PendingStore>> windows =
+			new HashMap<SocketAddress, LinkedList<PendingStore>>();
+		while (i.hasNext()) {
+			Map.Entry<String, T> e = i.next();
+			String key = e.getKey();
+
+			SocketAddress node = locator.getPrimary(key).getSocketAddress();
+			LinkedList<PendingStore> window = windows.get(node);
+			if (window == null) {
+				window = new LinkedList<PendingStore>();
+				windows.put(node, window);
+			}
+			if (window.size() >= windowSize) {
+				complete(window.removeFirst(), progress);
+			}
+
+			if (rate > 0) {
+				// pace the stores to the rate from the start of the load.
+				long ahead = progress.sent * 1000L / rate
+						- (System.currentTimeMillis() - progress.start);
+				if (ahead > 0) {
+					Thread.sleep(ahead);
+				}
+			}
+
+			Future<Boolean> f = null;
+			long backoff = MIN_BACKOFF;
+			while (f == null) {
+				try {
+					f = client.set(key, expiration, e.getValue());
+				} catch (IllegalStateException ex) {
+					// The queue of the node is full with other requests.
+					LinkedList<PendingStore> oldest = window.isEmpty()
+						? oldestWindow(windows) : window;
+					if (oldest != null) {
+						complete(oldest.removeFirst(), progress);
+					} else {
+						Thread.sleep(backoff);
+						backoff = Math.min(backoff * 2, MAX_BACKOFF);
+					}
+				}
+			}
+			window.add(new PendingStore(key, f, progress.sent));
+			progress.sent++;
+			progress.report(false);
+		}
+
+		for (LinkedList<PendingStore> window : windows.values()) {
+			while (!window.isEmpty()) {
+				complete(window.removeFirst(), progress);
+			}
+		}
+		progress.report(true);
+		return progress.failed;
+	}
+
+	/**
+	 * Get the window whose first store was sent first, or null if all
+	 * the windows are empty.
+	 */
+	private LinkedList<PendingStore> oldestWindow(
+			Map<SocketAddress, LinkedList<PendingStore>> windows) {
+		LinkedList<PendingStore> oldest = null;
+		for (LinkedList<PendingStore> window : windows.values()) {
+			if (!window.isEmpty() && (oldest == null
+					|| window.getFirst().seq < oldest.getFirst().seq)) {
+				oldest = window;
+			}
+		}
+		return oldest;
+	}
+
+	private void complete(PendingStore p, LoadProgress progress)
+			throws InterruptedException {
+		try {
+			boolean result = p.future.get();
+			if (!result) {
+				progress.failed++;
+			}
+			if (storageListener != null) {
+				storageListener.storeResult(p.key, result);
+			}
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Exception e) {
+			progress.failed++;
+			if (storageListener != null) {
+				storageListener.errorStoring(p.key, e);
+			}
+		}
+	}
+
 	/**
 	 * Push a value into the cache.
 	 *
@@ -124,6 +268,40 @@ public class CacheLoader extends SpyObject {
 		}
 	}
 
+	private static class PendingStore {
+
+		final String key;
+		final Future<Boolean> future;
+		// the order in which the store was sent
+		final long seq;
+
+		PendingStore(String key, Future<Boolean> future, long seq) {
+			this.key = key;
+			this.future = future;
+			this.seq = seq;
+		}
+	}
+
+	private class LoadProgress {
+
+		final long start = System.currentTimeMillis();
+		long lastReport = start;
+		long sent = 0;
+		long failed = 0;
+
+		void report(boolean done) {
+			long now = System.currentTimeMillis();
+			if (!done && now - lastReport < REPORT_INTERVAL) {
+				return;
+			}
+			lastReport = now;
+			long elapsed = Math.max(now - start, 1);
+			getLogger().info("%s %d keys in %d ms (%d keys/s), %d failed",
+					done ? "Loaded" : "Loading", sent, elapsed,
+					sent * 1000 / elapsed, failed);
+		}
+	}
+
 	/**
 	 * If you are interested in the results of your data load, this interface
 	 * will receive them.
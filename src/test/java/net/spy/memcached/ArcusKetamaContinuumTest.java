@@ -0,0 +1,103 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+/**
+ * Test lookups on the immutable continuum of ArcusKetamaNodeLocator.
+ */
+public class ArcusKetamaContinuumTest extends TestCase {
+
+	private List<MemcachedNode> nodes(int from, int n) {
+		List<MemcachedNode> rv = new ArrayList<MemcachedNode>();
+		for (int i = from; i < from + n; i++) {
+			rv.add(new MockMemcachedNode(InetSocketAddress.createUnresolved(
+					"127.0.0.1", 10000 + i)));
+		}
+		return rv;
+	}
+
+	// the lookup done by the former TreeMap based continuum
+	private MemcachedNode ceiling(TreeMap<Long, MemcachedNode> map, long hash) {
+		Map.Entry<Long, MemcachedNode> e = map.ceilingEntry(hash);
+		return e == null ? map.firstEntry().getValue() : e.getValue();
+	}
+
+	private void assertSameLookups(ArcusKetamaNodeLocator locator) {
+		TreeMap<Long, MemcachedNode> map = locator.continuum.toMap();
+		Random rand = new Random(1);
+		for (int i = 0; i < 10000; i++) {
+			long hash = rand.nextLong() & 0xffffffffL;
+			assertSame(ceiling(map, hash), locator.getNodeForKey(hash));
+		}
+		for (long hash : locator.continuum.hashes) {
+			assertSame(map.get(hash), locator.getNodeForKey(hash));
+		}
+		assertSame(map.firstEntry().getValue(),
+				locator.getNodeForKey(locator.getMaxKey() + 1));
+	}
+
+	public void testLookups() {
+		ArcusKetamaNodeLocator locator = new ArcusKetamaNodeLocator(
+				nodes(0, 4), HashAlgorithm.KETAMA_HASH);
+		assertEquals(160 * 4, locator.continuum.hashes.length);
+		assertSameLookups(locator);
+	}
+
+	public void testUpdate() {
+		ArcusKetamaNodeLocator locator = new ArcusKetamaNodeLocator(
+				nodes(0, 2), HashAlgorithm.KETAMA_HASH);
+		ArcusKetamaNodeLocator.Continuum before = locator.continuum;
+
+		locator.update(nodes(2, 2), Collections.<MemcachedNode>emptyList());
+
+		assertNotSame(before, locator.continuum);
+		assertEquals(160 * 2, before.hashes.length);
+		assertEquals(160 * 4, locator.continuum.hashes.length);
+		assertEquals(4, locator.getAll().size());
+		assertSameLookups(locator);
+
+		ArcusKetamaNodeLocator full = new ArcusKetamaNodeLocator(
+				nodes(0, 4), HashAlgorithm.KETAMA_HASH);
+		for (int i = 0; i < full.continuum.hashes.length; i++) {
+			assertEquals(full.continuum.hashes[i],
+					locator.continuum.hashes[i]);
+			assertEquals(full.continuum.nodes[i],
+					locator.continuum.nodes[i]);
+		}
+	}
+
+	public void testReadonlyCopy() {
+		ArcusKetamaNodeLocator locator = new ArcusKetamaNodeLocator(
+				nodes(0, 4), HashAlgorithm.KETAMA_HASH);
+		NodeLocator copy = locator.getReadonlyCopy();
+		assertEquals(4, copy.getAll().size());
+		for (String k : new String[] { "dustin", "noelani", "some key" }) {
+			assertEquals(locator.getPrimary(k).toString(),
+					copy.getPrimary(k).toString());
+		}
+	}
+}
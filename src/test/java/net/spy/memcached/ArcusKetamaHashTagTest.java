@@ -0,0 +1,105 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+import net.spy.memcached.util.ArcusKetamaNodeLocatorConfiguration;
+
+/**
+ * Test the hash tag of ArcusKetamaNodeLocator.
+ */
+public class ArcusKetamaHashTagTest extends TestCase {
+
+	private List<MemcachedNode> nodes;
+
+	@Override
+	protected void setUp() throws Exception {
+		nodes = new ArrayList<MemcachedNode>();
+		for (int i = 0; i < 8; i++) {
+			nodes.add(new MockMemcachedNode(InetSocketAddress.createUnresolved(
+					"127.0.0.1", 10000 + i)));
+		}
+	}
+
+	private ArcusKetamaNodeLocator locator(boolean hashTag) {
+		ArcusKetamaNodeLocatorConfiguration conf =
+			new ArcusKetamaNodeLocatorConfiguration();
+		conf.setHashTag(hashTag);
+		return new ArcusKetamaNodeLocator(nodes, HashAlgorithm.KETAMA_HASH,
+				conf);
+	}
+
+	public void testKeyForHash() {
+		ArcusKetamaNodeLocatorConfiguration conf =
+			new ArcusKetamaNodeLocatorConfiguration();
+		assertEquals("{user1}:profile", conf.getKeyForHash("{user1}:profile"));
+
+		conf.setHashTag(true);
+		assertEquals("user1", conf.getKeyForHash("{user1}:profile"));
+		assertEquals("user1", conf.getKeyForHash("prefix:{user1}"));
+		assertEquals("a", conf.getKeyForHash("x{a}y{b}"));
+		assertEquals("{}:key", conf.getKeyForHash("{}:key"));
+		// only the first tag is looked at, even if it's empty.
+		assertEquals("{}x{a}", conf.getKeyForHash("{}x{a}"));
+		assertEquals("{user1:key", conf.getKeyForHash("{user1:key"));
+		assertEquals("key", conf.getKeyForHash("key"));
+	}
+
+	public void testSameTagSameNode() {
+		ArcusKetamaNodeLocator locator = locator(true);
+		MemcachedNode node = locator.getPrimary("user1");
+		for (int i = 0; i < 50; i++) {
+			assertSame(node, locator.getPrimary("{user1}:item" + i));
+		}
+
+		Iterator<MemcachedNode> expected = locator.getSequence("user1");
+		Iterator<MemcachedNode> actual = locator.getSequence("{user1}:item");
+		while (expected.hasNext()) {
+			assertSame(expected.next(), actual.next());
+		}
+		assertFalse(actual.hasNext());
+	}
+
+	public void testDisabledByDefault() {
+		ArcusKetamaNodeLocator tagged = locator(true);
+		ArcusKetamaNodeLocator untagged = locator(false);
+		ArcusKetamaNodeLocator plain = new ArcusKetamaNodeLocator(nodes,
+				HashAlgorithm.KETAMA_HASH);
+		boolean spread = false;
+		for (int i = 0; i < 50; i++) {
+			String key = "{user1}:item" + i;
+			assertSame(untagged.getPrimary(key), plain.getPrimary(key));
+			if (plain.getPrimary(key) != tagged.getPrimary(key)) {
+				spread = true;
+			}
+		}
+		assertTrue(spread);
+	}
+
+	public void testBuilder() {
+		ConnectionFactory cf = new ConnectionFactoryBuilder().setHashTag(true)
+			.build();
+		NodeLocator locator = cf.createLocator(nodes);
+		assertSame(locator.getPrimary("user1"),
+				locator.getPrimary("{user1}:profile"));
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+import net.spy.memcached.util.ArcusKetamaNodeLocatorConfiguration;
+
+/**
+ * Test the node weights of ArcusKetamaNodeLocator.
+ */
+public class ArcusKetamaNodeWeightTest extends TestCase {
+
+	private List<MemcachedNode> nodes;
+
+	@Override
+	protected void setUp() throws Exception {
+		nodes = new ArrayList<MemcachedNode>();
+		for (int i = 0; i < 4; i++) {
+			nodes.add(new MockMemcachedNode(InetSocketAddress.createUnresolved(
+					"127.0.0.1", 10000 + i)));
+		}
+	}
+
+	private ArcusKetamaNodeLocator locator(List<MemcachedNode> nodes,
+			Map<SocketAddress, Integer> weights) {
+		ArcusKetamaNodeLocatorConfiguration conf =
+			new ArcusKetamaNodeLocatorConfiguration();
+		conf.setNodeWeights(weights);
+		return new ArcusKetamaNodeLocator(nodes, HashAlgorithm.KETAMA_HASH,
+				conf);
+	}
+
+	private int points(ArcusKetamaNodeLocator locator, MemcachedNode node) {
+		int count = 0;
+		for (MemcachedNode n : locator.continuum.nodes) {
+			if (n == node) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public void testWeightedPoints() {
+		Map<SocketAddress, Integer> weights =
+			new HashMap<SocketAddress, Integer>();
+		weights.put(nodes.get(0).getSocketAddress(), 3);
+		ArcusKetamaNodeLocator locator = locator(nodes, weights);
+
+		assertEquals(160 * 3, points(locator, nodes.get(0)));
+		for (int i = 1; i < nodes.size(); i++) {
+			assertEquals(160, points(locator, nodes.get(i)));
+		}
+		assertEquals(160 * 6, locator.continuum.hashes.length);
+	}
+
+	public void testSameRingRegardlessOfOrder() {
+		Map<SocketAddress, Integer> weights =
+			new HashMap<SocketAddress, Integer>();
+		weights.put(nodes.get(1).getSocketAddress(), 2);
+		ArcusKetamaNodeLocator locator = locator(nodes, weights);
+
+		List<MemcachedNode> reversed = new ArrayList<MemcachedNode>(nodes);
+		Collections.reverse(reversed);
+		ArcusKetamaNodeLocator other = locator(reversed, weights);
+
+		assertEquals(locator.continuum.hashes.length,
+				other.continuum.hashes.length);
+		for (int i = 0; i < locator.continuum.hashes.length; i++) {
+			assertEquals(locator.continuum.hashes[i], other.continuum.hashes[i]);
+			assertSame(locator.continuum.nodes[i], other.continuum.nodes[i]);
+		}
+	}
+
+	public void testWeightChange() {
+		Map<SocketAddress, Integer> weights =
+			new HashMap<SocketAddress, Integer>();
+		ArcusKetamaNodeLocator locator = locator(nodes, weights);
+		long[] unweighted = locator.continuum.hashes;
+
+		weights.put(nodes.get(2).getSocketAddress(), 2);
+		locator.config.setNodeWeights(weights);
+		locator.update(Collections.<MemcachedNode>emptyList(),
+				Collections.<MemcachedNode>emptyList());
+		assertEquals(160 * 2, points(locator, nodes.get(2)));
+		assertEquals(160 * 5, locator.continuum.hashes.length);
+
+		locator.config.setNodeWeights(new HashMap<SocketAddress, Integer>());
+		locator.update(Collections.<MemcachedNode>emptyList(),
+				Collections.<MemcachedNode>emptyList());
+		assertEquals(160, points(locator, nodes.get(2)));
+		assertTrue(Arrays.equals(unweighted,
+				locator.continuum.hashes));
+	}
+
+	public void testRemoveWeightedNode() {
+		Map<SocketAddress, Integer> weights =
+			new HashMap<SocketAddress, Integer>();
+		weights.put(nodes.get(3).getSocketAddress(), 4);
+		ArcusKetamaNodeLocator locator = locator(nodes.subList(0, 3), weights);
+
+		locator.update(Collections.singletonList(nodes.get(3)),
+				Collections.<MemcachedNode>emptyList());
+		assertEquals(160 * 4, points(locator, nodes.get(3)));
+
+		// The weight is gone before the node is removed.
+		locator.config.setNodeWeights(new HashMap<SocketAddress, Integer>());
+		TreeMap<Long, MemcachedNode> map = locator.continuum.toMap();
+		locator.updateHash(map, nodes.get(3), true);
+		assertFalse(map.containsValue(nodes.get(3)));
+		assertEquals(160 * 3, map.size());
+	}
+
+	public void testInvalidWeight() {
+		ArcusKetamaNodeLocatorConfiguration conf =
+			new ArcusKetamaNodeLocatorConfiguration();
+		Map<SocketAddress, Integer> weights =
+			new HashMap<SocketAddress, Integer>();
+		weights.put(nodes.get(0).getSocketAddress(), 0);
+		try {
+			conf.setNodeWeights(weights);
+			fail("weight 0 is accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testParseNodeWeight() {
+		assertEquals(1, CacheManager.parseNodeWeight(null));
+		assertEquals(1, CacheManager.parseNodeWeight(new byte[0]));
+		assertEquals(3, CacheManager.parseNodeWeight(" 3\n".getBytes()));
+		try {
+			CacheManager.parseNodeWeight("heavy".getBytes());
+			fail("invalid weight is accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			CacheManager.parseNodeWeight(String.valueOf(
+					ArcusKetamaNodeLocatorConfiguration.MAX_NODE_WEIGHT + 1)
+					.getBytes());
+			fail("too large weight is accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+import net.spy.memcached.collection.BTreeElement;
+import net.spy.memcached.collection.BTreeGetResult;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+/**
+ * Test splitting the element count of a b+tree bulk get and merging the
+ * results of the split operations.
+ */
+public class BTreeGetBulkSplitTest extends TestCase {
+
+	public void testPartCount() {
+		assertEquals(1, ArcusClient.getBulkPartCount(0));
+		assertEquals(1, ArcusClient.getBulkPartCount(50));
+		assertEquals(2, ArcusClient.getBulkPartCount(51));
+		assertEquals(3, ArcusClient.getBulkPartCount(150));
+	}
+
+	public void testPartOffsetAndCount() {
+		assertEquals(0, ArcusClient.getBulkPartElementCount(0, 0));
+		assertEquals(10, ArcusClient.getBulkPartElementCount(10, 0));
+		assertEquals(50, ArcusClient.getBulkPartElementCount(120, 1));
+		assertEquals(20, ArcusClient.getBulkPartElementCount(120, 2));
+		assertEquals(5, ArcusClient.getBulkPartOffset(5, 0));
+		assertEquals(105, ArcusClient.getBulkPartOffset(5, 2));
+	}
+
+	private static BTreeGetResult<Long, String> result(
+			CollectionResponse response, long... bkeys) {
+		TreeMap<Long, BTreeElement<Long, String>> elements = null;
+		if (bkeys.length > 0) {
+			elements = new TreeMap<Long, BTreeElement<Long, String>>();
+			for (long bkey : bkeys) {
+				elements.put(bkey, new BTreeElement<Long, String>(bkey, null,
+						"v" + bkey));
+			}
+		}
+		return new BTreeGetResult<Long, String>(elements,
+				new CollectionOperationStatus(true, response.toString(),
+						response));
+	}
+
+	public void testMergeParts() {
+		Map<String, BTreeGetResult<Long, String>> result =
+			new HashMap<String, BTreeGetResult<Long, String>>();
+		ArcusClient.BTreeGetBulkChunk<Long, String> chunk =
+			new ArcusClient.BTreeGetBulkChunk<Long, String>(result, 2);
+
+		Map<String, BTreeGetResult<Long, String>> second =
+			new HashMap<String, BTreeGetResult<Long, String>>();
+		second.put("k1", result(CollectionResponse.OK, 3, 4));
+		second.put("k2", result(CollectionResponse.TRIMMED, 13));
+		second.put("k3", result(CollectionResponse.NOT_FOUND_ELEMENT));
+		chunk.partDone(1, second);
+		assertTrue("published before all parts are done", result.isEmpty());
+
+		Map<String, BTreeGetResult<Long, String>> first =
+			new HashMap<String, BTreeGetResult<Long, String>>();
+		first.put("k1", result(CollectionResponse.OK, 1, 2));
+		first.put("k2", result(CollectionResponse.OK, 11, 12));
+		first.put("k3", result(CollectionResponse.OK, 21));
+		first.put("k4", result(CollectionResponse.NOT_FOUND));
+		chunk.partDone(0, first);
+
+		assertEquals(4, result.size());
+		assertEquals(4, result.get("k1").getElements().size());
+		assertEquals(CollectionResponse.OK, result.get("k1")
+				.getCollectionResponse().getResponse());
+		assertEquals(3, result.get("k2").getElements().size());
+		assertEquals(CollectionResponse.TRIMMED, result.get("k2")
+				.getCollectionResponse().getResponse());
+		assertEquals(1, result.get("k3").getElements().size());
+		assertEquals(CollectionResponse.OK, result.get("k3")
+				.getCollectionResponse().getResponse());
+		assertNull(result.get("k4").getElements());
+		assertEquals(CollectionResponse.NOT_FOUND, result.get("k4")
+				.getCollectionResponse().getResponse());
+	}
+}
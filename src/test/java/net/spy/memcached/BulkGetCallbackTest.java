@@ -0,0 +1,201 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.ops.GetOperation;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationStatus;
+import net.spy.memcached.protocol.ascii.AsciiOperationFactory;
+import net.spy.memcached.transcoders.Transcoder;
+
+/**
+ * Test the bulk get that gives the values to a callback, without a
+ * server.  The get operations are kept in the queues of the nodes, and
+ * the tests drive their callbacks.
+ */
+public class BulkGetCallbackTest extends TestCase {
+
+	private static final OperationStatus END =
+		new OperationStatus(true, "END");
+
+	private CapturingOperationFactory opFact;
+	private MemcachedClient client;
+	private Transcoder<Object> tc;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		List<InetSocketAddress> addrs = new ArrayList<InetSocketAddress>();
+		// Nothing listens on these, the operations are never sent.
+		addrs.add(new InetSocketAddress("127.0.0.1", 11311));
+		addrs.add(new InetSocketAddress("127.0.0.1", 11312));
+		opFact = new CapturingOperationFactory();
+		client = new MemcachedClient(new ConnectionFactoryBuilder()
+				.setOpFact(opFact)
+				.setFailureMode(FailureMode.Retry)
+				.setMaxGetKeyChunkSize(3)
+				.build(), addrs);
+		tc = client.getTranscoder();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		client.shutdown();
+		super.tearDown();
+	}
+
+	public void testPartialResults() throws Exception {
+		List<String> keys = keys(10);
+		BulkGetResult<Object> rv = new BulkGetResult<Object>(keys);
+		Future<Integer> f = client.asyncGetBulk(keys, tc, rv);
+		assertTrue(opFact.ops.size() >= 4);
+		assertFalse(f.isDone());
+
+		// Only the keys of even numbers are found.
+		for (int i = 0; i < keys.size(); i += 2) {
+			gotData(keys.get(i), "value" + i);
+		}
+		completeAll();
+
+		assertTrue(f.isDone());
+		assertEquals(5, f.get(1, TimeUnit.SECONDS).intValue());
+		for (int i = 0; i < keys.size(); i++) {
+			assertEquals(keys.get(i), rv.getKey(i));
+			assertEquals(i % 2 == 0 ? "value" + i : null, rv.getValue(i));
+		}
+	}
+
+	public void testFailingCallback() throws Exception {
+		List<String> keys = keys(4);
+		final List<String> got =
+			Collections.synchronizedList(new ArrayList<String>());
+		Future<Integer> f = client.asyncGetBulk(keys, tc,
+				new BulkGetCallback<Object>() {
+			public void gotData(String key, Object value) {
+				if (key.equals("key1")) {
+					throw new RuntimeException("Failed on " + key);
+				}
+				got.add(key);
+			}
+		});
+
+		for (String key : keys) {
+			gotData(key, key);
+		}
+		completeAll();
+
+		// The other values are given to the callback anyway.
+		assertEquals(4, f.get(1, TimeUnit.SECONDS).intValue());
+		assertEquals(3, got.size());
+		assertFalse(got.contains("key1"));
+	}
+
+	public void testCancelledOperation() throws Exception {
+		List<String> keys = keys(10);
+		BulkGetResult<Object> rv = new BulkGetResult<Object>(keys);
+		Future<Integer> f = client.asyncGetBulk(keys, tc, rv);
+
+		gotData("key0", "value0");
+		opFact.ops.get(0).cancel();
+		completeAll();
+
+		assertTrue(f.isDone());
+		try {
+			f.get(1, TimeUnit.SECONDS);
+			fail("A cancelled operation should fail the bulk get.");
+		} catch (ExecutionException e) {
+			assertEquals("Cancelled", e.getCause().getMessage());
+		}
+		assertEquals("value0", rv.getValue(0));
+	}
+
+	public void testTimeout() throws Exception {
+		List<String> keys = keys(10);
+		BulkFuture<Integer> f = client.asyncGetBulk(keys, tc,
+				new BulkGetResult<Object>(keys));
+
+		gotData("key0", "value0");
+		// All but one of the operations complete.
+		for (int i = 1; i < opFact.ops.size(); i++) {
+			opFact.callback(i).receivedStatus(END);
+			opFact.callback(i).complete();
+		}
+
+		assertEquals(1, f.getSome(100, TimeUnit.MILLISECONDS).intValue());
+		assertTrue(f.isTimeout());
+	}
+
+	private List<String> keys(int n) {
+		List<String> rv = new ArrayList<String>();
+		for (int i = 0; i < n; i++) {
+			rv.add("key" + i);
+		}
+		return rv;
+	}
+
+	private void gotData(String key, Object value) {
+		CachedData d = tc.encode(value);
+		opFact.callback(0).gotData(key, d.getFlags(), d.getData());
+	}
+
+	private void completeAll() {
+		for (int i = 0; i < opFact.ops.size(); i++) {
+			if (!opFact.ops.get(i).isCancelled()) {
+				opFact.callback(i).receivedStatus(END);
+				opFact.callback(i).complete();
+			}
+		}
+	}
+
+	private static class CapturingOperationFactory
+			extends AsciiOperationFactory {
+
+		final List<Operation> ops =
+			Collections.synchronizedList(new ArrayList<Operation>());
+
+		GetOperation.Callback callback(int i) {
+			return (GetOperation.Callback) ops.get(i).getCallback();
+		}
+
+		@Override
+		public GetOperation get(Collection<String> keys,
+				GetOperation.Callback cb) {
+			GetOperation op = super.get(keys, cb);
+			ops.add(op);
+			return op;
+		}
+
+		@Override
+		public GetOperation mget(Collection<String> keys,
+				GetOperation.Callback cb) {
+			GetOperation op = super.mget(keys, cb);
+			ops.add(op);
+			return op;
+		}
+	}
+}
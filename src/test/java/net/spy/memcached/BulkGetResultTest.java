@@ -0,0 +1,104 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Test the compact container of bulk get results.
+ */
+public class BulkGetResultTest extends TestCase {
+
+	public void testValuesByPosition() {
+		BulkGetResult<String> rv = new BulkGetResult<String>(
+				Arrays.asList("c", "a", "b", "d"));
+		rv.gotData("b", "B");
+		rv.gotData("c", "C");
+
+		assertEquals(4, rv.size());
+		assertEquals("c", rv.getKey(0));
+		assertEquals("C", rv.getValue(0));
+		assertNull(rv.getValue(1));
+		assertEquals("B", rv.getValue(2));
+		assertNull(rv.getValue(3));
+	}
+
+	public void testDuplicateKeys() {
+		BulkGetResult<String> rv = new BulkGetResult<String>(
+				Arrays.asList("a", "b", "a", "a", "c"));
+		rv.gotData("a", "A");
+
+		assertEquals("A", rv.getValue(0));
+		assertNull(rv.getValue(1));
+		assertEquals("A", rv.getValue(2));
+		assertEquals("A", rv.getValue(3));
+		assertNull(rv.getValue(4));
+	}
+
+	public void testSameHash() {
+		// "Aa" and "BB" have the same hash code.
+		BulkGetResult<String> rv = new BulkGetResult<String>(
+				Arrays.asList("Aa", "BB", "Aa"));
+		rv.gotData("BB", "B");
+		assertNull(rv.getValue(0));
+		assertEquals("B", rv.getValue(1));
+		assertNull(rv.getValue(2));
+		rv.gotData("Aa", "A");
+		assertEquals("A", rv.getValue(0));
+		assertEquals("A", rv.getValue(2));
+	}
+
+	public void testManyKeys() {
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++) {
+			keys.add("key" + i);
+		}
+		BulkGetResult<String> rv = new BulkGetResult<String>(keys);
+		for (int i = 0; i < 1000; i += 3) {
+			rv.gotData("key" + i, "value" + i);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i % 3 == 0 ? "value" + i : null, rv.getValue(i));
+		}
+		assertEquals(334, rv.toMap().size());
+	}
+
+	public void testUnknownKey() {
+		BulkGetResult<String> rv = new BulkGetResult<String>(
+				Arrays.asList("a", "b"));
+		rv.gotData("x", "X");
+		assertNull(rv.getValue(0));
+		assertNull(rv.getValue(1));
+		assertTrue(rv.toMap().isEmpty());
+	}
+
+	public void testToMap() {
+		BulkGetResult<String> rv = new BulkGetResult<String>(
+				Arrays.asList("a", "b", "c"));
+		rv.gotData("a", "A");
+		rv.gotData("c", "C");
+		Map<String, String> m = rv.toMap();
+		assertEquals(2, m.size());
+		assertEquals("A", m.get("a"));
+		assertEquals("C", m.get("c"));
+	}
+}
@@ -0,0 +1,334 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.ops.CollectionOperationStatus;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Test the windows of the bulk service without a server.  The operations
+ * are kept by the client instead of being sent, and the tests complete
+ * them.
+ */
+public class BulkServiceTest extends TestCase {
+
+	private static final OperationStatus OK =
+		new OperationStatus(true, "OK");
+	private static final OperationStatus NOT_FOUND =
+		new OperationStatus(false, "NOT_FOUND");
+
+	private CapturingClient client;
+	private final List<BulkService> services = new ArrayList<BulkService>();
+
+	private final BulkService.OperationCreator delete =
+		new BulkService.OperationCreator() {
+		public Operation create(String key, OperationCallback cb) {
+			return client.opFact.delete(key, cb);
+		}
+	};
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		List<InetSocketAddress> addrs = new ArrayList<InetSocketAddress>();
+		// Nothing listens on these, the operations are never sent.
+		addrs.add(new InetSocketAddress("127.0.0.1", 11311));
+		addrs.add(new InetSocketAddress("127.0.0.1", 11312));
+		client = new CapturingClient(addrs);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (BulkService service : services) {
+			service.shutdown();
+		}
+		client.shutdown();
+		super.tearDown();
+	}
+
+	public void testInvalidWindowSize() {
+		try {
+			new BulkService(0, 1000L);
+			fail("A window size of 0 should be rejected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			new BulkService(1, 0L);
+			fail("A single operation timeout of 0 should be rejected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testDefaultLoopLimit() {
+		assertEquals(500, DefaultConnectionFactory.DEFAULT_BULKSERVICE_LOOP_LIMIT);
+		assertEquals(500, new DefaultConnectionFactory().getBulkServiceLoopLimit());
+		assertEquals(500, new ConnectionFactoryBuilder().build()
+				.getBulkServiceLoopLimit());
+	}
+
+	public void testWindowPerNode() throws Exception {
+		List<String> keys = keys(40);
+		Map<MemcachedNode, List<List<String>>> groups = client
+				.getMemcachedConnection().groupKeysByNode(keys,
+						Integer.MAX_VALUE);
+		assertEquals(2, groups.size());
+
+		Future<Map<String, CollectionOperationStatus>> f = service(3).execute(
+				client, keys, delete);
+
+		// Each node gets a full window at first.
+		assertEquals(6, client.ops.size());
+		assertEquals(3, countOf(groups, client.keys));
+		assertFalse(f.isDone());
+
+		// A completed operation lets exactly one more of its node go.
+		String first = client.keys.get(0);
+		complete(client.ops.get(0), OK);
+		assertEquals(7, client.ops.size());
+		assertSameNode(groups, first, client.keys.get(6));
+
+		// Complete everything as it comes.
+		for (int i = 1; i < client.ops.size(); i++) {
+			complete(client.ops.get(i), OK);
+		}
+		assertEquals(keys.size(), client.ops.size());
+		assertTrue(f.isDone());
+		assertTrue(f.get().isEmpty());
+	}
+
+	public void testFailedKeys() throws Exception {
+		List<String> keys = keys(10);
+		Future<Map<String, CollectionOperationStatus>> f = service(2).execute(
+				client, keys, delete);
+
+		for (int i = 0; i < client.ops.size(); i++) {
+			complete(client.ops.get(i), i % 2 == 0 ? OK : NOT_FOUND);
+		}
+		Map<String, CollectionOperationStatus> failed = f.get();
+		assertEquals(keys.size() / 2, failed.size());
+		for (int i = 1; i < client.keys.size(); i += 2) {
+			CollectionOperationStatus status = failed.get(client.keys.get(i));
+			assertNotNull(status);
+			assertFalse(status.isSuccess());
+			assertEquals(CollectionResponse.NOT_FOUND, status.getResponse());
+		}
+	}
+
+	public void testCompletedWhileAdding() throws Exception {
+		// Every operation completes in addOp as if it were cancelled.
+		// The next one must be sent by the loop already running instead of
+		// a nested call from the callback.
+		client.completeOnAdd = true;
+		List<String> keys = keys(10000);
+		Future<Map<String, CollectionOperationStatus>> f = service(1).execute(
+				client, keys, delete);
+
+		assertEquals(keys.size(), client.ops.size());
+		assertEquals(1, client.maxDepth);
+		assertTrue(f.isDone());
+		assertTrue(f.get().isEmpty());
+	}
+
+	public void testAddFailure() throws Exception {
+		client.failOnAdd = true;
+		List<String> keys = keys(10);
+		Future<Map<String, CollectionOperationStatus>> f = service(2).execute(
+				client, keys, delete);
+
+		assertTrue(f.isDone());
+		Map<String, CollectionOperationStatus> failed = f.get();
+		assertEquals(keys.size(), failed.size());
+		for (CollectionOperationStatus status : failed.values()) {
+			assertEquals(CollectionResponse.EXCEPTION, status.getResponse());
+		}
+	}
+
+	public void testCancel() throws Exception {
+		List<String> keys = keys(40);
+		Future<Map<String, CollectionOperationStatus>> f = service(3).execute(
+				client, keys, delete);
+		assertEquals(6, client.ops.size());
+
+		assertTrue(f.cancel(true));
+		assertTrue(f.isCancelled());
+		assertTrue(f.isDone());
+		for (Operation op : client.ops) {
+			assertTrue(op.isCancelled());
+		}
+		// The keys not sent are left alone.
+		assertEquals(6, client.ops.size());
+		try {
+			f.get(1, TimeUnit.SECONDS);
+			fail("A cancelled bulk operation should not give a result.");
+		} catch (ExecutionException e) {
+			assertEquals("Cancelled", e.getCause().getMessage());
+		}
+	}
+
+	public void testTimeout() throws Exception {
+		List<String> keys = keys(10);
+		Future<Map<String, CollectionOperationStatus>> f = service(2).execute(
+				client, keys, delete);
+		try {
+			f.get(100, TimeUnit.MILLISECONDS);
+			fail("The operations were never completed.");
+		} catch (java.util.concurrent.TimeoutException e) {
+			// expected
+		}
+	}
+
+	public void testSingleOpTimeout() throws Exception {
+		// The operations are never completed, so each one is timed out
+		// and lets the next one of its node go.  It takes longer than the
+		// operation timeout of the client, which doesn't bound get().
+		List<String> keys = keys(20);
+		Future<Map<String, CollectionOperationStatus>> f = service(1, 100L)
+				.execute(client, keys, delete);
+
+		Map<String, CollectionOperationStatus> failed = f.get();
+		assertEquals(keys.size(), client.ops.size());
+		assertEquals(keys.size(), failed.size());
+		for (CollectionOperationStatus status : failed.values()) {
+			assertEquals(CollectionResponse.EXCEPTION, status.getResponse());
+		}
+		for (Operation op : client.ops) {
+			assertTrue(op.isCancelled());
+		}
+	}
+
+	public void testCompletedAfterTimeout() throws Exception {
+		List<String> keys = keys(2);
+		Future<Map<String, CollectionOperationStatus>> f = service(1, 100L)
+				.execute(client, keys, delete);
+		Map<String, CollectionOperationStatus> failed = f.get();
+		assertEquals(keys.size(), failed.size());
+
+		// A late response changes nothing.
+		for (Operation op : client.ops) {
+			complete(op, NOT_FOUND);
+		}
+		assertEquals(CollectionResponse.EXCEPTION,
+				failed.get(client.keys.get(0)).getResponse());
+		assertEquals(keys.size(), client.ops.size());
+	}
+
+	private BulkService service(int windowSize) {
+		return service(windowSize, 60000L);
+	}
+
+	private BulkService service(int windowSize, long singleOpTimeout) {
+		BulkService service = new BulkService(windowSize, singleOpTimeout);
+		services.add(service);
+		return service;
+	}
+
+	private List<String> keys(int n) {
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < n; i++) {
+			keys.add("BulkServiceTest" + i);
+		}
+		return keys;
+	}
+
+	private void complete(Operation op, OperationStatus status) {
+		op.getCallback().receivedStatus(status);
+		op.getCallback().complete();
+	}
+
+	private int countOf(Map<MemcachedNode, List<List<String>>> groups,
+			List<String> sent) {
+		int max = 0;
+		for (List<List<String>> chunks : groups.values()) {
+			int n = 0;
+			for (String key : sent) {
+				if (chunks.get(0).contains(key)) {
+					n++;
+				}
+			}
+			assertTrue(n > 0);
+			max = Math.max(max, n);
+		}
+		return max;
+	}
+
+	private void assertSameNode(Map<MemcachedNode, List<List<String>>> groups,
+			String k1, String k2) {
+		for (List<List<String>> chunks : groups.values()) {
+			if (chunks.get(0).contains(k1)) {
+				assertTrue(k2 + " is not on the node of " + k1,
+						chunks.get(0).contains(k2));
+				return;
+			}
+		}
+		fail(k1 + " is not on any node");
+	}
+
+	/**
+	 * Keeps the operations instead of sending them.
+	 */
+	private static class CapturingClient extends MemcachedClient {
+
+		final List<Operation> ops =
+			Collections.synchronizedList(new ArrayList<Operation>());
+		final List<String> keys =
+			Collections.synchronizedList(new ArrayList<String>());
+		boolean completeOnAdd = false;
+		boolean failOnAdd = false;
+		int depth = 0;
+		int maxDepth = 0;
+
+		CapturingClient(List<InetSocketAddress> addrs) throws Exception {
+			super(new DefaultConnectionFactory(), addrs);
+		}
+
+		@Override
+		protected Operation addOp(String key, Operation op) {
+			if (failOnAdd) {
+				throw new IllegalStateException("Timed out waiting to add "
+						+ op);
+			}
+			depth++;
+			maxDepth = Math.max(maxDepth, depth);
+			try {
+				ops.add(op);
+				keys.add(key);
+				if (completeOnAdd) {
+					op.getCallback().receivedStatus(OK);
+					op.getCallback().complete();
+				}
+			} finally {
+				depth--;
+			}
+			return op;
+		}
+	}
+}
@@ -163,4 +163,15 @@ public class CacheMonitorTest extends MockObjectTestCase {
 		// then
 		// do nothing		
 	}
+
+	public void testProcess_nodeDataChanged() throws Exception {
+		// when : the weight of a cache node is changed
+		WatchedEvent event = new WatchedEvent(EventType.NodeDataChanged, KeeperState.SyncConnected, CacheManager.CACHE_LIST_PATH + "dev/127.0.0.1:11211-hostname");
+		
+		// test
+		cacheMonitor.process(event);
+		
+		// then
+		// the cache list is read again
+	}
 }
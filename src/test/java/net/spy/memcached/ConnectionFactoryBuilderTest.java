@@ -103,6 +103,10 @@ public class ConnectionFactoryBuilderTest extends BaseMockCase {
 		assertFalse(f.useNagleAlgorithm());
 		assertEquals(f.getOpQueueMaxBlockTime(),
 				DefaultConnectionFactory.DEFAULT_OP_QUEUE_MAX_BLOCK_TIME);
+		assertEquals(DefaultConnectionFactory.DEFAULT_MAX_GET_KEY_CHUNK_SIZE,
+				f.getMaxGetKeyChunkSize());
+		assertEquals(DefaultConnectionFactory.DEFAULT_MAX_GET_KEY_CHUNK_BYTES,
+				f.getMaxGetKeyChunkBytes());
 	}
 
 	public void testModifications() throws Exception {
@@ -140,6 +144,8 @@ public class ConnectionFactoryBuilderTest extends BaseMockCase {
 			.setLocatorType(Locator.CONSISTENT)
 			.setOpQueueMaxBlockTime(19)
 			.setAuthDescriptor(anAuthDescriptor)
+			.setMaxGetKeyChunkSize(100)
+			.setMaxGetKeyChunkBytes(4096)
 			.build();
 
 		assertEquals(4225, f.getOperationTimeout());
@@ -158,6 +164,8 @@ public class ConnectionFactoryBuilderTest extends BaseMockCase {
 		assertTrue(f.useNagleAlgorithm());
 		assertEquals(f.getOpQueueMaxBlockTime(), 19);
 		assertSame(anAuthDescriptor, f.getAuthDescriptor());
+		assertEquals(100, f.getMaxGetKeyChunkSize());
+		assertEquals(4096, f.getMaxGetKeyChunkBytes());
 
 		MemcachedNode n = new MockMemcachedNode(
 			InetSocketAddress.createUnresolved("localhost", 11211));
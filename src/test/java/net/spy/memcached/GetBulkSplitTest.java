@@ -0,0 +1,80 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Test splitting the keys of a bulk get into get commands of limited size.
+ */
+public class GetBulkSplitTest extends TestCase {
+
+	private List<String> keys(int n) {
+		List<String> rv = new ArrayList<String>();
+		for (int i = 0; i < n; i++) {
+			rv.add("key" + (i % 10));
+		}
+		return rv;
+	}
+
+	public void testNoSplit() {
+		List<Collection<String>> chunks =
+			MemcachedClient.splitGetKeys(keys(10), 10, Integer.MAX_VALUE);
+		assertEquals(1, chunks.size());
+		assertEquals(10, chunks.get(0).size());
+	}
+
+	public void testSplitByKeyCount() {
+		List<Collection<String>> chunks =
+			MemcachedClient.splitGetKeys(keys(25), 10, Integer.MAX_VALUE);
+		assertEquals(3, chunks.size());
+		assertEquals(10, chunks.get(0).size());
+		assertEquals(10, chunks.get(1).size());
+		assertEquals(5, chunks.get(2).size());
+	}
+
+	public void testSplitByKeyBytes() {
+		// "keyN" takes up 5 bytes including the separating space
+		List<Collection<String>> chunks =
+			MemcachedClient.splitGetKeys(keys(10), 100, 20);
+		assertEquals(3, chunks.size());
+		assertEquals(4, chunks.get(0).size());
+		assertEquals(4, chunks.get(1).size());
+		assertEquals(2, chunks.get(2).size());
+	}
+
+	public void testLongKey() {
+		List<String> ks = new ArrayList<String>();
+		ks.add("k");
+		ks.add("a-key-longer-than-the-limit");
+		ks.add("k");
+		List<Collection<String>> chunks =
+			MemcachedClient.splitGetKeys(ks, 100, 10);
+		assertEquals(3, chunks.size());
+		assertEquals("a-key-longer-than-the-limit",
+				chunks.get(1).iterator().next());
+	}
+
+	public void testEmpty() {
+		assertTrue(MemcachedClient.splitGetKeys(new ArrayList<String>(),
+				10, 10).isEmpty());
+	}
+}
@@ -1,5 +1,7 @@
 package net.spy.memcached;
 
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -122,4 +124,22 @@ public class HashAlgorithmTest extends TestCase {
 				Math.abs(me.getValue()));
 		}
 	}
+
+	public void testKetamaHashMatchesMd5() throws Exception {
+		String[] keys = { "", "a", "prefix:key", "\ud55c\uae00:key",
+			"emoji\ud83d\ude00", "broken\ud83d", new String(new char[1000]).replace('\0', 'k') };
+		for (String k : keys) {
+			byte[] md5 = MessageDigest.getInstance("MD5").digest(
+					k.getBytes("UTF-8"));
+			long exp = ((long) (md5[3] & 0xFF) << 24)
+					| ((long) (md5[2] & 0xFF) << 16)
+					| ((long) (md5[1] & 0xFF) << 8)
+					| (md5[0] & 0xFF);
+			assertHash(HashAlgorithm.KETAMA_HASH, k, exp);
+			assertTrue(Arrays.equals(md5, HashAlgorithm.computeMd5(k)));
+		}
+		// the digest returned by computeMd5 is not shared
+		assertNotSame(HashAlgorithm.computeMd5("a"),
+				HashAlgorithm.computeMd5("a"));
+	}
 }
@@ -16,12 +16,26 @@
  */
 package net.spy.memcached;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import junit.framework.TestCase;
+import net.spy.memcached.collection.BTreeDelete;
+import net.spy.memcached.collection.BTreeStore;
+import net.spy.memcached.collection.BTreeUpdate;
+import net.spy.memcached.ops.GetOperation;
+import net.spy.memcached.ops.KeyedOperation;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
+import net.spy.memcached.ops.OperationStatus;
+import net.spy.memcached.ops.StoreType;
+import net.spy.memcached.protocol.ascii.AsciiOperationFactory;
 
 /**
  * Test stuff that can be tested within a MemcachedConnection separately.
@@ -131,4 +145,248 @@ public class MemcachedConnectionTest extends TestCase {
 	public void testAddOperations() throws Exception {
 		
 	}
+
+	public void testGroupKeysByNode() throws Exception {
+		conn.putMemcachedQueue("0.0.0.0:11211,0.0.0.0:11212,0.0.0.0:11213");
+		conn.handleNodeManageQueue();
+
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < 100; i++) {
+			keys.add("key" + i);
+		}
+
+		Map<MemcachedNode, List<List<String>>> groups =
+			conn.groupKeysByNode(keys, 10);
+
+		int count = 0;
+		for (Map.Entry<MemcachedNode, List<List<String>>> e : groups
+				.entrySet()) {
+			List<List<String>> chunks = e.getValue();
+			for (int i = 0; i < chunks.size(); i++) {
+				List<String> chunk = chunks.get(i);
+				assertFalse(chunk.isEmpty());
+				assertTrue(chunk.size() <= 10);
+				if (i < chunks.size() - 1) {
+					assertEquals(10, chunk.size());
+				}
+				for (String k : chunk) {
+					assertSame(locator.getPrimary(k), e.getKey());
+					count++;
+				}
+			}
+		}
+		assertEquals(keys.size(), count);
+	}
+
+	public void testMoveOperationsOfRemovedNode() throws Exception {
+		// nodes never get connected in this test, so redistribute
+		// the operations instead of cancelling them.
+		ConnectionFactory cf = new ConnectionFactoryBuilder()
+			.setFailureMode(FailureMode.Redistribute).build();
+		MemcachedConnection conn = new MemcachedConnection(1024, cf,
+				new ArrayList<InetSocketAddress>(), cf.getInitialObservers(),
+				cf.getFailureMode(), cf.getOperationFactory());
+		NodeLocator locator = conn.getLocator();
+
+		conn.putMemcachedQueue("0.0.0.0:11211,0.0.0.0:11212");
+		conn.handleNodeManageQueue();
+
+		MemcachedNode removed = null;
+		for (MemcachedNode node : locator.getAll()) {
+			if (((InetSocketAddress) node.getSocketAddress()).getPort() == 11212) {
+				removed = node;
+			}
+		}
+		assertNotNull(removed);
+
+		OperationFactory of = new AsciiOperationFactory();
+		GetOperation.Callback cb = new GetOperation.Callback() {
+			public void receivedStatus(OperationStatus status) {
+			}
+			public void gotData(String key, int flags, byte[] data) {
+			}
+			public void complete() {
+			}
+		};
+		for (int i = 0; i < 10; i++) {
+			Operation op = of.get("key" + i, cb);
+			op.initialize();
+			removed.addOp(op);
+		}
+		Operation cancelled = of.get("cancelled", cb);
+		cancelled.initialize();
+		removed.addOp(cancelled);
+		cancelled.cancel();
+
+		conn.putMemcachedQueue("0.0.0.0:11211");
+		conn.handleNodeManageQueue();
+
+		assertEquals(1, locator.getAll().size());
+		MemcachedNode remaining = locator.getAll().iterator().next();
+		List<String> keys = new ArrayList<String>();
+		for (Operation op : remaining.destroyInputQueue()) {
+			if (op instanceof GetOperation) {
+				keys.addAll(((GetOperation) op).getKeys());
+			}
+		}
+		assertEquals(10, keys.size());
+		assertFalse(keys.contains("cancelled"));
+		assertTrue(removed.destroyInputQueue().isEmpty());
+		conn.shutdown();
+	}
+
+	public void testMovePipedOperationsOfRemovedNode() throws Exception {
+		ConnectionFactory cf = new ConnectionFactoryBuilder()
+			.setFailureMode(FailureMode.Redistribute).build();
+		MemcachedConnection conn = new MemcachedConnection(1024, cf,
+				new ArrayList<InetSocketAddress>(), cf.getInitialObservers(),
+				cf.getFailureMode(), cf.getOperationFactory());
+		NodeLocator locator = conn.getLocator();
+
+		conn.putMemcachedQueue("0.0.0.0:11211,0.0.0.0:11212");
+		conn.handleNodeManageQueue();
+
+		MemcachedNode removed = null;
+		for (MemcachedNode node : locator.getAll()) {
+			if (((InetSocketAddress) node.getSocketAddress()).getPort() == 11212) {
+				removed = node;
+			}
+		}
+		assertNotNull(removed);
+
+		OperationFactory of = new AsciiOperationFactory();
+		OperationCallback cb = new OperationCallback() {
+			public void receivedStatus(OperationStatus status) {
+			}
+			public void complete() {
+			}
+		};
+
+		// a store that fills up the write buffer exactly, so the
+		// collection operations after it are folded into a pipe that
+		// is not written yet.
+		int capacity = removed.getWbuf().capacity();
+		Operation first = null;
+		for (int len = capacity; first == null; len--) {
+			Operation op = of.store(StoreType.set, "first", 0, 0,
+					new byte[len], cb);
+			op.initialize();
+			if (op.getBuffer().remaining() == capacity) {
+				first = op;
+			}
+		}
+		removed.addOp(first);
+
+		List<Operation> folded = new ArrayList<Operation>();
+		folded.add(of.collectionStore("key1", "1",
+				new BTreeStore<Object>("v", null, false, null, null),
+				"v".getBytes(), cb));
+		folded.add(of.collectionUpdate("key2", "2",
+				new BTreeUpdate<Object>("v", null, false), "v".getBytes(), cb));
+		folded.add(of.collectionDelete("key3",
+				new BTreeDelete<Object>(3, false), cb));
+		for (Operation op : folded) {
+			op.initialize();
+			removed.addOp(op);
+		}
+		removed.copyInputQueue();
+		removed.fillWriteBuffer(true);
+		assertNotNull(removed.getCurrentWriteOp());
+		assertFalse(folded.contains(removed.getCurrentWriteOp()));
+
+		conn.putMemcachedQueue("0.0.0.0:11211");
+		conn.handleNodeManageQueue();
+
+		MemcachedNode remaining = locator.getAll().iterator().next();
+		List<String> keys = new ArrayList<String>();
+		for (Operation op : remaining.destroyInputQueue()) {
+			keys.addAll(((KeyedOperation) op).getKeys());
+		}
+		assertEquals(Arrays.asList("key1", "key2", "key3"), keys);
+		for (Operation op : folded) {
+			assertFalse(op.isCancelled());
+		}
+		conn.shutdown();
+	}
+
+	public void testPlaceOperationByFailureMode() throws Exception {
+		// nodes never get connected in this test, so they are inactive.
+		OperationFactory of = new AsciiOperationFactory();
+		OperationCallback cb = new OperationCallback() {
+			public void receivedStatus(OperationStatus status) {
+			}
+			public void complete() {
+			}
+		};
+		for (FailureMode mode : FailureMode.values()) {
+			ConnectionFactory cf = new ConnectionFactoryBuilder()
+				.setFailureMode(mode).build();
+			MemcachedConnection conn = new MemcachedConnection(1024, cf,
+					new ArrayList<InetSocketAddress>(), cf.getInitialObservers(),
+					cf.getFailureMode(), cf.getOperationFactory());
+			conn.putMemcachedQueue("0.0.0.0:11211");
+			conn.handleNodeManageQueue();
+
+			Operation op = of.delete("key", cb);
+			MemcachedNode node = conn.placeOperation("key", op);
+			if (mode == FailureMode.Cancel) {
+				assertNull(node);
+				assertTrue(op.isCancelled());
+			} else {
+				assertSame(conn.getLocator().getPrimary("key"), node);
+				assertFalse(op.isCancelled());
+			}
+			conn.shutdown();
+		}
+	}
+
+	public void testJoinAfterConnected() throws Exception {
+		InetAddress localhost = InetAddress.getByName("127.0.0.1");
+		ServerSocket first = new ServerSocket(0, 50, localhost);
+		ServerSocket second = new ServerSocket(0, 50, localhost);
+		ServerSocket closed = new ServerSocket(0, 50, localhost);
+		closed.close();
+		String firstAddr = "127.0.0.1:" + first.getLocalPort();
+		String secondAddr = "127.0.0.1:" + second.getLocalPort();
+		String closedAddr = "127.0.0.1:" + closed.getLocalPort();
+
+		try {
+			// joins at once as there's no node to serve the keys.
+			conn.putMemcachedQueue(firstAddr);
+			conn.handleNodeManageQueue();
+			assertEquals(1, locator.getAll().size());
+			MemcachedNode node = locator.getAll().iterator().next();
+			for (int i = 0; i < 100 && !node.isActive(); i++) {
+				conn.handleIO();
+			}
+			assertTrue(node.isActive());
+
+			// a node that can't be connected waits for joining.
+			conn.putMemcachedQueue(firstAddr + "," + closedAddr);
+			conn.handleNodeManageQueue();
+			assertEquals(1, locator.getAll().size());
+			assertEquals(1, conn.getJoiningNodes().size());
+
+			// and it's dropped when removed before joining.
+			conn.putMemcachedQueue(firstAddr);
+			conn.handleNodeManageQueue();
+			assertEquals(1, locator.getAll().size());
+			assertTrue(conn.getJoiningNodes().isEmpty());
+
+			// a node joins after it gets connected.
+			conn.putMemcachedQueue(firstAddr + "," + secondAddr);
+			conn.handleNodeManageQueue();
+			for (int i = 0; i < 100 && !conn.getJoiningNodes().isEmpty(); i++) {
+				conn.handleIO();
+			}
+			assertTrue(conn.getJoiningNodes().isEmpty());
+			assertEquals(2, locator.getAll().size());
+			for (MemcachedNode each : locator.getAll()) {
+				assertTrue(each.isActive());
+			}
+		} finally {
+			first.close();
+			second.close();
+		}
+	}
 }
@@ -118,10 +118,18 @@ public class MockMemcachedNode implements MemcachedNode {
 		return null;
 	}
 
+	public Collection<Operation> destroyWriteQueue() {
+		return null;
+	}
+
 	public void authComplete() {
 		// noop
 	}
 
+	public boolean isAuthenticated() {
+		return true;
+	}
+
 	public void setupForAuth() {
 		// noop
 	}
@@ -146,4 +154,16 @@ public class MockMemcachedNode implements MemcachedNode {
 	public String getStatus() {
 		return "MOCK_STATE";
 	}
-}
\ No newline at end of file
+
+	public void setVersion(String version) {
+		// noop
+	}
+
+	public String getVersion() {
+		return null;
+	}
+
+	public boolean enabledMGetOp() {
+		return false;
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import net.spy.memcached.ops.CancelledOperationStatus;
+import net.spy.memcached.ops.MutatorOperation;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationStatus;
+import net.spy.memcached.ops.StoreOperation;
+
+/**
+ * Test the steps of a counter mutation with a default value without
+ * a server.  The operations are kept by the client instead of being
+ * sent, and the tests give them the responses.
+ */
+public class MutateWithDefaultChainTest extends TestCase {
+
+	private static final OperationStatus NOT_FOUND =
+		new OperationStatus(false, "NOT_FOUND");
+	private static final OperationStatus STORED =
+		new OperationStatus(true, "STORED");
+	private static final OperationStatus NOT_STORED =
+		new OperationStatus(false, "NOT_STORED");
+
+	private CapturingClient client;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		List<InetSocketAddress> addrs = new ArrayList<InetSocketAddress>();
+		// Nothing listens on this, the operations are never sent.
+		addrs.add(new InetSocketAddress("127.0.0.1", 11311));
+		client = new CapturingClient(addrs);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		client.shutdown();
+		super.tearDown();
+	}
+
+	public void testExistingCounter() throws Exception {
+		Future<Long> f = client.asyncIncr("counter", 1, 10, 0);
+		respond(0, new OperationStatus(true, "6"));
+
+		assertEquals(6L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(1, client.ops.size());
+	}
+
+	public void testAddedDefault() throws Exception {
+		Future<Long> f = client.asyncIncr("counter", 1, 10, 0);
+		assertFalse(f.isDone());
+
+		respond(0, NOT_FOUND);
+		assertEquals(2, client.ops.size());
+		assertTrue(client.ops.get(1) instanceof StoreOperation);
+		assertFalse(f.isDone());
+
+		respond(1, STORED);
+		assertEquals(10L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(2, client.ops.size());
+	}
+
+	public void testAddedByOthers() throws Exception {
+		Future<Long> f = client.asyncDecr("counter", 2, 10, 0);
+
+		respond(0, NOT_FOUND);
+		// Someone else adds the counter before the default is stored.
+		respond(1, NOT_STORED);
+		assertEquals(3, client.ops.size());
+		assertTrue(client.ops.get(2) instanceof MutatorOperation);
+		assertFalse(f.isDone());
+
+		respond(2, new OperationStatus(true, "5"));
+		assertEquals(5L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(3, client.ops.size());
+	}
+
+	public void testRemovedAgain() throws Exception {
+		Future<Long> f = client.asyncIncr("counter", 1, 10, 0);
+
+		respond(0, NOT_FOUND);
+		respond(1, NOT_STORED);
+		// The counter is gone again, so no more steps are taken.
+		respond(2, NOT_FOUND);
+		assertEquals(-1L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(3, client.ops.size());
+	}
+
+	public void testOtherFailure() throws Exception {
+		Future<Long> f = client.asyncIncr("counter", 1, 10, 0);
+
+		respond(0, new OperationStatus(false,
+				"CLIENT_ERROR cannot increment or decrement non-numeric value"));
+		assertEquals(-1L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(1, client.ops.size());
+	}
+
+	public void testCancelledAdd() throws Exception {
+		Future<Long> f = client.asyncIncr("counter", 1, 10, 0);
+
+		respond(0, NOT_FOUND);
+		respond(1, new CancelledOperationStatus());
+		assertEquals(-1L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(2, client.ops.size());
+	}
+
+	public void testFailedAdd() throws Exception {
+		Future<Long> f = client.asyncIncr("counter", 1, 10, 0);
+
+		client.failOnAdd = true;
+		respond(0, NOT_FOUND);
+		assertEquals(-1L, f.get(1, TimeUnit.SECONDS).longValue());
+		assertEquals(1, client.ops.size());
+	}
+
+	private void respond(int i, OperationStatus status) {
+		Operation op = client.ops.get(i);
+		op.getCallback().receivedStatus(status);
+		op.getCallback().complete();
+	}
+
+	private static class CapturingClient extends MemcachedClient {
+
+		final List<Operation> ops =
+			Collections.synchronizedList(new ArrayList<Operation>());
+		volatile boolean failOnAdd = false;
+
+		CapturingClient(List<InetSocketAddress> addrs) throws Exception {
+			super(new DefaultConnectionFactory(), addrs);
+		}
+
+		@Override
+		protected Operation addOp(String key, Operation op) {
+			if (failOnAdd) {
+				throw new IllegalStateException("Timed out waiting to add "
+						+ op);
+			}
+			ops.add(op);
+			return op;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import net.spy.memcached.ops.GetsOperation;
+import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Test the gets command with multiple keys.
+ */
+public class GetsOperationImplTest extends TestCase {
+
+	private final AsciiOperationFactory ofact = new AsciiOperationFactory();
+
+	private final Map<String, Long> gotCas = new HashMap<String, Long>();
+
+	private GetsOperation gets(String... keys) {
+		GetsOperation op = ofact.gets(Arrays.asList(keys),
+				new GetsOperation.Callback() {
+			public void receivedStatus(OperationStatus status) {
+				// nothing
+			}
+			public void gotData(String key, int flags, long cas, byte[] data) {
+				gotCas.put(key, cas);
+			}
+			public void complete() {
+				// nothing
+			}
+		});
+		op.initialize();
+		return op;
+	}
+
+	private static String asString(ByteBuffer b) {
+		byte[] bytes = new byte[b.remaining()];
+		b.duplicate().get(bytes);
+		return new String(bytes);
+	}
+
+	public void testCommand() {
+		assertEquals("gets k1\r\n",
+				asString(((OperationImpl) gets("k1")).getBuffer()));
+
+		String cmd = asString(((OperationImpl) gets("k1", "key2"))
+				.getBuffer());
+		assertTrue(cmd, cmd.equals("gets k1 key2\r\n")
+				|| cmd.equals("gets key2 k1\r\n"));
+	}
+
+	public void testResponse() throws Exception {
+		OperationImpl op = (OperationImpl) gets("k1", "k2");
+		op.writeComplete();
+		op.readFromBuffer(ByteBuffer.wrap(
+				"VALUE k1 0 2 10\r\nv1\r\nVALUE k2 0 2 20\r\nv2\r\nEND\r\n"
+					.getBytes()));
+		assertSame(OperationState.COMPLETE, op.getState());
+		assertEquals(Long.valueOf(10), gotCas.get("k1"));
+		assertEquals(Long.valueOf(20), gotCas.get("k2"));
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import junit.framework.TestCase;
+import net.spy.memcached.DefaultConnectionFactory;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.ops.GetOperation;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Test the mget command.
+ */
+public class MGetOperationImplTest extends TestCase {
+
+	private final AsciiOperationFactory ofact = new AsciiOperationFactory();
+
+	private final List<String> gotKeys = new ArrayList<String>();
+
+	private GetOperation mget(String... keys) {
+		GetOperation op = ofact.mget(Arrays.asList(keys),
+				new GetOperation.Callback() {
+			public void receivedStatus(OperationStatus status) {
+				// nothing
+			}
+			public void gotData(String key, int flags, byte[] data) {
+				gotKeys.add(key);
+			}
+			public void complete() {
+				// nothing
+			}
+		});
+		op.initialize();
+		return op;
+	}
+
+	private static String asString(ByteBuffer b) {
+		byte[] bytes = new byte[b.remaining()];
+		b.duplicate().get(bytes);
+		return new String(bytes);
+	}
+
+	public void testCommand() {
+		GetOperation op = mget("k1", "key2", "k3");
+		assertEquals("mget 10 3\r\nk1 key2 k3\r\n",
+				asString(((OperationImpl) op).getBuffer()));
+	}
+
+	public void testSingleKey() {
+		GetOperation op = mget("k1");
+		assertEquals("mget 2 1\r\nk1\r\n",
+				asString(((OperationImpl) op).getBuffer()));
+	}
+
+	public void testResponse() throws Exception {
+		OperationImpl op = (OperationImpl) mget("k1", "k2");
+		op.writeComplete();
+		op.readFromBuffer(ByteBuffer.wrap(
+				"VALUE k1 0 2\r\nv1\r\nVALUE k2 0 2\r\nv2\r\nEND\r\n"
+					.getBytes()));
+		assertSame(OperationState.COMPLETE, op.getState());
+		assertEquals(Arrays.asList("k1", "k2"), gotKeys);
+	}
+
+	public void testNotOptimized() {
+		assertFalse(mget("k1") instanceof GetOperationImpl);
+	}
+
+	public void testClone() {
+		Collection<Operation> clones = ofact.clone(mget("k1", "k2"));
+		assertEquals(2, clones.size());
+		for (Operation clone : clones) {
+			assertTrue(clone instanceof MGetOperationImpl);
+			assertEquals(1, ((GetOperation) clone).getKeys().size());
+		}
+	}
+
+	public void testServerVersion() throws Exception {
+		SocketChannel sc = SocketChannel.open();
+		try {
+			MemcachedNode node = new DefaultConnectionFactory()
+				.createMemcachedNode(
+					InetSocketAddress.createUnresolved("localhost", 11211),
+					sc, 1);
+			assertNull(node.getVersion());
+			assertFalse(node.enabledMGetOp());
+
+			node.setVersion("1.7.0");
+			assertEquals("1.7.0", node.getVersion());
+			assertFalse(node.enabledMGetOp());
+
+			node.setVersion("1.11.3");
+			assertTrue(node.enabledMGetOp());
+
+			node.setVersion("1.12.0-rc");
+			assertTrue(node.enabledMGetOp());
+
+			node.setVersion("unknown");
+			assertFalse(node.enabledMGetOp());
+		} finally {
+			sc.close();
+		}
+	}
+}
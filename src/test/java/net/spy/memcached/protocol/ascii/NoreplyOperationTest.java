@@ -0,0 +1,124 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+import net.spy.memcached.collection.BTreeDelete;
+import net.spy.memcached.collection.BTreeStore;
+import net.spy.memcached.collection.BTreeUpdate;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.collection.RequestMode;
+import net.spy.memcached.ops.CollectionOperationStatus;
+import net.spy.memcached.ops.Mutator;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
+import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.OperationStatus;
+import net.spy.memcached.ops.StoreType;
+
+/**
+ * Test operations sent with noreply.
+ */
+public class NoreplyOperationTest extends TestCase {
+
+	private final AsciiOperationFactory ofact = new AsciiOperationFactory();
+
+	private OperationStatus status = null;
+	private boolean completed = false;
+
+	private final OperationCallback cb = new OperationCallback() {
+		public void receivedStatus(OperationStatus s) {
+			status = s;
+		}
+		public void complete() {
+			completed = true;
+		}
+	};
+
+	private static String command(Operation op) {
+		op.initialize();
+		ByteBuffer b = op.getBuffer();
+		byte[] bytes = new byte[b.remaining()];
+		b.duplicate().get(bytes);
+		return new String(bytes);
+	}
+
+	public void testStore() {
+		assertEquals("set k 1 10 1 noreply\r\nv\r\n", command(ofact.store(
+				StoreType.set, "k", 1, 10, "v".getBytes(), true, cb)));
+		assertEquals("set k 1 10 1\r\nv\r\n", command(ofact.store(
+				StoreType.set, "k", 1, 10, "v".getBytes(), false, cb)));
+	}
+
+	public void testDelete() {
+		assertEquals("delete k noreply\r\n",
+				command(ofact.delete("k", true, cb)));
+		assertEquals("delete k\r\n", command(ofact.delete("k", cb)));
+	}
+
+	public void testMutate() {
+		assertEquals("incr k 2 noreply\r\n", command(ofact.mutate(
+				Mutator.incr, "k", 2, -1, 0, true, cb)));
+	}
+
+	public void testCollectionOperations() {
+		assertEquals("bop insert k 1 1 noreply\r\nv\r\n",
+				command(ofact.collectionStore("k", "1",
+						new BTreeStore<Object>("v", null, false,
+								RequestMode.NO_REPLY, null),
+						"v".getBytes(), cb)));
+		assertEquals("bop delete k 1 drop noreply\r\n",
+				command(ofact.collectionDelete("k",
+						new BTreeDelete<Object>(1, true, true, null), cb)));
+		assertEquals("bop update k 1 1 noreply\r\nv\r\n",
+				command(ofact.collectionUpdate("k", "1",
+						new BTreeUpdate<Object>("v", null, true),
+						"v".getBytes(), cb)));
+		assertEquals("bop update k 1 1\r\nv\r\n",
+				command(ofact.collectionUpdate("k", "1",
+						new BTreeUpdate<Object>("v", null, false),
+						"v".getBytes(), cb)));
+	}
+
+	public void testCompleteOnWrite() {
+		Operation op = ofact.collectionStore("k", "1",
+				new BTreeStore<Object>("v", null, false,
+						RequestMode.NO_REPLY, null),
+				"v".getBytes(), cb);
+		op.initialize();
+		assertTrue(op.isNoreply());
+		op.writeComplete();
+
+		assertSame(OperationState.COMPLETE, op.getState());
+		assertTrue(completed);
+		assertTrue(status.isSuccess());
+		assertEquals(CollectionResponse.NOREPLY,
+				((CollectionOperationStatus) status).getResponse());
+	}
+
+	public void testReadAfterWrite() {
+		Operation op = ofact.delete("k", cb);
+		op.initialize();
+		assertFalse(op.isNoreply());
+		op.writeComplete();
+
+		assertSame(OperationState.READING, op.getState());
+		assertFalse(completed);
+	}
+}
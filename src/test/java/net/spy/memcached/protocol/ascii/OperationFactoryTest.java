@@ -1,9 +1,17 @@
 package net.spy.memcached.protocol.ascii;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 import net.spy.memcached.OperationFactory;
 import net.spy.memcached.OperationFactoryTestBase;
+import net.spy.memcached.ops.GetsOperation;
 import net.spy.memcached.ops.MutatorOperation;
 import net.spy.memcached.ops.Mutator;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationStatus;
 
 public class OperationFactoryTest extends OperationFactoryTestBase {
 
@@ -46,4 +54,37 @@ public class OperationFactoryTest extends OperationFactoryTestBase {
 		assertCallback(op2);
 	}
 
+	public void testMultipleGetsOperationCloning() {
+		Collection<String> keys = Arrays.asList("k1", "k2", "k3");
+		final List<String> gotKeys = new ArrayList<String>();
+		final int[] completed = new int[1];
+		GetsOperation op = ofact.gets(keys, new GetsOperation.Callback() {
+			public void receivedStatus(OperationStatus status) {
+				// nothing
+			}
+			public void gotData(String key, int flags, long cas, byte[] data) {
+				gotKeys.add(key);
+			}
+			public void complete() {
+				completed[0]++;
+			}
+		});
+
+		Collection<Operation> ops = ofact.clone(op);
+		assertEquals(3, ops.size());
+
+		// the original callback completes once, after all the clones.
+		for(Operation o : ops) {
+			GetsOperation go = (GetsOperation)o;
+			assertEquals(1, go.getKeys().size());
+			GetsOperation.Callback cb = (GetsOperation.Callback)o.getCallback();
+			cb.gotData(go.getKeys().iterator().next(), 0, 1, new byte[3]);
+			assertEquals(0, completed[0]);
+			cb.receivedStatus(new OperationStatus(true, "END"));
+			cb.complete();
+		}
+		assertEquals(1, completed[0]);
+		assertEquals(3, gotKeys.size());
+	}
+
 }
@@ -0,0 +1,74 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import net.spy.memcached.ops.GetOperation;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Test limiting the size of an optimized get.
+ */
+public class OptimizedGetImplTest extends TestCase {
+
+	private final AsciiOperationFactory ofact = new AsciiOperationFactory();
+
+	private GetOperation get(String... keys) {
+		return ofact.get(Arrays.asList(keys), new GetOperation.Callback() {
+			public void receivedStatus(OperationStatus status) {
+				// nothing
+			}
+			public void gotData(String key, int flags, byte[] data) {
+				// nothing
+			}
+			public void complete() {
+				// nothing
+			}
+		});
+	}
+
+	public void testHasRoomForKeys() {
+		OptimizedGetImpl og = new OptimizedGetImpl(get("k1", "k2"));
+		assertTrue(og.hasRoomFor(get("k3"), 3, Integer.MAX_VALUE));
+		assertFalse(og.hasRoomFor(get("k3", "k4"), 3, Integer.MAX_VALUE));
+		// duplicated keys are sent once
+		assertTrue(og.hasRoomFor(get("k1", "k3"), 3, Integer.MAX_VALUE));
+	}
+
+	public void testHasRoomForBytes() {
+		OptimizedGetImpl og = new OptimizedGetImpl(get("k1", "k2"));
+		og.addOperation(get("k2"));
+		assertTrue(og.hasRoomFor(get("k3"), 100, 9));
+		assertFalse(og.hasRoomFor(get("k3"), 100, 8));
+		assertTrue(og.hasRoomFor(get("k1"), 100, 6));
+	}
+
+	public void testCommand() {
+		OptimizedGetImpl og = new OptimizedGetImpl(get("k1"));
+		og.addOperation(get("k2"));
+		og.initialize();
+		ByteBuffer b = og.getBuffer();
+		byte[] bytes = new byte[b.remaining()];
+		b.get(bytes);
+		String cmd = new String(bytes);
+		assertTrue(cmd, cmd.equals("get k1 k2\r\n")
+				|| cmd.equals("get k2 k1\r\n"));
+	}
+}
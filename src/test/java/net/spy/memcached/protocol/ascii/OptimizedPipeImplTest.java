@@ -0,0 +1,178 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.protocol.ascii;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import net.spy.memcached.collection.BTreeDelete;
+import net.spy.memcached.collection.BTreeStore;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.collection.RequestMode;
+import net.spy.memcached.collection.SetStore;
+import net.spy.memcached.ops.CollectionOperationStatus;
+import net.spy.memcached.ops.Operation;
+import net.spy.memcached.ops.OperationCallback;
+import net.spy.memcached.ops.OperationState;
+import net.spy.memcached.ops.OperationStatus;
+
+/**
+ * Test folding collection operations into a piped command.
+ */
+public class OptimizedPipeImplTest extends TestCase {
+
+	private final AsciiOperationFactory ofact = new AsciiOperationFactory();
+
+	private final List<OperationStatus> statuses =
+		new ArrayList<OperationStatus>();
+	private int completed = 0;
+
+	private OperationCallback newCallback() {
+		return new OperationCallback() {
+			public void receivedStatus(OperationStatus status) {
+				statuses.add(status);
+			}
+			public void complete() {
+				completed++;
+			}
+		};
+	}
+
+	private Operation bopInsert(String key, long bkey, RequestMode mode) {
+		Operation op = ofact.collectionStore(key, String.valueOf(bkey),
+				new BTreeStore<Object>("v", null, false, mode, null),
+				"v".getBytes(), newCallback());
+		op.initialize();
+		return op;
+	}
+
+	private Operation sopInsert(String key) {
+		Operation op = ofact.collectionStore(key, "",
+				new SetStore<Object>("v", true, null, null),
+				"v".getBytes(), newCallback());
+		op.initialize();
+		return op;
+	}
+
+	private Operation bopDelete(String key, long bkey) {
+		Operation op = ofact.collectionDelete(key,
+				new BTreeDelete<Object>(bkey, false), newCallback());
+		op.initialize();
+		return op;
+	}
+
+	private static String asString(ByteBuffer b) {
+		byte[] bytes = new byte[b.remaining()];
+		b.duplicate().get(bytes);
+		return new String(bytes);
+	}
+
+	public void testPipelinable() {
+		assertTrue(OptimizedPipeImpl.isPipelinable(bopInsert("k", 1, null)));
+		assertTrue(OptimizedPipeImpl.isPipelinable(sopInsert("k")));
+		assertTrue(OptimizedPipeImpl.isPipelinable(bopDelete("k", 1)));
+		assertFalse(OptimizedPipeImpl.isPipelinable(
+				bopInsert("k", 1, RequestMode.GET_TRIM)));
+		assertFalse(OptimizedPipeImpl.isPipelinable(
+				bopInsert("k", 1, RequestMode.NO_REPLY)));
+		assertFalse(OptimizedPipeImpl.isPipelinable(null));
+	}
+
+	public void testPipedCommand() {
+		Operation first = bopInsert("k1", 1, null);
+		Operation second = sopInsert("k2");
+		Operation third = bopDelete("k3", 3);
+		String expected = asString(first.getBuffer()).replaceFirst("\r\n",
+				" pipe\r\n")
+			+ asString(second.getBuffer()).replaceFirst("\r\n", " pipe\r\n")
+			+ asString(third.getBuffer());
+
+		OptimizedPipeImpl op = new OptimizedPipeImpl(first);
+		op.addOperation(second);
+		op.addOperation(third);
+		op.initialize();
+
+		assertEquals(3, op.size());
+		assertEquals(expected, asString(op.getBuffer()));
+		assertTrue(asString(op.getBuffer()).startsWith(
+				"bop insert k1 1 1 pipe\r\nv\r\n"));
+	}
+
+	public void testResponses() throws Exception {
+		Operation first = bopInsert("k1", 1, null);
+		Operation second = bopInsert("k2", 2, null);
+		Operation third = bopDelete("k3", 3);
+
+		OptimizedPipeImpl op = new OptimizedPipeImpl(first);
+		op.addOperation(second);
+		op.addOperation(third);
+		op.initialize();
+		op.writeComplete();
+
+		op.readFromBuffer(ByteBuffer.wrap(("RESPONSE 3\r\nSTORED\r\n"
+				+ "NOT_FOUND\r\nDELETED\r\nEND\r\n").getBytes()));
+
+		assertSame(OperationState.COMPLETE, op.getState());
+		assertEquals(3, statuses.size());
+		assertEquals(CollectionResponse.STORED,
+			((CollectionOperationStatus) statuses.get(0)).getResponse());
+		assertEquals(CollectionResponse.NOT_FOUND,
+			((CollectionOperationStatus) statuses.get(1)).getResponse());
+		assertEquals(CollectionResponse.DELETED,
+			((CollectionOperationStatus) statuses.get(2)).getResponse());
+		assertEquals(3, completed);
+		assertSame(OperationState.COMPLETE, first.getState());
+		assertSame(OperationState.COMPLETE, second.getState());
+		assertSame(OperationState.COMPLETE, third.getState());
+	}
+
+	public void testPipeError() throws Exception {
+		Operation first = bopInsert("k1", 1, null);
+		Operation second = bopInsert("k2", 2, null);
+
+		OptimizedPipeImpl op = new OptimizedPipeImpl(first);
+		op.addOperation(second);
+		op.initialize();
+		op.writeComplete();
+
+		op.readFromBuffer(ByteBuffer.wrap(
+				"STORED\r\nPIPE_ERROR command overflow\r\n".getBytes()));
+
+		assertSame(OperationState.COMPLETE, op.getState());
+		assertSame(OperationState.COMPLETE, first.getState());
+		assertFalse(first.isCancelled());
+		assertTrue(second.isCancelled());
+		assertEquals(2, completed);
+	}
+
+	public void testSingleOperation() throws Exception {
+		Operation first = bopInsert("k1", 1, null);
+
+		OptimizedPipeImpl op = new OptimizedPipeImpl(first);
+		op.initialize();
+		assertEquals(asString(first.getBuffer()), asString(op.getBuffer()));
+		op.writeComplete();
+
+		op.readFromBuffer(ByteBuffer.wrap("CREATED_STORED\r\n".getBytes()));
+
+		assertSame(OperationState.COMPLETE, op.getState());
+		assertSame(OperationState.COMPLETE, first.getState());
+		assertEquals(1, completed);
+	}
+}
@@ -1,14 +1,23 @@
 package net.spy.memcached.util;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
 import net.spy.memcached.compat.BaseMockCase;
 import net.spy.memcached.internal.ImmediateFuture;
 
@@ -65,6 +74,179 @@ public class CacheLoaderTest extends BaseMockCase {
 		assertEquals(1, sl.failure);
 	}
 
+	public void testWindowedLoading() throws Exception {
+		Mock m = mock(MemcachedClientIF.class);
+		Mock locator = mock(NodeLocator.class);
+		Mock node = mock(MemcachedNode.class);
+
+		LoadCounter sl = new LoadCounter();
+		CacheLoader cl = new CacheLoader((MemcachedClientIF)m.proxy(),
+				null, sl, 0);
+
+		m.expects(once()).method("getNodeLocator")
+			.will(returnValue(locator.proxy()));
+		locator.expects(atLeastOnce()).method("getPrimary")
+			.will(returnValue(node.proxy()));
+		node.expects(atLeastOnce()).method("getSocketAddress")
+			.will(returnValue(new InetSocketAddress("localhost", 11211)));
+		m.expects(once()).method("set").with(eq("a"), eq(0), eq(1))
+			.will(returnValue(new ImmediateFuture(true)));
+		m.expects(once()).method("set").with(eq("b"), eq(0), eq(2))
+			.will(returnValue(new ImmediateFuture(new RuntimeException("blah"))));
+		m.expects(once()).method("set").with(eq("c"), eq(0), eq(3))
+			.will(returnValue(new ImmediateFuture(false)));
+
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+
+		// All the stores are done when it returns.
+		assertEquals(2, cl.loadData(map.entrySet().iterator(), 2, 0));
+
+		assertEquals(1, sl.success);
+		assertEquals(1, sl.exceptions);
+		assertEquals(1, sl.failure);
+	}
+
+	public void testWindowsBySocketAddress() throws Exception {
+		Mock m = mock(MemcachedClientIF.class);
+		Mock locator = mock(NodeLocator.class);
+		// The locator gives another copy of the node for each lookup.
+		SocketAddress sa = new InetSocketAddress("localhost", 11211);
+		Mock node1 = mock(MemcachedNode.class);
+		Mock node2 = mock(MemcachedNode.class);
+		node1.expects(atLeastOnce()).method("getSocketAddress")
+			.will(returnValue(sa));
+		node2.expects(atLeastOnce()).method("getSocketAddress")
+			.will(returnValue(sa));
+
+		EventRecorder events = new EventRecorder();
+		CacheLoader cl = new CacheLoader((MemcachedClientIF)m.proxy(),
+				null, new LoadCounter(), 0);
+
+		m.expects(once()).method("getNodeLocator")
+			.will(returnValue(locator.proxy()));
+		locator.expects(once()).method("getPrimary").with(eq("a"))
+			.will(returnValue(node1.proxy()));
+		locator.expects(once()).method("getPrimary").with(eq("b"))
+			.will(returnValue(node2.proxy()));
+		locator.expects(once()).method("getPrimary").with(eq("c"))
+			.will(returnValue(node1.proxy()));
+		m.expects(once()).method("set").with(eq("a"), eq(0), eq(1))
+			.will(returnValue(events.future("a")));
+		m.expects(once()).method("set").with(eq("b"), eq(0), eq(2))
+			.will(returnValue(events.future("b")));
+		m.expects(once()).method("set").with(eq("c"), eq(0), eq(3))
+			.will(returnValue(events.future("c")));
+
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+
+		assertEquals(0, cl.loadData(events.entries(map), 1, 0));
+		// b shares the window of a, so a is waited for before c is taken.
+		assertTrue(events.list.toString(),
+				events.list.indexOf("get a") < events.list.indexOf("next c"));
+	}
+
+	public void testFullQueue() throws Exception {
+		Mock m = mock(MemcachedClientIF.class);
+		Mock locator = mock(NodeLocator.class);
+		Mock node1 = mock(MemcachedNode.class);
+		Mock node2 = mock(MemcachedNode.class);
+		node1.expects(atLeastOnce()).method("getSocketAddress")
+			.will(returnValue(new InetSocketAddress("localhost", 11211)));
+		node2.expects(atLeastOnce()).method("getSocketAddress")
+			.will(returnValue(new InetSocketAddress("localhost", 11212)));
+
+		EventRecorder events = new EventRecorder();
+		LoadCounter sl = new LoadCounter();
+		CacheLoader cl = new CacheLoader((MemcachedClientIF)m.proxy(),
+				null, sl, 0);
+
+		m.expects(once()).method("getNodeLocator")
+			.will(returnValue(locator.proxy()));
+		locator.expects(once()).method("getPrimary").with(eq("a"))
+			.will(returnValue(node1.proxy()));
+		locator.expects(once()).method("getPrimary").with(eq("b"))
+			.will(returnValue(node2.proxy()));
+		locator.expects(once()).method("getPrimary").with(eq("c"))
+			.will(returnValue(node2.proxy()));
+		m.expects(once()).method("set").with(eq("a"), eq(0), eq(1))
+			.will(returnValue(events.future("a")));
+		m.expects(once()).method("set").with(eq("b"), eq(0), eq(2))
+			.will(returnValue(events.future("b")));
+		m.expects(once()).method("set").with(eq("b"), eq(0), eq(2))
+			.will(throwException(new IllegalStateException("Full up")));
+		m.expects(once()).method("set").with(eq("c"), eq(0), eq(3))
+			.will(returnValue(events.future("c")));
+
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+
+		assertEquals(0, cl.loadData(events.entries(map), 10, 0));
+		assertEquals(3, sl.success);
+		// The window of b is empty, so the oldest store of the load is
+		// waited for before b is sent again.
+		assertTrue(events.list.toString(),
+				events.list.indexOf("get a") < events.list.indexOf("next c"));
+	}
+
+	public void testInvalidWindowSize() throws Exception {
+		CacheLoader cl = new CacheLoader(
+				(MemcachedClientIF)mock(MemcachedClientIF.class).proxy());
+		try {
+			cl.loadData(new HashMap<String, Object>().entrySet().iterator(),
+					0, 0);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Records the entries taken by the loader and the stores waited for.
+	 */
+	static class EventRecorder {
+
+		final List<String> list = new ArrayList<String>();
+
+		Iterator<Map.Entry<String, Object>> entries(Map<String, Object> map) {
+			final Iterator<Map.Entry<String, Object>> i =
+				map.entrySet().iterator();
+			return new Iterator<Map.Entry<String, Object>>() {
+				public boolean hasNext() {
+					return i.hasNext();
+				}
+
+				public Map.Entry<String, Object> next() {
+					Map.Entry<String, Object> e = i.next();
+					list.add("next " + e.getKey());
+					return e;
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		ImmediateFuture future(final String key) {
+			return new ImmediateFuture(true) {
+				@Override
+				public Boolean get()
+						throws InterruptedException, ExecutionException {
+					list.add("get " + key);
+					return super.get();
+				}
+			};
+		}
+	}
+
 	static class LoadCounter implements CacheLoader.StorageListener {
 
 		public volatile int exceptions = 0;
@@ -0,0 +1,81 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.collection.BaseIntegrationTest;
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+public class ArcusClientPoolBulkTest extends BaseIntegrationTest {
+
+	private ArcusClientPool pool;
+	private List<String> keys;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		ArcusClient other = new ArcusClient(new ConnectionFactoryBuilder()
+				.build(), AddrUtil.getAddresses(ARCUS_HOST));
+		pool = new ArcusClientPool(2, new ArcusClient[] { mc, other });
+
+		keys = new ArrayList<String>();
+		for (int i = 0; i < ArcusClientPool.MIN_SPLIT_KEY_COUNT * 3; i++) {
+			keys.add("ArcusClientPoolBulkTest" + i);
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		pool.asyncDeleteBulk(keys).get();
+		pool.getAllClients()[1].shutdown();
+		super.tearDown();
+	}
+
+	public void testSplitKeys() {
+		Map<ArcusClient, List<String>> parts = pool.splitKeys(keys);
+		Set<String> all = new HashSet<String>();
+		for (List<String> part : parts.values()) {
+			all.addAll(part);
+		}
+		Assert.assertEquals(keys.size(), all.size());
+		Assert.assertTrue(parts.size() <= 2);
+
+		Assert.assertEquals(1, pool.splitKeys(keys.subList(0, 10)).size());
+	}
+
+	public void testSetGetDeleteBulk() throws Exception {
+		Map<String, CollectionOperationStatus> failed = pool.asyncSetBulk(
+				keys, 60, "value").get(10000L, TimeUnit.MILLISECONDS);
+		Assert.assertTrue(failed.isEmpty());
+
+		Map<String, Object> values = pool.asyncGetBulk(keys).get(10000L,
+				TimeUnit.MILLISECONDS);
+		Assert.assertEquals(keys.size(), values.size());
+		Assert.assertEquals("value", values.get(keys.get(0)));
+
+		failed = pool.asyncDeleteBulk(keys).get(10000L, TimeUnit.MILLISECONDS);
+		Assert.assertTrue(failed.isEmpty());
+		Assert.assertTrue(pool.asyncGetBulk(keys).get().isEmpty());
+	}
+}
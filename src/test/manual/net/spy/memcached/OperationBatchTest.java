@@ -0,0 +1,90 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.collection.BaseIntegrationTest;
+import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.Element;
+import net.spy.memcached.collection.ElementFlagFilter;
+import net.spy.memcached.internal.CollectionFuture;
+
+public class OperationBatchTest extends BaseIntegrationTest {
+
+	private static final String KEY = OperationBatchTest.class.getSimpleName();
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mc.delete(KEY).get();
+		mc.delete(KEY + ":btree").get();
+		mc.delete(KEY + ":set").get();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		mc.delete(KEY).get();
+		mc.delete(KEY + ":btree").get();
+		mc.delete(KEY + ":set").get();
+		super.tearDown();
+	}
+
+	public void testMixedOperations() throws Exception {
+		Assert.assertTrue(mc.asyncBopInsert(KEY + ":btree", 1, null, "one",
+				new CollectionAttributes()).get());
+		Assert.assertTrue(mc.asyncSopInsert(KEY + ":set", "member",
+				new CollectionAttributes()).get());
+
+		OperationBatch batch = mc.newBatch();
+		Future<Boolean> set = batch.set(KEY, 60, "value");
+		Future<Object> get = batch.get(KEY + ":none");
+		CollectionFuture<Map<Long, Element<Object>>> bop = batch.bopGet(
+				KEY + ":btree", 0, 10, ElementFlagFilter.DO_NOT_FILTER, 0, 0,
+				false, false);
+		CollectionFuture<Boolean> exist = batch.sopExist(KEY + ":set",
+				"member");
+		Assert.assertEquals(4, batch.size());
+
+		List<Object> results = batch.execute().get(1000L,
+				TimeUnit.MILLISECONDS);
+		Assert.assertEquals(4, results.size());
+
+		Assert.assertTrue(set.get());
+		Assert.assertNull(get.get());
+		Assert.assertEquals("one", bop.get().get(1L).getValue());
+		Assert.assertTrue(exist.get());
+		Assert.assertEquals("value", mc.get(KEY));
+	}
+
+	public void testExecuteTwice() throws Exception {
+		OperationBatch batch = mc.newBatch();
+		batch.get(KEY);
+		batch.execute().get();
+
+		try {
+			batch.execute();
+			Assert.fail("The batch is executed twice.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
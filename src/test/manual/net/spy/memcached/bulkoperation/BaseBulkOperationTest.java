@@ -0,0 +1,49 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.spy.memcached.collection.BaseIntegrationTest;
+
+/**
+ * Base of the tests of the bulk operations.  The keys of a test are named
+ * after the test class, and are deleted after each test.
+ */
+public abstract class BaseBulkOperationTest extends BaseIntegrationTest {
+
+	protected static final int KEY_COUNT = 1000;
+
+	/**
+	 * Get the first count keys of the test.
+	 */
+	protected List<String> keys(int count) {
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			keys.add(getClass().getSimpleName() + i);
+		}
+		return keys;
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		mc.asyncDeleteBulk(keys(KEY_COUNT)).get(20000L, TimeUnit.MILLISECONDS);
+		super.tearDown();
+	}
+}
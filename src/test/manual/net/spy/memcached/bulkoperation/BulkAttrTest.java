@@ -0,0 +1,82 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.collection.Attributes;
+import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.CollectionGetResult;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+public class BulkAttrTest extends BaseBulkOperationTest {
+
+	@Override
+	protected void tearDown() throws Exception {
+		mc.delete("BulkAttrTestBTree").get();
+		super.tearDown();
+	}
+
+	public void testSetAttrBulk() throws Exception {
+		List<String> keys = keys(KEY_COUNT);
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+		keys.add("BulkAttrTestMissing");
+
+		Attributes attrs = new Attributes();
+		attrs.setExpireTime(600);
+		Map<String, CollectionOperationStatus> errorList = mc
+				.asyncSetAttrBulk(keys, attrs).get(20000L,
+						TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(1, errorList.size());
+		Assert.assertEquals(CollectionResponse.NOT_FOUND,
+				errorList.get("BulkAttrTestMissing").getResponse());
+		Assert.assertTrue(mc.asyncGetAttr(keys.get(0)).get().getExpireTime() > 60);
+	}
+
+	public void testGetAttrBulk() throws Exception {
+		List<String> keys = keys(KEY_COUNT);
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+		CollectionAttributes attrs = new CollectionAttributes();
+		attrs.setMaxCount(100);
+		mc.asyncBopInsert("BulkAttrTestBTree", 1, null, "value", attrs).get();
+		keys.add("BulkAttrTestBTree");
+		keys.add("BulkAttrTestMissing");
+
+		Map<String, CollectionGetResult<CollectionAttributes>> result = mc
+				.asyncGetAttrBulk(keys).get(20000L, TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(KEY_COUNT + 2, result.size());
+		CollectionGetResult<CollectionAttributes> missing = result
+				.get("BulkAttrTestMissing");
+		Assert.assertNull(missing.getValue());
+		Assert.assertEquals(CollectionResponse.NOT_FOUND, missing
+				.getCollectionResponse().getResponse());
+		Assert.assertTrue(result.get(keys.get(0)).getCollectionResponse()
+				.isSuccess());
+		Assert.assertEquals(Long.valueOf(1), result.get("BulkAttrTestBTree")
+				.getValue().getCount());
+		Assert.assertEquals(Long.valueOf(100), result.get("BulkAttrTestBTree")
+				.getValue().getMaxCount());
+	}
+}
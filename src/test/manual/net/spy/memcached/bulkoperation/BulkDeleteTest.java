@@ -0,0 +1,66 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.collection.ElementFlagFilter;
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+public class BulkDeleteTest extends BaseBulkOperationTest {
+
+	public void testDeleteBulk() throws Exception {
+		List<String> keys = keys(KEY_COUNT);
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+		mc.asyncBopInsert("BulkDeleteTestBTree", 1, null, "value",
+				new CollectionAttributes()).get();
+		keys.add("BulkDeleteTestBTree");
+		keys.add("BulkDeleteTestMissing");
+
+		Map<String, CollectionOperationStatus> errorList = mc
+				.asyncDeleteBulk(keys).get(20000L, TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(1, errorList.size());
+		Assert.assertEquals(CollectionResponse.NOT_FOUND,
+				errorList.get("BulkDeleteTestMissing").getResponse());
+		for (String key : keys) {
+			Assert.assertNull(mc.asyncGet(key).get());
+		}
+		Assert.assertNull(mc.asyncBopGet("BulkDeleteTestBTree", 1,
+				ElementFlagFilter.DO_NOT_FILTER, false, false).get());
+	}
+
+	public void testDeleteBulkNoreply() throws Exception {
+		List<String> keys = keys(KEY_COUNT);
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+
+		Assert.assertTrue(mc.asyncDeleteBulk(keys, true)
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+
+		// a get after the deletes on the same connection sees them.
+		for (String key : keys) {
+			Assert.assertNull(mc.asyncGet(key).get());
+		}
+	}
+}
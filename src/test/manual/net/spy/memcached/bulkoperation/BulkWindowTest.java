@@ -0,0 +1,110 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.AddrUtil;
+import net.spy.memcached.ArcusClient;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.collection.BaseIntegrationTest;
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+/**
+ * Bulk operations with more keys than the window of a node.
+ */
+public class BulkWindowTest extends BaseIntegrationTest {
+
+	private ArcusClient client;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		// one operation in flight per node
+		ConnectionFactoryBuilder cfb = new ConnectionFactoryBuilder();
+		cfb.setBulkServiceLoopLimit(1);
+		if (USE_ZK) {
+			client = ArcusClient.createArcusClient(ZK_HOST, ZK_SERVICE_ID,
+					cfb);
+		} else {
+			client = new ArcusClient(cfb.build(),
+					AddrUtil.getAddresses(ARCUS_HOST));
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		client.shutdown();
+		super.tearDown();
+	}
+
+	private List<String> keys(int count) {
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			keys.add("BulkWindowTest" + i);
+		}
+		return keys;
+	}
+
+	public void testWindowOfOne() throws Exception {
+		List<String> keys = keys(1000);
+
+		Map<String, CollectionOperationStatus> errorList = client
+				.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS);
+		Assert.assertTrue("Error list is not empty.", errorList.isEmpty());
+		for (String key : keys) {
+			Assert.assertEquals("value", mc.asyncGet(key).get());
+		}
+	}
+
+	public void testDefaultWindow() throws Exception {
+		List<String> keys = keys(10000);
+
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+		for (String key : keys) {
+			Assert.assertEquals("value", mc.asyncGet(key).get());
+		}
+	}
+
+	public void testCancel() throws Exception {
+		List<String> keys = keys(10000);
+
+		Future<Map<String, CollectionOperationStatus>> future = client
+				.asyncSetBulk(keys, 60, "value");
+		future.cancel(true);
+		Assert.assertTrue(future.isCancelled());
+		Assert.assertTrue(future.isDone());
+		try {
+			future.get(1000L, TimeUnit.MILLISECONDS);
+			Assert.fail("A cancelled bulk operation gave a result.");
+		} catch (ExecutionException e) {
+			// expected
+		}
+
+		// the client is still usable.
+		Assert.assertTrue(client.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.ops.CollectionOperationStatus;
+
+public class CASBulkTest extends BaseBulkOperationTest {
+
+	public void testGetsBulk() throws Exception {
+		List<String> keys = keys(KEY_COUNT);
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+		keys.add("CASBulkTestMissing");
+
+		Map<String, CASValue<Object>> result = mc.asyncGetsBulk(keys).get(
+				20000L, TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(KEY_COUNT, result.size());
+		Assert.assertEquals("value", result.get(keys.get(0)).getValue());
+		Assert.assertEquals(mc.gets(keys.get(0)).getCas(),
+				result.get(keys.get(0)).getCas());
+		Assert.assertFalse(result.containsKey("CASBulkTestMissing"));
+	}
+
+	public void testCASBulk() throws Exception {
+		List<String> keys = keys(KEY_COUNT);
+		Assert.assertTrue(mc.asyncSetBulk(keys, 60, "value")
+				.get(20000L, TimeUnit.MILLISECONDS).isEmpty());
+
+		Map<String, CASValue<Object>> values = mc.asyncGetsBulk(keys).get(
+				20000L, TimeUnit.MILLISECONDS);
+		Map<String, CASValue<Object>> updates =
+			new HashMap<String, CASValue<Object>>();
+		for (Map.Entry<String, CASValue<Object>> e : values.entrySet()) {
+			updates.put(e.getKey(), new CASValue<Object>(e.getValue()
+					.getCas(), "newValue"));
+		}
+		// modify one of the items after its gets.
+		Assert.assertTrue(mc.set(keys.get(1), 60, "modified").get());
+		updates.put("CASBulkTestMissing", new CASValue<Object>(1, "newValue"));
+
+		Map<String, CollectionOperationStatus> errorList = mc.asyncCASBulk(
+				updates, 60).get(20000L, TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(2, errorList.size());
+		Assert.assertEquals(CollectionResponse.EXISTS,
+				errorList.get(keys.get(1)).getResponse());
+		Assert.assertEquals(CollectionResponse.NOT_FOUND,
+				errorList.get("CASBulkTestMissing").getResponse());
+		Assert.assertEquals("newValue", mc.get(keys.get(0)));
+		Assert.assertEquals("modified", mc.get(keys.get(1)));
+	}
+}
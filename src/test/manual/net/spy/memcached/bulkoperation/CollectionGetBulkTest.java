@@ -0,0 +1,124 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import net.spy.memcached.collection.BaseIntegrationTest;
+import net.spy.memcached.collection.CollectionAttributes;
+import net.spy.memcached.collection.CollectionGetResult;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.collection.ElementFlagFilter;
+import net.spy.memcached.collection.ElementFlagFilter.CompOperands;
+
+public class CollectionGetBulkTest extends BaseIntegrationTest {
+
+	private List<String> keys(String prefix, int count) {
+		List<String> keys = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			keys.add(prefix + i);
+		}
+		return keys;
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		mc.asyncDeleteBulk(keys("CollectionGetBulkTestList", 100)).get();
+		mc.asyncDeleteBulk(keys("CollectionGetBulkTestSet", 100)).get();
+		mc.asyncDeleteBulk(keys("CollectionGetBulkTestBTree", 100)).get();
+		super.tearDown();
+	}
+
+	public void testLopGetBulk() throws Exception {
+		List<String> keys = keys("CollectionGetBulkTestList", 100);
+		for (String key : keys) {
+			for (int i = 0; i < 5; i++) {
+				Assert.assertTrue(mc.asyncLopInsert(key, -1, "value" + i,
+						new CollectionAttributes()).get());
+			}
+		}
+		keys.add("CollectionGetBulkTestMissing");
+
+		Map<String, CollectionGetResult<List<Object>>> result = mc
+				.asyncLopGetBulk(keys, 1, 3).get(20000L, TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(101, result.size());
+		List<Object> elements = result.get(keys.get(0)).getValue();
+		Assert.assertEquals(3, elements.size());
+		Assert.assertEquals("value1", elements.get(0));
+		Assert.assertEquals("value3", elements.get(2));
+
+		CollectionGetResult<List<Object>> missing = result
+				.get("CollectionGetBulkTestMissing");
+		Assert.assertNull(missing.getValue());
+		Assert.assertEquals(CollectionResponse.NOT_FOUND, missing
+				.getCollectionResponse().getResponse());
+	}
+
+	public void testSopGetBulk() throws Exception {
+		List<String> keys = keys("CollectionGetBulkTestSet", 100);
+		for (String key : keys) {
+			for (int i = 0; i < 5; i++) {
+				Assert.assertTrue(mc.asyncSopInsert(key, "value" + i,
+						new CollectionAttributes()).get());
+			}
+		}
+
+		Map<String, CollectionGetResult<Set<Object>>> result = mc
+				.asyncSopGetBulk(keys, 0).get(20000L, TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(100, result.size());
+		for (String key : keys) {
+			Set<Object> elements = result.get(key).getValue();
+			Assert.assertEquals(5, elements.size());
+			Assert.assertTrue(elements.contains("value4"));
+		}
+	}
+
+	public void testBopGetItemCountBulk() throws Exception {
+		List<String> keys = keys("CollectionGetBulkTestBTree", 100);
+		for (String key : keys) {
+			for (int i = 0; i < 10; i++) {
+				Assert.assertTrue(mc.asyncBopInsert(key, i,
+						new byte[] { (byte) (i % 2) }, "value" + i,
+						new CollectionAttributes()).get());
+			}
+		}
+		keys.add("CollectionGetBulkTestMissing");
+
+		ElementFlagFilter filter = new ElementFlagFilter(CompOperands.Equal,
+				new byte[] { 1 });
+		Map<String, CollectionGetResult<Integer>> result = mc
+				.asyncBopGetItemCountBulk(keys, 0, 7, filter).get(20000L,
+						TimeUnit.MILLISECONDS);
+
+		Assert.assertEquals(101, result.size());
+		for (String key : keys.subList(0, 100)) {
+			Assert.assertEquals(Integer.valueOf(4), result.get(key).getValue());
+		}
+		CollectionGetResult<Integer> missing = result
+				.get("CollectionGetBulkTestMissing");
+		Assert.assertNull(missing.getValue());
+		Assert.assertEquals(CollectionResponse.NOT_FOUND, missing
+				.getCollectionResponse().getResponse());
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.bulkoperation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+public class MutateBulkTest extends BaseBulkOperationTest {
+
+	private Map<String, Integer> counters() {
+		Map<String, Integer> counters = new HashMap<String, Integer>();
+		List<String> keys = keys(KEY_COUNT);
+		for (int i = 0; i < keys.size(); i++) {
+			counters.put(keys.get(i), i % 5 + 1);
+		}
+		return counters;
+	}
+
+	public void testIncrBulk() throws Exception {
+		Map<String, Integer> counters = counters();
+
+		Map<String, Long> values = mc.asyncIncrBulk(counters).get(20000L,
+				TimeUnit.MILLISECONDS);
+		Assert.assertEquals(counters.size(), values.size());
+		for (Long value : values.values()) {
+			Assert.assertEquals(-1L, value.longValue());
+		}
+
+		values = mc.asyncIncrBulk(counters, 10, 60).get(20000L,
+				TimeUnit.MILLISECONDS);
+		for (Long value : values.values()) {
+			Assert.assertEquals(10L, value.longValue());
+		}
+
+		values = mc.asyncIncrBulk(counters, 10, 60).get(20000L,
+				TimeUnit.MILLISECONDS);
+		for (Map.Entry<String, Long> e : values.entrySet()) {
+			Assert.assertEquals(10L + counters.get(e.getKey()), e.getValue()
+					.longValue());
+		}
+
+		values = mc.asyncDecrBulk(counters).get(20000L,
+				TimeUnit.MILLISECONDS);
+		for (Long value : values.values()) {
+			Assert.assertEquals(10L, value.longValue());
+		}
+	}
+
+	public void testAsyncIncrWithDefault() throws Exception {
+		String key = "MutateBulkTest0";
+		Assert.assertEquals(7L, mc.asyncIncr(key, 1, 7, 60).get()
+				.longValue());
+		Assert.assertEquals(8L, mc.asyncIncr(key, 1, 7, 60).get()
+				.longValue());
+		Assert.assertEquals(6L, mc.asyncDecr(key, 2, 7, 60).get()
+				.longValue());
+	}
+}
@@ -17,6 +17,7 @@
 package net.spy.memcached.bulkoperation;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -150,4 +151,76 @@ public class PipeInsertTest extends BaseIntegrationTest {
 		}
 	}
 
+	public void testBopPipeInsertIterator() {
+		final int elementCount = 1200;
+
+		Iterator<Element<Object>> elements = new Iterator<Element<Object>>() {
+			private int i = 0;
+
+			public boolean hasNext() {
+				return i < elementCount;
+			}
+
+			public Element<Object> next() {
+				Element<Object> e = new Element<Object>(i, "value" + i,
+						new byte[] { (byte) 1 });
+				i++;
+				return e;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		try {
+			CollectionFuture<Map<Integer, CollectionOperationStatus>> future = mc
+					.asyncBopPipedInsertBulk(KEY, elements,
+							new CollectionAttributes());
+
+			Map<Integer, CollectionOperationStatus> map = future.get(5000L,
+					TimeUnit.MILLISECONDS);
+
+			Assert.assertTrue(map.isEmpty());
+
+			Map<Long, Element<Object>> map3 = mc.asyncBopGet(KEY, 0, 9999,
+					ElementFlagFilter.DO_NOT_FILTER, 0, 0, false, false).get();
+
+			Assert.assertEquals(elementCount, map3.size());
+			Assert.assertEquals("value1199", map3.get(1199L).getValue());
+		} catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail(e.getMessage());
+		}
+	}
+
+	public void testLopPipeInsertIterator() {
+		int elementCount = 1200;
+
+		List<Object> elements = new ArrayList<Object>(elementCount);
+
+		for (int i = 0; i < elementCount; i++) {
+			elements.add("value" + i);
+		}
+
+		try {
+			CollectionFuture<Map<Integer, CollectionOperationStatus>> future = mc
+					.asyncLopPipedInsertBulk(KEY, 0, elements.iterator(),
+							new CollectionAttributes());
+
+			Map<Integer, CollectionOperationStatus> map = future.get(5000L,
+					TimeUnit.MILLISECONDS);
+
+			Assert.assertTrue(map.isEmpty());
+
+			List<Object> list = mc.asyncLopGet(KEY, 0, 9999, false, false)
+					.get();
+
+			Assert.assertEquals(elements, list);
+		} catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail(e.getMessage());
+		}
+	}
+
 }
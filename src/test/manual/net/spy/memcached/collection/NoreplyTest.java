@@ -0,0 +1,102 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.collection;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class NoreplyTest extends BaseIntegrationTest {
+
+	private String key = "NoreplyTest";
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		mc.delete(key).get();
+	}
+
+	protected void tearDown() throws Exception {
+		mc.delete(key).get();
+		super.tearDown();
+	}
+
+	public void testSetAndDelete() throws Exception {
+		assertTrue(mc.asyncSetNoreply(key, 60, "value").get(1000,
+				TimeUnit.MILLISECONDS));
+		// replies are in order, so the next get sees the noreply request.
+		assertEquals("value", mc.asyncGet(key).get(1000,
+				TimeUnit.MILLISECONDS));
+
+		assertTrue(mc.asyncDeleteNoreply(key).get(1000,
+				TimeUnit.MILLISECONDS));
+		assertNull(mc.asyncGet(key).get(1000, TimeUnit.MILLISECONDS));
+	}
+
+	public void testIncrDecr() throws Exception {
+		assertTrue(mc.set(key, 60, "10").get());
+
+		assertTrue(mc.asyncIncrNoreply(key, 5).get(1000,
+				TimeUnit.MILLISECONDS));
+		assertTrue(mc.asyncDecrNoreply(key, 2).get(1000,
+				TimeUnit.MILLISECONDS));
+		assertEquals(13L, mc.incr(key, 0));
+	}
+
+	public void testBopInsertUpdateDelete() throws Exception {
+		assertTrue(mc.asyncBopInsertNoreply(key, 1L, null, "v1",
+				new CollectionAttributes()).get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(mc.asyncBopInsertNoreply(key, 2L, null, "v2", null).get(
+				1000, TimeUnit.MILLISECONDS));
+		assertTrue(mc.asyncBopUpdateNoreply(key, 2L, null, "v3").get(1000,
+				TimeUnit.MILLISECONDS));
+
+		Map<Long, Element<Object>> map = mc.asyncBopGet(key, 0, 10,
+				ElementFlagFilter.DO_NOT_FILTER, 0, 10, false, false).get(
+				1000, TimeUnit.MILLISECONDS);
+		assertEquals(2, map.size());
+		assertEquals("v3", map.get(2L).getValue());
+
+		assertTrue(mc.asyncBopDeleteNoreply(key, 1L,
+				ElementFlagFilter.DO_NOT_FILTER, false).get(1000,
+				TimeUnit.MILLISECONDS));
+		assertEquals(Long.valueOf(1), mc.asyncGetAttr(key).get(1000,
+				TimeUnit.MILLISECONDS).getCount());
+	}
+
+	public void testSopInsertDelete() throws Exception {
+		assertTrue(mc.asyncSopInsertNoreply(key, "v1",
+				new CollectionAttributes()).get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(mc.asyncSopExist(key, "v1").get(1000,
+				TimeUnit.MILLISECONDS));
+
+		assertTrue(mc.asyncSopDeleteNoreply(key, "v1", false).get(1000,
+				TimeUnit.MILLISECONDS));
+		assertFalse(mc.asyncSopExist(key, "v1").get(1000,
+				TimeUnit.MILLISECONDS));
+	}
+
+	public void testLopInsertDelete() throws Exception {
+		assertTrue(mc.asyncLopInsertNoreply(key, -1, "v1",
+				new CollectionAttributes()).get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(mc.asyncLopInsertNoreply(key, -1, "v2", null).get(1000,
+				TimeUnit.MILLISECONDS));
+
+		assertTrue(mc.asyncLopDeleteNoreply(key, 0, false).get(1000,
+				TimeUnit.MILLISECONDS));
+		assertEquals("v2", mc.asyncLopGet(key, 0, false, false).get(1000,
+				TimeUnit.MILLISECONDS).get(0));
+	}
+}
@@ -284,6 +284,35 @@ public class BopGetBulkTest extends BaseIntegrationTest {
 		}
 	}
 
+	public void testOverLimits() {
+		try {
+			for (long bkey = 3; bkey < 120; bkey++) {
+				mc.asyncBopInsert(keyList.get(0), bkey, null, value + bkey,
+						new CollectionAttributes()).get();
+			}
+
+			// 499 keys and 100 elements are split into several operations.
+			CollectionGetBulkFuture<Map<String, BTreeGetResult<Long, Object>>> f = mc
+					.asyncBopGetBulk(keyList2, 0, 1000,
+							ElementFlagFilter.DO_NOT_FILTER, 10, 100);
+			Map<String, BTreeGetResult<Long, Object>> results = f.get(
+					5000L, TimeUnit.MILLISECONDS);
+
+			Assert.assertEquals(keyList2.size(), results.size());
+			BTreeGetResult<Long, Object> first = results.get(keyList.get(0));
+			Assert.assertEquals(CollectionResponse.OK, first
+					.getCollectionResponse().getResponse());
+			Assert.assertEquals(100, first.getElements().size());
+			Assert.assertEquals(value + 10, first.getElements().get(10L)
+					.getValue());
+			Assert.assertEquals(value + 109, first.getElements().get(109L)
+					.getValue());
+		} catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail(e.getMessage());
+		}
+	}
+
 	public void testUnreadable() {
 		try {
 			Map<String, BTreeGetResult<Long, Object>> results = null;
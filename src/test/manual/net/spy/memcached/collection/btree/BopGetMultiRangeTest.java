@@ -0,0 +1,128 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.collection.btree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import net.spy.memcached.collection.BKeyRange;
+import net.spy.memcached.collection.BaseIntegrationTest;
+import net.spy.memcached.collection.CollectionResponse;
+import net.spy.memcached.collection.Element;
+import net.spy.memcached.collection.ElementFlagFilter;
+import net.spy.memcached.internal.CollectionFuture;
+import net.spy.memcached.transcoders.LongTranscoder;
+
+public class BopGetMultiRangeTest extends BaseIntegrationTest {
+
+	private String key = "BopGetMultiRangeTest";
+
+	private Long[] items10 = { 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L };
+
+	protected void tearDown() {
+		try {
+			deleteBTree(key, items10);
+			super.tearDown();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	public void testBopGetRanges() throws Exception {
+		addToBTree(key, items10);
+
+		List<BKeyRange> ranges = new ArrayList<BKeyRange>();
+		ranges.add(new BKeyRange(7, 8));
+		ranges.add(new BKeyRange(0, 1));
+		ranges.add(new BKeyRange(4, 4));
+
+		Map<Long, Element<Long>> rmap = mc.asyncBopGet(key, ranges,
+				ElementFlagFilter.DO_NOT_FILTER, 0, new LongTranscoder())
+				.get(1000, TimeUnit.MILLISECONDS);
+		assertEquals(5, rmap.size());
+		assertEquals((Long) 5L, rmap.get(4L).getValue());
+
+		// Check ordering
+		assertTrue(rmap instanceof TreeMap);
+		assertEquals(0L, ((TreeMap<Long, Element<Long>>) rmap).firstKey()
+				.longValue());
+		assertEquals(8L, ((TreeMap<Long, Element<Long>>) rmap).lastKey()
+				.longValue());
+	}
+
+	public void testBopGetRangesDesc() throws Exception {
+		addToBTree(key, items10);
+
+		List<BKeyRange> ranges = new ArrayList<BKeyRange>();
+		ranges.add(new BKeyRange(9, 5));
+		ranges.add(new BKeyRange(3, 0));
+
+		Map<Long, Element<Object>> rmap = mc.asyncBopGet(key, ranges,
+				ElementFlagFilter.DO_NOT_FILTER, 2).get(1000,
+				TimeUnit.MILLISECONDS);
+		assertEquals(4, rmap.size());
+		assertEquals(9L, ((TreeMap<Long, Element<Object>>) rmap).firstKey()
+				.longValue());
+		assertEquals(2L, ((TreeMap<Long, Element<Object>>) rmap).lastKey()
+				.longValue());
+	}
+
+	public void testBopGetBKeys() throws Exception {
+		addToBTree(key, items10);
+
+		CollectionFuture<Map<Long, Element<Object>>> f = mc.asyncBopGet(key,
+				new long[] { 9, 2, 100, 5 }, ElementFlagFilter.DO_NOT_FILTER);
+		Map<Long, Element<Object>> rmap = f.get(1000, TimeUnit.MILLISECONDS);
+		assertEquals(3, rmap.size());
+		assertTrue(rmap.containsKey(2L));
+		assertTrue(rmap.containsKey(5L));
+		assertTrue(rmap.containsKey(9L));
+		assertTrue(f.getOperationStatus().isSuccess());
+	}
+
+	public void testBopGetBKeysNotFoundElement() throws Exception {
+		addToBTree(key, items10);
+
+		CollectionFuture<Map<Long, Element<Object>>> f = mc.asyncBopGet(key,
+				new long[] { 100, 200 }, ElementFlagFilter.DO_NOT_FILTER);
+		Map<Long, Element<Object>> rmap = f.get(1000, TimeUnit.MILLISECONDS);
+		assertTrue(rmap.isEmpty());
+		assertEquals(CollectionResponse.NOT_FOUND_ELEMENT, f
+				.getOperationStatus().getResponse());
+	}
+
+	public void testBopGetBKeysNotFound() throws Exception {
+		CollectionFuture<Map<Long, Element<Object>>> f = mc.asyncBopGet(
+				"BopGetMultiRangeTest_NoKey", new long[] { 1, 2 },
+				ElementFlagFilter.DO_NOT_FILTER);
+		assertNull(f.get(1000, TimeUnit.MILLISECONDS));
+		assertEquals(CollectionResponse.NOT_FOUND, f.getOperationStatus()
+				.getResponse());
+	}
+
+	public void testEmptyRanges() throws Exception {
+		try {
+			mc.asyncBopGet(key, new long[0], ElementFlagFilter.DO_NOT_FILTER);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * arcus-java-client : Arcus Java client
+ * Copyright 2010-2014 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.spy.memcached.test;
+
+import java.security.MessageDigest;
+
+import org.junit.Ignore;
+
+import junit.framework.TestCase;
+import net.spy.memcached.HashAlgorithm;
+import net.spy.memcached.KeyUtil;
+
+/**
+ * Compare KETAMA_HASH key hashing with the former implementation,
+ * which cloned the md5 digest and encoded the key for every call.
+ */
+@Ignore
+public class KetamaHashBench extends TestCase {
+
+	private static final MessageDigest MD5;
+
+	static {
+		try {
+			MD5 = MessageDigest.getInstance("MD5");
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static long clonedDigestHash(String k) throws Exception {
+		MessageDigest md5 = (MessageDigest) MD5.clone();
+		md5.update(KeyUtil.getKeyBytes(k));
+		byte[] bKey = md5.digest();
+		return (((long) (bKey[3] & 0xFF) << 24)
+				| ((long) (bKey[2] & 0xFF) << 16)
+				| ((long) (bKey[1] & 0xFF) << 8)
+				| (bKey[0] & 0xFF)) & 0xffffffffL;
+	}
+
+	public void testCrap() throws Exception {
+		main(new String[] { "1000000" });
+	}
+
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+		String[] keys = new String[1024];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = "arcus:bench:key:" + i;
+			if (HashAlgorithm.KETAMA_HASH.hash(keys[i])
+					!= clonedDigestHash(keys[i])) {
+				throw new AssertionError("Hash mismatch for " + keys[i]);
+			}
+		}
+
+		// warm up both paths before measuring
+		for (int round = 0; round < 3; round++) {
+			long sum = 0;
+			long begin = System.nanoTime();
+			for (int i = 0; i < runs; i++) {
+				sum += clonedDigestHash(keys[i & 1023]);
+			}
+			long cloned = System.nanoTime() - begin;
+
+			begin = System.nanoTime();
+			for (int i = 0; i < runs; i++) {
+				sum -= HashAlgorithm.KETAMA_HASH.hash(keys[i & 1023]);
+			}
+			long threadLocal = System.nanoTime() - begin;
+
+			System.out.println("round " + round + ": cloned digest "
+					+ (cloned / runs) + " ns/op, per-thread digest "
+					+ (threadLocal / runs) + " ns/op (" + sum + ")");
+		}
+	}
+}